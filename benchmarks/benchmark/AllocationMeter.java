@@ -0,0 +1,79 @@
+package benchmark;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AllocationMeter measures the amount of bytes allocated on the heap by all the threads
+ * (including threads that already ended) between two points of time: the bytes freed
+ * by each garbage collection plus the growth of the heap
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public class AllocationMeter {
+    /**
+     * bytes freed by the garbage collections since the meter was created
+     */
+    private final AtomicLong _freed = new AtomicLong();
+    /**
+     * heap usage when the meter was started
+     */
+    private long _startUsed;
+    /**
+     * freed bytes when the meter was started
+     */
+    private long _startFreed;
+
+    /**
+     * AllocationMeter constructor. listens to the garbage collections
+     */
+    public AllocationMeter() {
+        NotificationListener listener = (notification, handback) -> {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                return;
+            }
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            long before = 0, after = 0;
+            for (MemoryUsage usage : info.getGcInfo().getMemoryUsageBeforeGc().values()) {
+                before += usage.getUsed();
+            }
+            for (MemoryUsage usage : info.getGcInfo().getMemoryUsageAfterGc().values()) {
+                after += usage.getUsed();
+            }
+            _freed.addAndGet(Math.max(0, before - after));
+        };
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter) {
+                ((NotificationEmitter) gc).addNotificationListener(listener, null, null);
+            }
+        }
+    }
+
+    /**
+     * start measuring
+     */
+    public void start() {
+        _startFreed = _freed.get();
+        _startUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * bytes allocated since the last start (approximated - garbage collection
+     * notifications are delivered asynchronously)
+     *
+     * @return allocated bytes
+     */
+    public long allocatedBytes() {
+        long used = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        return Math.max(0, (_freed.get() - _startFreed) + (used - _startUsed));
+    }
+}
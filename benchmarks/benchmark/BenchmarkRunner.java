@@ -0,0 +1,30 @@
+package benchmark;
+
+import geometries.IntersectionsBenchmark;
+import primitives.PrimitivesBenchmark;
+
+import java.util.Random;
+
+/**
+ * Command line entry point of the micro benchmarks.
+ * <p>
+ * usage: java -cp &lt;classes&gt; benchmark.BenchmarkRunner [-wi n] [-i n] [-t millis] [-seed n] [-f regex] [-csv] [-fork 0]
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * run the micro benchmarks
+     *
+     * @param args benchmark options (see {@link MicroBenchmark.Options#parse(String[])})
+     */
+    public static void main(String[] args) {
+        MicroBenchmark.Options options = MicroBenchmark.Options.parse(args);
+        MicroBenchmark bench = new MicroBenchmark();
+        PrimitivesBenchmark.register(bench, new Random(options.seed));
+        IntersectionsBenchmark.register(bench, new Random(options.seed));
+        bench.run(options, BenchmarkRunner.class, System.out);
+    }
+}
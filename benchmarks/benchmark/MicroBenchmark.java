@@ -0,0 +1,339 @@
+package benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * MicroBenchmark is a small benchmarking harness (in the spirit of JMH) measuring
+ * the average time of operations: each benchmark is warmed up, then measured in
+ * several timed iterations, and the mean and standard deviation of the time per
+ * operation are reported. each benchmark runs in a new JVM of its own, so the JIT
+ * compiler's profile of the harness's call site holds only its operation (a call site
+ * shared by many operations is not inlined, and the results would depend on the order
+ * of the benchmarks)
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public class MicroBenchmark {
+    /**
+     * Operation is a benchmarked operation
+     */
+    @FunctionalInterface
+    public interface Operation {
+        /**
+         * run the operation once
+         *
+         * @param i    running counter of the invocations, used to cycle through inputs
+         * @param sink consumes the result of the operation, so it is not optimized away
+         */
+        void run(int i, Blackhole sink);
+    }
+
+    /**
+     * Blackhole consumes the results of the operations without the cost of storing them -
+     * a result is compared with values the JIT compiler can't predict (volatile reads, which
+     * are plain loads on x86) and is stored only when it matches them, which never happens.
+     * primitive results are consumed without boxing. objects are stored once in a growing
+     * amount of calls, so they escape and their allocation is not eliminated
+     */
+    public static final class Blackhole {
+        private volatile double _d1 = 1, _d2 = 2;
+        private volatile long _l1 = 1, _l2 = 2;
+        private double _d;
+        private long _l;
+        private Object _o;
+        private int _random = (int) System.nanoTime();
+        private int _mask = 1;
+
+        /**
+         * consume a double result
+         *
+         * @param d the result
+         */
+        public void consume(double d) {
+            if (d == _d1 & d == _d2) {//never both
+                _d = d;
+            }
+        }
+
+        /**
+         * consume a long (or int) result
+         *
+         * @param l the result
+         */
+        public void consume(long l) {
+            if (l == _l1 & l == _l2) {//never both
+                _l = l;
+            }
+        }
+
+        /**
+         * consume a boolean result
+         *
+         * @param b the result
+         */
+        public void consume(boolean b) {
+            consume(b ? 1L : 0L);
+        }
+
+        /**
+         * consume an object result
+         *
+         * @param o the result
+         */
+        public void consume(Object o) {
+            int random = _random = _random * 1664525 + 1013904223;
+            if ((random & _mask) == 0) {
+                _o = o;
+                _mask = (_mask << 1) + 1;
+            }
+        }
+    }
+
+    /**
+     * Options holds the parameters of a benchmark run
+     */
+    public static class Options {
+        /**
+         * amount of warmup iterations
+         */
+        public int warmupIterations = 5;
+        /**
+         * amount of measured iterations
+         */
+        public int iterations = 10;
+        /**
+         * duration of each iteration in milliseconds
+         */
+        public long iterationMillis = 500;
+        /**
+         * seed of the random inputs
+         */
+        public long seed = 5781;
+        /**
+         * regular expression selecting the benchmarks to run
+         */
+        public Pattern filter = Pattern.compile(".*");
+        /**
+         * report in csv format
+         */
+        public boolean csv = false;
+        /**
+         * run each benchmark in a new JVM
+         */
+        public boolean fork = true;
+        /**
+         * name of the single benchmark run by a forked JVM (null in the JVM that runs them all)
+         */
+        public String benchmark = null;
+        /**
+         * the command line arguments (passed to the forked JVMs)
+         */
+        private String[] _args = new String[0];
+
+        /**
+         * parse the options from command line arguments:
+         * -wi warmup iterations, -i measured iterations, -t iteration time in milliseconds,
+         * -seed random seed, -f benchmarks name filter (regular expression), -csv csv report,
+         * -fork 0 to run all the benchmarks in the current JVM (e.g. for debugging)
+         *
+         * @param args command line arguments
+         * @return the parsed options
+         */
+        public static Options parse(String[] args) {
+            Options options = new Options();
+            options._args = args.clone();
+            for (int i = 0; i < args.length; ++i) {
+                switch (args[i]) {
+                    case "-wi":
+                        options.warmupIterations = Integer.parseInt(args[++i]);
+                        break;
+                    case "-i":
+                        options.iterations = Integer.parseInt(args[++i]);
+                        break;
+                    case "-t":
+                        options.iterationMillis = Long.parseLong(args[++i]);
+                        break;
+                    case "-seed":
+                        options.seed = Long.parseLong(args[++i]);
+                        break;
+                    case "-f":
+                        options.filter = Pattern.compile(args[++i]);
+                        break;
+                    case "-csv":
+                        options.csv = true;
+                        break;
+                    case "-fork":
+                        options.fork = Integer.parseInt(args[++i]) != 0;
+                        break;
+                    case "-benchmark":
+                        options.benchmark = args[++i];
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            return options;
+        }
+    }
+
+    /**
+     * amount of invocations between clock readings
+     */
+    private static final int BATCH = 256;
+
+    /**
+     * registered benchmarks names
+     */
+    private final List<String> _names = new LinkedList<>();
+    /**
+     * registered benchmarks operations
+     */
+    private final List<Operation> _operations = new LinkedList<>();
+    /**
+     * sink of the operations' results
+     */
+    private final Blackhole _sink = new Blackhole();
+
+    /**
+     * register a benchmark
+     *
+     * @param name      benchmark's name
+     * @param operation benchmarked operation
+     * @return current MicroBenchmark instance
+     */
+    public MicroBenchmark add(String name, Operation operation) {
+        _names.add(name);
+        _operations.add(operation);
+        return this;
+    }
+
+    /**
+     * run the registered benchmarks matching the filter and print a report.
+     * each benchmark is run by a new JVM running the main class with the same arguments
+     * (and JVM options), which must register the same benchmarks
+     *
+     * @param options parameters of the run
+     * @param main    class whose main method registers the benchmarks and calls this method
+     * @param out     stream to print the report to
+     */
+    public void run(Options options, Class<?> main, PrintStream out) {
+        if (options.benchmark == null) {
+            if (options.csv) {
+                out.println("benchmark,mean_ns_per_op,stddev_ns_per_op,iterations");
+            } else {
+                out.printf(Locale.ROOT, "%-45s %14s %12s%n", "Benchmark", "ns/op", "+-");
+            }
+        }
+        for (int b = 0; b < _names.size(); ++b) {
+            String name = _names.get(b);
+            if (options.benchmark != null ? !options.benchmark.equals(name) : !options.filter.matcher(name).find()) {
+                continue;
+            }
+            if (options.fork && options.benchmark == null) {
+                fork(options, main, name, out);
+            } else {
+                measure(options, name, _operations.get(b), out);
+            }
+        }
+    }
+
+    /**
+     * run a benchmark in a new JVM and copy its report line
+     *
+     * @param options parameters of the run
+     * @param main    class whose main method registers the benchmarks
+     * @param name    benchmark's name
+     * @param out     stream to print the report to
+     */
+    private static void fork(Options options, Class<?> main, String name, PrintStream out) {
+        List<String> command = new LinkedList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), main.getName()));
+        command.addAll(Arrays.asList(options._args));
+        command.addAll(List.of("-benchmark", name));
+        try {
+            Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    out.println(line);
+                }
+            }
+            if (process.waitFor() != 0) {
+                throw new IllegalStateException("Benchmark " + name + " failed");
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't run benchmark " + name, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Benchmark " + name + " was interrupted", e);
+        }
+    }
+
+    /**
+     * measure a benchmark in the current JVM and print its report line
+     *
+     * @param options   parameters of the run
+     * @param name      benchmark's name
+     * @param operation benchmarked operation
+     * @param out       stream to print the report to
+     */
+    private void measure(Options options, String name, Operation operation, PrintStream out) {
+        for (int i = 0; i < options.warmupIterations; ++i) {
+            iteration(operation, options.iterationMillis);
+        }
+        double[] results = new double[options.iterations];
+        for (int i = 0; i < options.iterations; ++i) {
+            results[i] = iteration(operation, options.iterationMillis);
+        }
+        double mean = 0;
+        for (double r : results) {
+            mean += r;
+        }
+        mean /= results.length;
+        double variance = 0;
+        for (double r : results) {
+            variance += (r - mean) * (r - mean);
+        }
+        double stddev = results.length > 1 ? Math.sqrt(variance / (results.length - 1)) : 0;
+        if (options.csv) {
+            out.printf(Locale.ROOT, "%s,%.3f,%.3f,%d%n", name, mean, stddev, results.length);
+        } else {
+            out.printf(Locale.ROOT, "%-45s %14.3f %12.3f%n", name, mean, stddev);
+        }
+    }
+
+    /**
+     * run a single timed iteration of an operation
+     *
+     * @param operation      benchmarked operation
+     * @param iterationMillis duration of the iteration in milliseconds
+     * @return average time of the operation in nanoseconds
+     */
+    private double iteration(Operation operation, long iterationMillis) {
+        long duration = iterationMillis * 1_000_000L;
+        long operations = 0;
+        int counter = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int i = 0; i < BATCH; ++i) {
+                operation.run(counter++, _sink);
+            }
+            operations += BATCH;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < duration);
+        return (double) elapsed / operations;
+    }
+}
@@ -0,0 +1,177 @@
+package benchmark;
+
+import primitives.SampleSequence;
+import renderer.BasicRayTracer;
+import renderer.ImageWriter;
+import renderer.PathTracer;
+import renderer.Render;
+import scene.Scene;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * End-to-end render benchmarks - measure frames per second, rays per second and
+ * allocation rate of {@link Render#renderImage()} for generated scenes across thread counts.
+ * each result is reported as a JSON line, so reports can be appended and tracked over time.
+ * <p>
+ * usage: java -cp &lt;classes&gt; benchmark.RenderBenchmark [-scene spheres,mesh,mirrors,glass,glossy]
+ * [-n 100] [-lights 4] [-size 200] [-threads 1,2,4] [-frames 3] [-warmup 1] [-packet 1] [-tiles 0] [-lightSamples 0] [-paths 0] [-sequence random] [-beamRays 1089] [-seed n] [-o report.jsonl]
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public final class RenderBenchmark {
+    private String[] _scenes = {"spheres", "mesh", "mirrors", "glass"};
+    private int _n = 100;
+    private int _lights = 4;
+    private int _size = 200;
+    private int[] _threads = {1, 2, 4};
+    private int _frames = 3;
+    private int _warmup = 1;
+    private int _packet = 1;
+    private int _tiles = 0;
+    private int _lightSamples = 0;
+    private int _paths = 0;
+    private SampleSequence _sequence = SampleSequence.RANDOM;
+    private int _beamRays = 1089;
+    private long _seed = 5781;
+    private String _output = null;
+
+    /**
+     * run the render benchmarks
+     *
+     * @param args benchmark options
+     * @throws IOException if the report file can't be written
+     */
+    public static void main(String[] args) throws IOException {
+        RenderBenchmark benchmark = new RenderBenchmark();
+        benchmark.parse(args);
+        benchmark.run();
+    }
+
+    /**
+     * parse the command line arguments
+     *
+     * @param args command line arguments
+     */
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; ++i) {
+            switch (args[i]) {
+                case "-scene":
+                    _scenes = args[++i].split(",");
+                    break;
+                case "-n":
+                    _n = Integer.parseInt(args[++i]);
+                    break;
+                case "-lights":
+                    _lights = Integer.parseInt(args[++i]);
+                    break;
+                case "-size":
+                    _size = Integer.parseInt(args[++i]);
+                    break;
+                case "-threads":
+                    String[] threads = args[++i].split(",");
+                    _threads = new int[threads.length];
+                    for (int t = 0; t < threads.length; ++t) {
+                        _threads[t] = Integer.parseInt(threads[t]);
+                    }
+                    break;
+                case "-frames":
+                    _frames = Integer.parseInt(args[++i]);
+                    break;
+                case "-warmup":
+                    _warmup = Integer.parseInt(args[++i]);
+                    break;
+                case "-packet":
+                    _packet = Integer.parseInt(args[++i]);
+                    break;
+                case "-tiles":
+                    _tiles = Integer.parseInt(args[++i]);
+                    break;
+                case "-lightSamples":
+                    _lightSamples = Integer.parseInt(args[++i]);
+                    break;
+                case "-paths":
+                    _paths = Integer.parseInt(args[++i]);
+                    break;
+                case "-sequence":
+                    _sequence = SampleSequence.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                    break;
+                case "-beamRays":
+                    _beamRays = Integer.parseInt(args[++i]);
+                    break;
+                case "-seed":
+                    _seed = Long.parseLong(args[++i]);
+                    break;
+                case "-o":
+                    _output = args[++i];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+    }
+
+    /**
+     * run the benchmarks of all the scenes and thread counts and report the results
+     *
+     * @throws IOException if the report file can't be written
+     */
+    private void run() throws IOException {
+        AllocationMeter meter = new AllocationMeter();
+        PrintWriter report = _output == null ? null : new PrintWriter(new FileWriter(_output, true));
+        try {
+            for (String kind : _scenes) {
+                //same seed for every scene kind so runs are reproducible
+                Scene scene = SceneGenerator.generate(kind, _n, _lights, new Random(_seed));
+                for (int threads : _threads) {
+                    Render render = new Render()
+                            .setImageWriter(new ImageWriter(scene._name, _size, _size))
+                            .setCamera(SceneGenerator.camera())
+                            .setRayTracer((_paths > 0 ? new PathTracer(scene).setSamples(_paths) : new BasicRayTracer(scene))
+                                    .setLightSamples(_lightSamples).setSampleSequence(_sequence).setBeamRays(_beamRays))
+                            .setPacketSize(_packet)
+                            .setTileScheduling(_tiles);
+                    if (threads > 0) {
+                        render.setMultithreading(threads);
+                    }
+                    for (int i = 0; i < _warmup; ++i) {
+                        render.renderImage();
+                    }
+                    meter.start();
+                    long start = System.nanoTime();
+                    long rays = 0, tests = 0;
+                    for (int i = 0; i < _frames; ++i) {
+                        render.renderImage();
+                        rays += render.getRenderStats().getTotalRays();
+                        tests += render.getRenderStats().getGeometryTests();
+                    }
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    long allocated = meter.allocatedBytes();
+
+                    String line = String.format(Locale.ROOT,
+                            "{\"timestamp\":\"%s\",\"java\":\"%s\",\"scene\":\"%s\",\"n\":%d,\"lights\":%d," +
+                                    "\"size\":%d,\"packet\":%d,\"tiles\":%d,\"lightSamples\":%d,\"paths\":%d,\"sequence\":\"%s\",\"beamRays\":%d,\"threads\":%d,\"frames\":%d,\"seconds\":%.4f," +
+                                    "\"fps\":%.4f,\"raysPerSec\":%.1f,\"testsPerRay\":%.2f,\"allocBytesPerSec\":%.1f}",
+                            Instant.now(), System.getProperty("java.version"), kind, _n, _lights, _size, _packet, _tiles, _lightSamples, _paths,
+                            _sequence.name().toLowerCase(Locale.ROOT), _beamRays,
+                            threads, _frames, seconds, _frames / seconds, rays / seconds, (double) tests / rays,
+                            allocated / seconds);
+                    System.out.println(line);
+                    if (report != null) {
+                        report.println(line);
+                    }
+                }
+            }
+        } finally {
+            if (report != null) {
+                report.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package benchmark;
+
+import elements.AmbientLight;
+import elements.Camera;
+import elements.PointLight;
+import elements.SpotLight;
+import geometries.Sphere;
+import geometries.Triangle;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point3D;
+import primitives.Vector;
+import scene.Scene;
+
+import java.util.Random;
+
+/**
+ * SceneGenerator generates parameterized scenes of scalable size for render benchmarks.
+ * all the scenes are inside the box [-100,100]x[-100,100]x[-300,-100] and are watched by
+ * the same camera
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public final class SceneGenerator {
+    /**
+     * kinds of generated scenes
+     */
+    public static final String[] KINDS = {"spheres", "mesh", "mirrors", "glass", "glossy"};
+
+    /**
+     * Empty private ctor to hide the public one
+     */
+    private SceneGenerator() {
+    }
+
+    /**
+     * create the camera watching the generated scenes
+     *
+     * @return the camera
+     */
+    public static Camera camera() {
+        return new Camera(new Point3D(0, 0, 500), new Vector(0, 0, -1), new Vector(0, 1, 0))
+                .setViewPlaneSize(220, 220).setDistance(600);
+    }
+
+    /**
+     * generate a scene
+     *
+     * @param kind   kind of the scene:
+     *               <ul>
+     *               <li>spheres - n random diffuse spheres</li>
+     *               <li>mesh - height field mesh of about n triangles</li>
+     *               <li>mirrors - n random spheres (some transparent) in front of two mirror triangles</li>
+     *               <li>glass - n random transparent spheres each containing a smaller sphere</li>
+     *               <li>glossy - like mirrors, with glossy mirrors</li>
+     *               </ul>
+     * @param n      amount of geometries
+     * @param lights amount of point lights
+     * @param random random generator
+     * @return the generated scene
+     */
+    public static Scene generate(String kind, int n, int lights, Random random) {
+        Scene scene = new Scene(kind + "-" + n)
+                .setAmbientLight(new AmbientLight(new Color(255, 255, 255), 0.1))
+                .setBackground(new Color(20, 20, 40));
+        switch (kind) {
+            case "spheres":
+                addSpheres(scene, n, 0, random);
+                break;
+            case "mesh":
+                addMesh(scene, n, random);
+                break;
+            case "mirrors":
+                addSpheres(scene, n, 0.5, random);
+                addMirrors(scene, 100);
+                break;
+            case "glass":
+                addGlassSpheres(scene, n, random);
+                break;
+            case "glossy":
+                addSpheres(scene, n, 0.5, random);
+                addMirrors(scene, 90);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown scene kind: " + kind);
+        }
+        addLights(scene, lights, random);
+        return scene;
+    }
+
+    /**
+     * add random spheres to a scene
+     *
+     * @param scene       the scene
+     * @param n           amount of spheres
+     * @param transparent part of the spheres that are transparent
+     * @param random      random generator
+     */
+    private static void addSpheres(Scene scene, int n, double transparent, Random random) {
+        //keep the total volume of the spheres roughly constant
+        double radius = 60 / Math.cbrt(n);
+        for (int i = 0; i < n; ++i) {
+            Material material = new Material().setKd(0.5).setKs(0.4).setShininess(50);
+            if (random.nextDouble() < transparent) {
+                material.setKt(0.6);
+            }
+            scene._geometries.add(new Sphere(radius * (0.5 + random.nextDouble()), randomPoint(random))
+                    .setEmission(randomColor(random))
+                    .setMaterial(material));
+        }
+    }
+
+    /**
+     * add transparent spheres each containing a smaller opaque sphere to a scene
+     *
+     * @param scene  the scene
+     * @param n      amount of spheres (half of them transparent)
+     * @param random random generator
+     */
+    private static void addGlassSpheres(Scene scene, int n, Random random) {
+        double radius = 60 / Math.cbrt(n);
+        for (int i = 0; i < n / 2; ++i) {
+            Point3D center = randomPoint(random);
+            double r = radius * (0.5 + random.nextDouble());
+            scene._geometries.add(new Sphere(r, center)
+                            .setEmission(new Color(0, 0, 60))
+                            .setMaterial(new Material().setKd(0.25).setKs(0.25).setShininess(20).setKt(0.5)),
+                    new Sphere(r / 2, center)
+                            .setEmission(randomColor(random))
+                            .setMaterial(new Material().setKd(0.25).setKs(0.25).setShininess(20)));
+        }
+    }
+
+    /**
+     * add a height field mesh of triangles to a scene
+     *
+     * @param scene  the scene
+     * @param n      approximate amount of triangles
+     * @param random random generator
+     */
+    private static void addMesh(Scene scene, int n, Random random) {
+        int cells = Math.max(1, (int) Math.sqrt(n / 2d));
+        double cellSize = 200d / cells;
+        double[][] heights = new double[cells + 1][cells + 1];
+        for (int i = 0; i <= cells; ++i) {
+            for (int j = 0; j <= cells; ++j) {
+                heights[i][j] = -200 + random.nextDouble() * 20;
+            }
+        }
+        Material material = new Material().setKd(0.6).setKs(0.3).setShininess(30);
+        for (int i = 0; i < cells; ++i) {
+            for (int j = 0; j < cells; ++j) {
+                double x0 = -100 + j * cellSize, x1 = x0 + cellSize;
+                double y0 = -100 + i * cellSize, y1 = y0 + cellSize;
+                Point3D p00 = new Point3D(x0, y0, heights[i][j]);
+                Point3D p01 = new Point3D(x1, y0, heights[i][j + 1]);
+                Point3D p10 = new Point3D(x0, y1, heights[i + 1][j]);
+                Point3D p11 = new Point3D(x1, y1, heights[i + 1][j + 1]);
+                scene._geometries.add(new Triangle(p00, p01, p11).setEmission(randomColor(random)).setMaterial(material),
+                        new Triangle(p00, p11, p10).setEmission(randomColor(random)).setMaterial(material));
+            }
+        }
+    }
+
+    /**
+     * add two mirror triangles behind the scene (modelled on the mirrors reflection test)
+     *
+     * @param scene   the scene
+     * @param kGlossy gloss coefficient of the mirrors (100 for perfect mirrors)
+     */
+    private static void addMirrors(Scene scene, double kGlossy) {
+        scene._geometries.add(
+                new Triangle(new Point3D(300, -300, -320), new Point3D(-300, 300, -320), new Point3D(300, 300, -250))
+                        .setEmission(new Color(20, 20, 20))
+                        .setMaterial(new Material().setKr(1).setKGlossy(kGlossy)),
+                new Triangle(new Point3D(300, -300, -320), new Point3D(-300, 300, -320), new Point3D(-300, -300, -250))
+                        .setEmission(new Color(20, 20, 20))
+                        .setMaterial(new Material().setKr(0.5).setKGlossy(kGlossy)));
+        scene._lights.add(new SpotLight(new Color(1020, 400, 400), new Point3D(-150, -150, 100), new Vector(1, 1, -4))
+                .setKl(0.00001).setKq(0.000005));
+    }
+
+    /**
+     * add random point lights in front of a scene
+     *
+     * @param scene  the scene
+     * @param lights amount of lights
+     * @param random random generator
+     */
+    private static void addLights(Scene scene, int lights, Random random) {
+        for (int i = 0; i < lights; ++i) {
+            Point3D position = new Point3D(random.nextDouble() * 400 - 200, random.nextDouble() * 400 - 200,
+                    random.nextDouble() * 200);
+            scene._lights.add(new PointLight(new Color(400, 400, 400).scale(2d / lights), position)
+                    .setKl(0.0005).setKq(0.00001));
+        }
+    }
+
+    /**
+     * random point inside the scene's box
+     *
+     * @param random random generator
+     * @return the point
+     */
+    private static Point3D randomPoint(Random random) {
+        return new Point3D(random.nextDouble() * 200 - 100, random.nextDouble() * 200 - 100,
+                -100 - random.nextDouble() * 200);
+    }
+
+    /**
+     * random dark color (used as emission)
+     *
+     * @param random random generator
+     * @return the color
+     */
+    private static Color randomColor(Random random) {
+        return new Color(random.nextDouble() * 100, random.nextDouble() * 100, random.nextDouble() * 100);
+    }
+}
@@ -0,0 +1,153 @@
+package geometries;
+
+import benchmark.MicroBenchmark;
+import geometries.Intersectable.GeoPoint;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmarks of the geometries' intersections (hit and miss cases),
+ * finding the closest intersection, and the batch kernels of the hierarchy leaves
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public class IntersectionsBenchmark {
+    /**
+     * amount of random rays each benchmark cycles through (power of 2)
+     */
+    private static final int INPUTS = 1024;
+    /**
+     * amount of spheres in a batch
+     */
+    private static final int BATCH_SIZE = 8;
+    /**
+     * amount of spheres in a block of the kernels' benchmarks
+     */
+    private static final int KERNEL_SIZE = 64;
+
+    /**
+     * register the intersections benchmarks
+     *
+     * @param bench  the benchmarks harness
+     * @param random random generator of the inputs
+     */
+    public static void register(MicroBenchmark bench, Random random) {
+        int mask = INPUTS - 1;
+        //all the geometries are around the point (0,0,-100), hit rays aim at it and miss rays aim away
+        Ray[] hitRays = new Ray[INPUTS];
+        Ray[] missRays = new Ray[INPUTS];
+        for (int i = 0; i < INPUTS; ++i) {
+            Point3D p0 = new Point3D(random.nextDouble() * 2 - 1, random.nextDouble() * 2 - 1, 0);
+            hitRays[i] = new Ray(p0, new Vector(random.nextDouble() * 0.2 - 0.1, random.nextDouble() * 0.2 - 0.1, -1));
+            missRays[i] = new Ray(p0, new Vector(random.nextDouble() - 0.5, 1, random.nextDouble() - 0.5));
+        }
+
+        Sphere sphere = new Sphere(30, new Point3D(0, 0, -100));
+        Plane plane = new Plane(new Point3D(0, 0, -100), new Vector(0, 0.1, 1));
+        Triangle triangle = new Triangle(new Point3D(-50, -50, -100), new Point3D(50, -50, -100), new Point3D(0, 50, -100));
+        Polygon polygon = new Polygon(new Point3D(-50, -50, -100), new Point3D(50, -50, -100),
+                new Point3D(50, 50, -100), new Point3D(-50, 50, -100));
+        Tube tube = new Tube(30, new Ray(new Point3D(0, -100, -100), new Vector(0, 1, 0)));
+        Cylinder cylinder = new Cylinder(30, new Ray(new Point3D(0, -100, -100), new Vector(0, 1, 0)), 200);
+        Geometry[] geometries = {sphere, plane, triangle, polygon, tube, cylinder};
+        for (Geometry geometry : geometries) {
+            String name = geometry.getClass().getSimpleName();
+            bench.add(name + ".findGeoIntersections(hit)",
+                    (i, sink) -> sink.consume(geometry.findGeoIntersections(hitRays[i & mask])))
+                    .add(name + ".findGeoIntersections(miss)",
+                            (i, sink) -> sink.consume(geometry.findGeoIntersections(missRays[i & mask])));
+        }
+
+        //closest point among intersections with a row of spheres
+        Geometries row = new Geometries();
+        for (int i = 0; i < 5; ++i) {
+            row.add(new Sphere(1, new Point3D(0, 0, -10 - 5 * i)));
+        }
+        List<GeoPoint> intersections = row.findGeoIntersections(new Ray(Point3D.ZERO, new Vector(0, 0, -1)));
+        Ray axis = new Ray(Point3D.ZERO, new Vector(0, 0, -1));
+        bench.add("Ray.findClosestGeoPoint(10)", (i, sink) -> sink.consume(axis.findClosestGeoPoint(intersections)));
+
+        //batch kernel compared with intersecting the spheres one by one
+        Sphere[] spheres = new Sphere[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; ++i) {
+            spheres[i] = new Sphere(5 + random.nextDouble() * 5,
+                    new Point3D(random.nextDouble() * 80 - 40, random.nextDouble() * 80 - 40, -100));
+        }
+        List<Intersectable> items = new LinkedList<>(List.of(spheres));
+        IntersectionBatch batch = new IntersectionBatch(items);
+        bench.add("Sphere x" + BATCH_SIZE + " scalar(hit)",
+                (i, sink) -> sink.consume(scalar(spheres, hitRays[i & mask])))
+                .add("Sphere x" + BATCH_SIZE + " batch(hit)", (i, sink) -> sink.consume(
+                        batch.findGeoIntersections(hitRays[i & mask], Double.POSITIVE_INFINITY, null)))
+                .add("Sphere x" + BATCH_SIZE + " scalar(miss)",
+                        (i, sink) -> sink.consume(scalar(spheres, missRays[i & mask])))
+                .add("Sphere x" + BATCH_SIZE + " batch(miss)", (i, sink) -> sink.consume(
+                        batch.findGeoIntersections(missRays[i & mask], Double.POSITIVE_INFINITY, null)));
+
+        //the scalar kernels compared with the loaded kernels (Vector API kernels with --add-modules jdk.incubator.vector)
+        double[] cx = new double[KERNEL_SIZE], cy = new double[KERNEL_SIZE], cz = new double[KERNEL_SIZE];
+        double[] radius = new double[KERNEL_SIZE];
+        for (int i = 0; i < KERNEL_SIZE; ++i) {
+            cx[i] = random.nextDouble() * 80 - 40;
+            cy[i] = random.nextDouble() * 80 - 40;
+            cz[i] = -100;
+            radius[i] = 5 + random.nextDouble() * 5;
+        }
+        double[] t1 = new double[KERNEL_SIZE], t2 = new double[KERNEL_SIZE];
+        IntersectionKernels scalarKernels = new ScalarIntersectionKernels();
+        bench.add("Sphere x" + KERNEL_SIZE + " kernel(scalar)",
+                (i, sink) -> sink.consume(spheres(scalarKernels, hitRays[i & mask], cx, cy, cz, radius, t1, t2)))
+                .add("Sphere x" + KERNEL_SIZE + " kernel(" + IntersectionBatch.KERNELS.getClass().getSimpleName() + ")",
+                        (i, sink) -> sink.consume(
+                                spheres(IntersectionBatch.KERNELS, hitRays[i & mask], cx, cy, cz, radius, t1, t2)));
+    }
+
+    /**
+     * intersect a ray with a block of spheres by intersection kernels
+     *
+     * @param kernels the kernels
+     * @param ray     ray in 3d space
+     * @param cx      x coordinates of the spheres' centers
+     * @param cy      y coordinates of the spheres' centers
+     * @param cz      z coordinates of the spheres' centers
+     * @param radius  spheres' radii
+     * @param t1      output - distances of the first intersections
+     * @param t2      output - distances of the second intersections
+     * @return the second distance of the first sphere
+     */
+    private static double spheres(IntersectionKernels kernels, Ray ray, double[] cx, double[] cy, double[] cz,
+                                    double[] radius, double[] t1, double[] t2) {
+        Point3D p0 = ray.getP0();
+        Point3D dir = ray.getDir().getHead();
+        kernels.intersectSpheres(p0.getX(), p0.getY(), p0.getZ(), dir.getX(), dir.getY(), dir.getZ(),
+                cx, cy, cz, radius, cx.length, t1, t2);
+        return t2[0];
+    }
+
+    /**
+     * intersect a ray with spheres one by one
+     *
+     * @param spheres the spheres
+     * @param ray     ray in 3d space
+     * @return list of intersections points (null if there are none)
+     */
+    private static List<GeoPoint> scalar(Sphere[] spheres, Ray ray) {
+        List<GeoPoint> result = null;
+        for (Sphere sphere : spheres) {
+            List<GeoPoint> points = sphere.findGeoIntersections(ray);
+            if (points != null) {
+                if (result == null) {
+                    result = new LinkedList<>();
+                }
+                result.addAll(points);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,54 @@
+package primitives;
+
+import benchmark.MicroBenchmark;
+
+import java.util.Random;
+
+/**
+ * Benchmarks of the primitives - vector math and color arithmetic
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public class PrimitivesBenchmark {
+    /**
+     * amount of random inputs each benchmark cycles through (power of 2)
+     */
+    private static final int INPUTS = 1024;
+
+    /**
+     * register the primitives benchmarks
+     *
+     * @param bench  the benchmarks harness
+     * @param random random generator of the inputs
+     */
+    public static void register(MicroBenchmark bench, Random random) {
+        int mask = INPUTS - 1;
+        Vector[] vectors = new Vector[INPUTS];
+        Point3D[] points = new Point3D[INPUTS];
+        Color[] colors = new Color[INPUTS];
+        for (int i = 0; i < INPUTS; ++i) {
+            vectors[i] = new Vector(random.nextDouble() + 0.1, random.nextDouble() - 0.5, random.nextDouble() - 0.5);
+            points[i] = new Point3D(random.nextDouble() * 100, random.nextDouble() * 100, random.nextDouble() * 100);
+            colors[i] = new Color(random.nextDouble() * 255, random.nextDouble() * 255, random.nextDouble() * 255);
+        }
+
+        bench.add("Vector.add", (i, sink) -> sink.consume(vectors[i & mask].add(vectors[(i + 1) & mask])))
+                .add("Vector.subtract", (i, sink) -> sink.consume(vectors[i & mask].subtract(vectors[(i + 1) & mask])))
+                .add("Vector.scale", (i, sink) -> sink.consume(vectors[i & mask].scale(1.5)))
+                .add("Vector.dotProduct",
+                        (i, sink) -> sink.consume(vectors[i & mask].dotProduct(vectors[(i + 1) & mask])))
+                .add("Vector.crossProduct",
+                        (i, sink) -> sink.consume(vectors[i & mask].crossProduct(vectors[(i + 1) & mask])))
+                .add("Vector.length", (i, sink) -> sink.consume(vectors[i & mask].length()))
+                .add("Vector.normalized", (i, sink) -> sink.consume(vectors[i & mask].normalized()))
+                .add("Point3D.add", (i, sink) -> sink.consume(points[i & mask].add(vectors[i & mask])))
+                .add("Point3D.subtract", (i, sink) -> sink.consume(points[i & mask].subtract(points[(i + 1) & mask])))
+                .add("Point3D.distance", (i, sink) -> sink.consume(points[i & mask].distance(points[(i + 1) & mask])))
+                .add("Color.add", (i, sink) -> sink.consume(colors[i & mask].add(colors[(i + 1) & mask])))
+                .add("Color.add(3)", (i, sink) -> sink.consume(
+                        colors[i & mask].add(colors[(i + 1) & mask], colors[(i + 2) & mask], colors[(i + 3) & mask])))
+                .add("Color.scale", (i, sink) -> sink.consume(colors[i & mask].scale(0.5)))
+                .add("Color.reduce", (i, sink) -> sink.consume(colors[i & mask].reduce(4)));
+    }
+}
@@ -6,6 +6,9 @@ import primitives.Ray;
 import primitives.Vector;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static primitives.Util.isZero;
 
 /**
  * Testing Camera Class
@@ -55,4 +58,66 @@ public class CameraTest {
 
     }
 
+    /**
+     * Test method for
+     * {@link Camera#constructRaysThroughTile(int, int, int, int, int, int, double, double, double[], double[])}.
+     */
+    @Test
+    public void testConstructRaysThroughTile() {
+        Camera camera = new Camera(new Point3D(1, 2, 3), new Vector(0, 0, 1), new Vector(0, -1, 0))
+                .setDistance(10).setViewPlaneSize(8, 6);
+        double[] origins = new double[3 * 6];
+        double[] directions = new double[3 * 6];
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: 3X2 tile inside 8X6 view plane matches the rays through its pixels
+        camera.constructRaysThroughTile(8, 6, 2, 3, 3, 2, origins, directions);
+        for (int i = 0; i < 2; ++i)
+            for (int j = 0; j < 3; ++j) {
+                int k = 3 * (i * 3 + j);
+                Ray ray = camera.constructRayThroughPixel(8, 6, 2 + j, 3 + i);
+                assertEquals(ray.getP0(), new Point3D(origins[k], origins[k + 1], origins[k + 2]), "Bad origin");
+                Vector dir = ray.getDir();
+                assertTrue(isZero(dir.dotProduct(new Vector(directions[k], directions[k + 1], directions[k + 2])) - 1),
+                        "Bad direction");
+            }
+
+        // TC02: rays through a point inside the pixels match the rays through that point
+        camera.constructRaysThroughTile(8, 6, 5, 0, 3, 2, 0.25, 0.75, origins, directions);
+        for (int i = 0; i < 2; ++i)
+            for (int j = 0; j < 3; ++j) {
+                int k = 3 * (i * 3 + j);
+                Ray ray = camera.constructRayThroughPixel(8, 6, 5 + j, i, 0.25, 0.75);
+                assertEquals(ray.getP0(), new Point3D(origins[k], origins[k + 1], origins[k + 2]), "Bad origin");
+                assertEquals(ray.getDir(), new Vector(directions[k], directions[k + 1], directions[k + 2]),
+                        "Bad direction");
+            }
+    }
+
+    /**
+     * Test method for {@link Camera#projectPoint(int, int, Point3D)}.
+     */
+    @Test
+    public void testProjectPoint() {
+        Camera camera = new Camera(new Point3D(1, 2, 3), new Vector(0, 0, 1), new Vector(0, -1, 0))
+                .setDistance(10).setViewPlaneSize(8, 6);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: points on the rays through pixels are projected to the pixels' centers
+        for (int i = 0; i < 6; ++i)
+            for (int j = 0; j < 8; ++j) {
+                Ray ray = camera.constructRayThroughPixel(8, 6, j, i);
+                double[] position = camera.projectPoint(8, 6, ray.getPoint(25));
+                assertEquals(j, position[0], 1e-9, "Bad column");
+                assertEquals(i, position[1], 1e-9, "Bad row");
+            }
+
+        // TC02: point behind the camera is not projected
+        assertNull(camera.projectPoint(8, 6, new Point3D(1, 2, -5)), "Point behind the camera was projected");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: point beside the camera (on the plane of p0) is not projected
+        assertNull(camera.projectPoint(8, 6, new Point3D(5, 2, 3)), "Point beside the camera was projected");
+    }
+
 }
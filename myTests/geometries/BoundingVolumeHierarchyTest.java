@@ -0,0 +1,130 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+import geometries.Intersectable.GeoPoint;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing BoundingVolumeHierarchy
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+class BoundingVolumeHierarchyTest {
+
+    /**
+     * create a row of small spheres along the x axis
+     *
+     * @param amount amount of spheres
+     * @return array of spheres
+     */
+    private Sphere[] spheresRow(int amount) {
+        Sphere[] spheres = new Sphere[amount];
+        for (int i = 0; i < amount; ++i) {
+            spheres[i] = new Sphere(1, new Point3D(i * 4, 0, 0));
+        }
+        return spheres;
+    }
+
+    /**
+     * Test method for {@link geometries.BoundingVolumeHierarchy#findGeoIntersections(primitives.Ray, double)}.
+     */
+    @Test
+    void findGeoIntersections() {
+        Sphere[] spheres = spheresRow(50);
+        Plane plane = new Plane(new Point3D(0, -5, 0), new Vector(0, 1, 0));
+        Geometries geometries = new Geometries(spheres);
+        geometries.add(plane);
+        geometries.buildHierarchy();
+        List<GeoPoint> result;
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: ray hits a single sphere and the plane
+        result = geometries.findGeoIntersections(new Ray(new Point3D(40, 10, 0), new Vector(0, -1, 0)));
+        assertEquals(3, result.size(), "Wrong number of points");
+
+        // TC02: ray along the row hits all the spheres
+        result = geometries.findGeoIntersections(new Ray(new Point3D(-10, 0, 0), new Vector(1, 0, 0)));
+        assertEquals(100, result.size(), "Wrong number of points");
+
+        // TC03: ray misses all the geometries
+        result = geometries.findGeoIntersections(new Ray(new Point3D(0, 10, 0), new Vector(1, 0, 0)));
+        assertNull(result, "Wrong number of points");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: distance limit stops before the second half of the row
+        result = geometries.findGeoIntersections(new Ray(new Point3D(-10, 0, 0), new Vector(1, 0, 0)), 108);
+        assertEquals(50, result.size(), "Wrong number of points");
+
+        // TC12: empty hierarchy
+        result = new Geometries().buildHierarchy()
+                .findGeoIntersections(new Ray(new Point3D(1, 1, 1), new Vector(-1, -2, -3)));
+        assertNull(result, "Wrong number of points");
+    }
+
+    /**
+     * Test method for {@link geometries.BoundingVolumeHierarchy#refit()}.
+     */
+    @Test
+    void refit() {
+        Sphere[] spheres = spheresRow(50);
+        Geometries geometries = new Geometries(spheres).buildHierarchy();
+        Ray ray = new Ray(new Point3D(40, 10, 10), new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: small movement is handled by refitting
+        spheres[10].translate(new Vector(0, 10, 0));
+        assertFalse(geometries.refitHierarchy(), "Small movement should not rebuild the hierarchy");
+        assertEquals(2, geometries.findGeoIntersections(ray).size(), "Moved sphere is not found after refit");
+
+        // TC02: shuffling the spheres along the row degrades the hierarchy and rebuilds it
+        for (int i = 0; i < spheres.length; ++i) {
+            spheres[i].translate(new Vector((i * 37 % 50 - i) * 4, 1, 0));
+        }
+        assertTrue(geometries.refitHierarchy(), "Degraded hierarchy should be rebuilt");
+        Ray alongRow = new Ray(new Point3D(-10, 1, 0), new Vector(1, 0, 0));
+        assertEquals(new Geometries(spheres).findGeoIntersections(alongRow).size(),
+                geometries.findGeoIntersections(alongRow).size(), "Wrong number of points after rebuild");
+    }
+
+    /**
+     * Test method for {@link geometries.BoundingVolumeHierarchy#findClosestIntersections(primitives.Ray[])}.
+     */
+    @Test
+    void findClosestIntersections() {
+        Geometries geometries = new Geometries(spheresRow(50));
+        geometries.add(new Plane(new Point3D(0, 0, -5), new Vector(0, 0, 1)));
+        Geometries hierarchy = new Geometries(spheresRow(50));
+        hierarchy.add(new Plane(new Point3D(0, 0, -5), new Vector(0, 0, 1)));
+        hierarchy.buildHierarchy();
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: 8x8 packet of coherent rays, some hit spheres, some hit only the plane
+        Point3D origin = new Point3D(30, 0, 20);
+        Ray[] rays = new Ray[64];
+        for (int i = 0; i < 8; ++i) {
+            for (int j = 0; j < 8; ++j) {
+                rays[i * 8 + j] = new Ray(origin, new Vector(j - 3.5, i - 3.5, -10));
+            }
+        }
+        GeoPoint[] expected = geometries.findClosestIntersections(rays);
+        GeoPoint[] result = hierarchy.findClosestIntersections(rays);
+        for (int i = 0; i < rays.length; ++i) {
+            assertEquals(expected[i]._point, result[i]._point, "Wrong closest point of ray " + i);
+        }
+
+        // TC02: packet that misses all the geometries
+        Ray[] missing = {new Ray(origin, new Vector(0, 1, 1)), new Ray(origin, new Vector(0, 1, 2))};
+        assertArrayEquals(new GeoPoint[2], hierarchy.findClosestIntersections(missing), "Wrong closest points");
+    }
+}
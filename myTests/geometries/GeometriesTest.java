@@ -57,4 +57,27 @@ class GeometriesTest {
 
     }
 
-}
\ No newline at end of file
+    /**
+     * Test method for {@link geometries.Geometries#remove(Intersectable...)}.
+     */
+    @Test
+    void remove() {
+        Sphere sphere = new Sphere(1, new Point3D(0, 0, -5));
+        Sphere other = new Sphere(1, new Point3D(0, 0, -10));
+        Geometries geometries = new Geometries(sphere, other).buildHierarchy();
+        Ray ray = new Ray(Point3D.ZERO, new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        //TC01: removed geometry is not intersected, also after the hierarchy was built
+        assertTrue(geometries.remove(sphere), "Geometry was not removed");
+        assertEquals(2, geometries.findIntersections(ray).size(), "Removed geometry is intersected");
+
+        // =============== Boundary Values Tests ==================
+
+        //TC11: geometry that is not in the collection
+        assertFalse(geometries.remove(sphere), "Missing geometry was removed");
+        assertEquals(1, geometries.getIntersectables().size(), "Wrong number of geometries");
+    }
+
+}
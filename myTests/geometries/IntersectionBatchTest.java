@@ -0,0 +1,163 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+import geometries.Intersectable.GeoPoint;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing IntersectionBatch
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+class IntersectionBatchTest {
+
+    /**
+     * Test method for {@link geometries.IntersectionBatch#findGeoIntersections(primitives.Ray, double, java.util.List)}.
+     */
+    @Test
+    void findGeoIntersections() {
+        Random random = new Random(5781);
+        Intersectable[] items = new Intersectable[12];
+        for (int i = 0; i < 6; ++i) {
+            items[i] = new Sphere(1 + random.nextDouble(), new Point3D(random.nextDouble() * 10, random.nextDouble() * 10, -10));
+        }
+        for (int i = 6; i < 12; ++i) {
+            Point3D p = new Point3D(random.nextDouble() * 10, random.nextDouble() * 10, -5);
+            items[i] = new Triangle(p, p.add(new Vector(3, 0, 0)), p.add(new Vector(0, 3, 1)));
+        }
+        IntersectionBatch batch = new IntersectionBatch(List.of(items));
+        Geometries geometries = new Geometries(items);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: batch finds the same intersections as the geometries themselves
+        for (int i = 0; i < 200; ++i) {
+            Ray ray = new Ray(new Point3D(random.nextDouble() * 10, random.nextDouble() * 10, 10),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -10));
+            assertSamePoints(geometries.findGeoIntersections(ray),
+                    batch.findGeoIntersections(ray, Double.POSITIVE_INFINITY, null), ray);
+        }
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: ray starts at a sphere's center
+        Sphere sphere = (Sphere) items[0];
+        Ray fromCenter = new Ray(sphere._center, new Vector(0, 0, -1));
+        assertEquals(sphere.findGeoIntersections(fromCenter),
+                new IntersectionBatch(List.of(sphere)).findGeoIntersections(fromCenter, Double.POSITIVE_INFINITY, null),
+                "Wrong point for ray starting at the center");
+
+        // TC12: grazing rays on small triangles (tiny determinants) are not culled by the batch
+        Intersectable[] small = new Intersectable[10];
+        for (int i = 0; i < 10; ++i) {
+            Point3D p = new Point3D(i, random.nextDouble(), -5);
+            small[i] = new Triangle(p, p.add(new Vector(1e-3, 0, 0)), p.add(new Vector(0, 1e-3, 0)));
+        }
+        IntersectionBatch smallBatch = new IntersectionBatch(List.of(small));
+        Geometries smallGeometries = new Geometries(small);
+        for (int i = 0; i < 10; ++i) {
+            Point3D target = ((Triangle) small[i]).vertices.get(0).add(new Vector(3e-4, 3e-4, 0));
+            Vector dir = new Vector(1, 0.3, -1e-8).normalize();
+            Ray ray = new Ray(target.add(dir.scale(-0.5)), dir);
+            List<GeoPoint> result = smallBatch.findGeoIntersections(ray, Double.POSITIVE_INFINITY, null);
+            assertNotNull(result, "Grazing ray culled by the batch");
+            assertSamePoints(smallGeometries.findGeoIntersections(ray), result, ray);
+        }
+
+        // TC13: batch follows moved geometries after update
+        sphere.translate(new Vector(100, 0, 0));
+        batch.update();
+        Ray toMoved = new Ray(new Point3D(sphere._center.getX(), sphere._center.getY(), 10), new Vector(0, 0, -1));
+        assertEquals(2, batch.findGeoIntersections(toMoved, Double.POSITIVE_INFINITY, null).size(),
+                "Moved sphere is not found after update");
+    }
+
+    /**
+     * Test method for {@link geometries.IntersectionKernels#intersectSpheres} and
+     * {@link geometries.IntersectionKernels#intersectTriangles}.
+     */
+    @Test
+    void kernels() {
+        //37 geometries - full vectors and a remainder for any vector length
+        Random random = new Random(5781);
+        int count = 37;
+        double[] cx = new double[count], cy = new double[count], cz = new double[count], radius = new double[count];
+        double[][] triangles = new double[10][count];
+        for (int i = 0; i < count; ++i) {
+            cx[i] = random.nextDouble() * 10;
+            cy[i] = random.nextDouble() * 10;
+            cz[i] = -10;
+            radius[i] = 1 + random.nextDouble();
+            for (int k = 0; k < 9; ++k)
+                triangles[k][i] = k < 3 ? random.nextDouble() * 10 - (k == 2 ? 15 : 0) : random.nextDouble() * 6 - 3;
+            triangles[9][i] = 1e-6;
+        }
+        IntersectionKernels scalar = new ScalarIntersectionKernels();
+        double[] expected1 = new double[count], expected2 = new double[count];
+        double[] result1 = new double[count], result2 = new double[count];
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: the loaded kernels find the same distances as the scalar kernels
+        for (int r = 0; r < 100; ++r) {
+            double ox = random.nextDouble() * 10, oy = random.nextDouble() * 10;
+            double dx = random.nextDouble() - 0.5, dy = random.nextDouble() - 0.5, dz = -10;
+            double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            dx /= length;
+            dy /= length;
+            dz /= length;
+            scalar.intersectSpheres(ox, oy, 10, dx, dy, dz, cx, cy, cz, radius, count, expected1, expected2);
+            IntersectionBatch.KERNELS.intersectSpheres(ox, oy, 10, dx, dy, dz, cx, cy, cz, radius, count,
+                    result1, result2);
+            assertArrayEquals(expected1, result1, "Wrong first distances of spheres");
+            assertArrayEquals(expected2, result2, "Wrong second distances of spheres");
+            scalar.intersectTriangles(ox, oy, 10, dx, dy, dz, triangles[0], triangles[1], triangles[2],
+                    triangles[3], triangles[4], triangles[5], triangles[6], triangles[7], triangles[8], triangles[9],
+                    count, expected1);
+            IntersectionBatch.KERNELS.intersectTriangles(ox, oy, 10, dx, dy, dz, triangles[0], triangles[1],
+                    triangles[2], triangles[3], triangles[4], triangles[5], triangles[6], triangles[7], triangles[8],
+                    triangles[9], count, result1);
+            assertArrayEquals(expected1, result1, "Wrong distances of triangles");
+        }
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: a block smaller than a vector
+        scalar.intersectSpheres(5, 5, 10, 0, 0, -1, cx, cy, cz, radius, 3, expected1, expected2);
+        IntersectionBatch.KERNELS.intersectSpheres(5, 5, 10, 0, 0, -1, cx, cy, cz, radius, 3, result1, result2);
+        assertArrayEquals(expected1, result1, "Wrong distances of a small block");
+    }
+
+    /**
+     * assert the batch found the same intersection points as the geometries themselves
+     *
+     * @param expected intersections found by the geometries (may be null)
+     * @param result   intersections found by the batch (may be null)
+     * @param ray      the ray
+     */
+    private static void assertSamePoints(List<GeoPoint> expected, List<GeoPoint> result, Ray ray) {
+        assertEquals(expected == null ? 0 : expected.size(), result == null ? 0 : result.size(),
+                "Wrong number of points");
+        if (expected == null)
+            return;
+        Comparator<GeoPoint> byDistance = Comparator.comparingDouble(gp -> gp._point.distance(ray.getP0()));
+        List<GeoPoint> sortedExpected = new ArrayList<>(expected);
+        List<GeoPoint> sortedResult = new ArrayList<>(result);
+        sortedExpected.sort(byDistance);
+        sortedResult.sort(byDistance);
+        for (int i = 0; i < sortedExpected.size(); ++i) {
+            assertSame(sortedExpected.get(i)._geometry, sortedResult.get(i)._geometry, "Wrong geometry");
+            assertEquals(0, sortedExpected.get(i)._point.distance(sortedResult.get(i)._point), 1e-9, "Wrong point");
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for primitives.RandomStream class
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+class RandomStreamTest {
+
+    /**
+     * Test method for {@link primitives.RandomStream#of(long, int, int, int)}.
+     */
+    @Test
+    void of() {
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: the same sample always draws the same numbers
+        RandomStream first = RandomStream.of(5781, 10, 20, 3);
+        RandomStream second = RandomStream.of(5781, 10, 20, 3);
+        for (int i = 0; i < 100; ++i) {
+            assertEquals(first.nextLong(), second.nextLong(), "Same sample draws different numbers");
+        }
+
+        // TC02: neighbouring pixels, samples and seeds draw different numbers
+        long value = RandomStream.of(5781, 10, 20, 3).nextLong();
+        assertNotEquals(value, RandomStream.of(5781, 11, 20, 3).nextLong(), "Neighbouring columns are equal");
+        assertNotEquals(value, RandomStream.of(5781, 10, 21, 3).nextLong(), "Neighbouring rows are equal");
+        assertNotEquals(value, RandomStream.of(5781, 10, 20, 4).nextLong(), "Neighbouring samples are equal");
+        assertNotEquals(value, RandomStream.of(5782, 10, 20, 3).nextLong(), "Neighbouring seeds are equal");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: swapped column and row draw different numbers
+        assertNotEquals(RandomStream.of(0, 1, 2, 0).nextLong(), RandomStream.of(0, 2, 1, 0).nextLong(),
+                "Swapped coordinates are equal");
+    }
+
+    /**
+     * Test method for {@link primitives.RandomStream#nextDouble(double, double)}.
+     */
+    @Test
+    void nextDouble() {
+        RandomStream stream = new RandomStream(5781);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: numbers are in the range and spread evenly over it
+        int[] buckets = new int[10];
+        for (int i = 0; i < 100000; ++i) {
+            double value = stream.nextDouble(-1, 4);
+            assertTrue(value >= -1 && value < 4, "Number out of range");
+            ++buckets[(int) ((value + 1) * 2)];
+        }
+        for (int bucket : buckets) {
+            assertEquals(10000, bucket, 500, "Numbers are not uniform");
+        }
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: empty range
+        assertEquals(2, stream.nextDouble(2, 2), "Wrong number of an empty range");
+    }
+
+    /**
+     * Test method for {@link primitives.RandomStream#split()}.
+     */
+    @Test
+    void split() {
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: split stream is reproducible and differs from its parent
+        RandomStream parent = new RandomStream(5781);
+        RandomStream child = parent.split();
+        RandomStream again = new RandomStream(5781).split();
+        long value = child.nextLong();
+        assertEquals(value, again.nextLong(), "Split is not reproducible");
+        assertNotEquals(value, parent.nextLong(), "Split stream equals its parent");
+    }
+}
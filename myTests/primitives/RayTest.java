@@ -49,4 +49,21 @@ class RayTest {
         lst=null;
         assertNull(ray.findClosestPoint(lst),"method supposed to return null");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link primitives.Ray#ofNormalized(Point3D, double, double, double)}
+     */
+    @Test
+    void ofNormalized() {
+        Point3D p0 = new Point3D(1, 2, 3);
+        Vector dir = new Vector(1, 2, 3).normalize();
+        Point3D head = dir.getHead();
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: the ray is the ray of the constructor, starting at the shared point
+        Ray ray = Ray.ofNormalized(p0, head.getX(), head.getY(), head.getZ());
+        assertEquals(new Ray(p0, dir), ray, "wrong ray");
+        assertSame(p0, ray.getP0(), "starting point was copied");
+    }
+}
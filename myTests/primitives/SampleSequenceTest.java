@@ -0,0 +1,70 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for primitives.SampleSequence class
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+class SampleSequenceTest {
+
+    /**
+     * average error of estimating the area of a quarter disc (pi/4) by the points of a sequence
+     *
+     * @param sequence the sequence
+     * @param count    amount of points in each estimate
+     * @return average absolute error of the estimates
+     */
+    private double quarterDiscError(SampleSequence sequence, int count) {
+        RandomStream random = new RandomStream(5781);
+        double error = 0;
+        for (int trial = 0; trial < 100; ++trial) {
+            int inside = 0;
+            for (double[] point : sequence.points(count, random)) {
+                if (point[0] * point[0] + point[1] * point[1] < 1) {
+                    ++inside;
+                }
+            }
+            error += Math.abs((double) inside / count - Math.PI / 4);
+        }
+        return error / 100;
+    }
+
+    /**
+     * Test method for {@link primitives.SampleSequence#points(int, primitives.RandomStream)}.
+     */
+    @Test
+    void points() {
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: all the points are in the unit square
+        for (SampleSequence sequence : SampleSequence.values()) {
+            for (double[] point : sequence.points(1000, new RandomStream(5781))) {
+                assertTrue(point[0] >= 0 && point[0] < 1 && point[1] >= 0 && point[1] < 1,
+                        "Point out of the unit square");
+            }
+        }
+
+        // TC02: low-discrepancy sequences estimate an area more accurately than random points
+        double randomError = quarterDiscError(SampleSequence.RANDOM, 256);
+        assertTrue(quarterDiscError(SampleSequence.HALTON, 256) < randomError / 2, "Halton is not more accurate");
+        assertTrue(quarterDiscError(SampleSequence.SOBOL, 256) < randomError / 2, "Sobol is not more accurate");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: 2^k Sobol points have exactly one point in each 1/2^k interval of each axis
+        boolean[] xs = new boolean[64], ys = new boolean[64];
+        for (double[] point : SampleSequence.SOBOL.points(64, new RandomStream(5781))) {
+            assertFalse(xs[(int) (point[0] * 64)], "Two points in an x interval");
+            assertFalse(ys[(int) (point[1] * 64)], "Two points in a y interval");
+            xs[(int) (point[0] * 64)] = ys[(int) (point[1] * 64)] = true;
+        }
+
+        // TC12: no points
+        assertEquals(0, SampleSequence.HALTON.points(0, new RandomStream(5781)).length, "Wrong amount of points");
+    }
+}
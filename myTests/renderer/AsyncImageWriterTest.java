@@ -0,0 +1,80 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing AsyncImageWriter
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+class AsyncImageWriterTest {
+
+    /**
+     * color of a pixel of the test image - gradients with noise
+     *
+     * @param x X axis index of the pixel
+     * @param y Y axis index of the pixel
+     * @return the color
+     */
+    private static Color color(int x, int y) {
+        return new Color(x % 256, y % 256, (x * 7919 + y * 104729) % 256);
+    }
+
+    /**
+     * Test method for {@link renderer.AsyncImageWriter#write(renderer.ImageWriter)}.
+     */
+    @Test
+    void write() throws IOException {
+        //150 rows - 3 strips, the last one is smaller
+        ImageWriter imageWriter = new ImageWriter("testAsync", 100, 150);
+        for (int y = 0; y < 150; y++)
+            for (int x = 0; x < 100; x++)
+                imageWriter.writePixel(x, y, color(x, y));
+        Files.deleteIfExists(Paths.get(ImageWriter.FOLDER_PATH, "testAsync.png"));
+
+        try (AsyncImageWriter asyncWriter = new AsyncImageWriter(3)) {
+            CompletableFuture<Void> future = asyncWriter.write(imageWriter);
+            //the writer is reused while the image is written
+            imageWriter.writePixel(0, 0, new Color(255, 255, 255));
+            imageWriter.setImageName("testAsyncNext");
+            future.join();
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: the png file holds the image and has the name as they were handed over
+        BufferedImage image = ImageIO.read(new File(ImageWriter.FOLDER_PATH, "testAsync.png"));
+        assertEquals(100, image.getWidth(), "Wrong width");
+        assertEquals(150, image.getHeight(), "Wrong height");
+        for (int y = 0; y < 150; y++)
+            for (int x = 0; x < 100; x++)
+                assertEquals(color(x, y).getColor().getRGB(), image.getRGB(x, y), "Wrong pixel " + x + "," + y);
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: a single strip of a single row
+        ImageWriter line = new ImageWriter("testAsync", 5, 1);
+        line.writePixel(4, 0, new Color(10, 20, 30));
+        try (AsyncImageWriter asyncWriter = new AsyncImageWriter(1)) {
+            asyncWriter.write(line).join();
+        }
+        image = ImageIO.read(new File(ImageWriter.FOLDER_PATH, "testAsync.png"));
+        assertEquals(new java.awt.Color(10, 20, 30).getRGB(), image.getRGB(4, 0), "Wrong pixel of a single row");
+        assertEquals(0xff000000, image.getRGB(0, 0), "Wrong black pixel");
+
+        // TC12: no threads
+        assertThrows(IllegalArgumentException.class, () -> new AsyncImageWriter(0), "Zero threads accepted");
+    }
+}
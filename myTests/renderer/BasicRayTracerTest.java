@@ -0,0 +1,265 @@
+package renderer;
+
+import elements.PointLight;
+import elements.RectangleLight;
+import geometries.Geometries;
+import geometries.Plane;
+import geometries.Sphere;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.SampleSequence;
+import primitives.Vector;
+import scene.Scene;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing BasicRayTracer
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+class BasicRayTracerTest {
+
+    /**
+     * Test method for {@link renderer.BasicRayTracer#setLightSamples(int)}.
+     */
+    @Test
+    void setLightSamples() {
+        //a wall lit by many weak lights of different colors and distances
+        Scene scene = new Scene("Many lights");
+        scene._geometries.add(new Plane(new Point3D(0, 0, -100), new Vector(0, 0, 1))
+                .setMaterial(new Material().setKd(0.5).setKs(0.2).setShininess(10)));
+        Random random = new Random(5781);
+        for (int i = 0; i < 50; ++i) {
+            scene._lights.add(new PointLight(
+                    new Color(random.nextDouble() * 6, random.nextDouble() * 6, random.nextDouble() * 6),
+                    new Point3D(random.nextDouble() * 200 - 100, random.nextDouble() * 200 - 100, random.nextDouble() * 50))
+                    .setKl(0.001));
+        }
+        Ray ray = new Ray(Point3D.ZERO, new Vector(0.1, 0.1, -1));
+        java.awt.Color expected = new BasicRayTracer(scene).traceRay(ray).getColor();
+        BasicRayTracer sampling = new BasicRayTracer(scene).setLightSamples(4);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: average of the sampled colors equals the color from all the lights
+        int trials = 4000;
+        double red = 0, green = 0, blue = 0;
+        for (int i = 0; i < trials; ++i) {
+            Color color = sampling.traceRay(ray);
+            red += color.getColor().getRed();
+            green += color.getColor().getGreen();
+            blue += color.getColor().getBlue();
+        }
+        assertEquals(expected.getRed(), red / trials, 2, "Sampled red is biased");
+        assertEquals(expected.getGreen(), green / trials, 2, "Sampled green is biased");
+        assertEquals(expected.getBlue(), blue / trials, 2, "Sampled blue is biased");
+
+        // TC02: only the sampled lights trace shadow rays
+        assertTrue(sampling.getRenderStats().getShadowRays() <= 4L * trials, "Too many shadow rays");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: negative amount of samples
+        assertThrows(IllegalArgumentException.class, () -> sampling.setLightSamples(-1), "Negative samples accepted");
+    }
+
+    /**
+     * Test method for {@link renderer.BasicRayTracer#traceRay(primitives.Ray)} - shadows from the occluders cache.
+     */
+    @Test
+    void traceRayOccluderCache() {
+        //a wall shadowed by an opaque sphere and lit around it
+        Scene scene = new Scene("Shadow");
+        scene._geometries.add(new Plane(new Point3D(0, 0, -100), new Vector(0, 0, 1))
+                        .setMaterial(new Material().setKd(0.5)),
+                new Sphere(10, new Point3D(0, 0, -50)).setMaterial(new Material().setKd(0.5)));
+        scene._lights.add(new PointLight(new Color(100, 100, 100), Point3D.ZERO));
+        BasicRayTracer tracer = new BasicRayTracer(scene);
+        Ray shadowed = new Ray(new Point3D(0, 30, 0), new Vector(0, -0.3, -1));
+        Ray lit = new Ray(new Point3D(0, 30, 0), new Vector(0, -0.8, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: neighbouring shadowed points are blocked by the cached occluder
+        Color expected = tracer.traceRay(shadowed);
+        assertEquals(0, tracer.getRenderStats().getOccluderHits(), "Occluder hit before it was cached");
+        for (int i = 0; i < 10; ++i) {
+            assertEquals(expected, tracer.traceRay(shadowed), "Wrong shadowed color");
+        }
+        assertEquals(10, tracer.getRenderStats().getOccluderHits(), "Cached occluder was not used");
+
+        // TC02: cached occluder that does not block the ray - the scene is queried
+        assertNotEquals(expected, tracer.traceRay(lit), "Lit point is shadowed");
+        assertEquals(10, tracer.getRenderStats().getOccluderHits(), "Wrong occluder hits");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: the cache is cleared when the scene is compiled again without the occluder
+        scene._geometries = new Geometries(new Plane(new Point3D(0, 0, -100), new Vector(0, 0, 1))
+                .setMaterial(new Material().setKd(0.5)));
+        tracer.compileScene();
+        assertNotEquals(expected, tracer.traceRay(shadowed), "Removed occluder still shadows");
+    }
+
+    /**
+     * Test method for {@link renderer.BasicRayTracer#traceRay(primitives.Ray)} - soft shadows of an area light.
+     */
+    @Test
+    void traceRayAreaLight() {
+        //a wall shadowed by an opaque sphere from a square light in front of it
+        Scene scene = new Scene("Soft shadow");
+        scene._geometries.add(new Plane(new Point3D(0, 0, -100), new Vector(0, 0, 1))
+                        .setMaterial(new Material().setKd(0.5)),
+                new Sphere(10, new Point3D(0, 0, -50)).setMaterial(new Material().setKd(0.5)));
+        scene._lights.add(new RectangleLight(new Color(100, 100, 100), Point3D.ZERO,
+                new Vector(0, 0, -1), new Vector(1, 0, 0), 20, 20));
+        BasicRayTracer tracer = new BasicRayTracer(scene);
+        Point3D eye = new Point3D(0, 0, 1);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: fully lit point - only the 4 corners of the light are sampled
+        Color lit = tracer.traceRay(new Ray(eye, new Vector(0, 60, -101)));
+        assertEquals(4, tracer.getRenderStats().getShadowRays(), "Wrong shadow rays for a lit point");
+        assertNotEquals(java.awt.Color.BLACK, lit.getColor(), "Lit point is shadowed");
+
+        // TC02: point in the umbra - only the 4 corners of the light are sampled
+        tracer.getRenderStats().reset();
+        assertEquals(java.awt.Color.BLACK, tracer.traceRay(new Ray(new Point3D(30, 0, 1), new Vector(-30, 0, -101))).getColor(),
+                "Umbra point is lit");
+        assertEquals(4, tracer.getRenderStats().getShadowRays(), "Wrong shadow rays for a shadowed point");
+
+        // TC03: point in the penumbra - partially lit, the light is subdivided
+        tracer.getRenderStats().reset();
+        Ray toPenumbra = new Ray(eye, new Vector(0, 22, -101));
+        int penumbra = tracer.traceRay(toPenumbra).getColor().getRed();
+        scene._geometries = new Geometries(new Plane(new Point3D(0, 0, -100), new Vector(0, 0, 1))
+                .setMaterial(new Material().setKd(0.5)));
+        int unoccluded = new BasicRayTracer(scene).traceRay(toPenumbra).getColor().getRed();
+        assertTrue(penumbra > 0 && penumbra < unoccluded, "Penumbra point is not partially lit");
+        assertTrue(tracer.getRenderStats().getShadowRays() > 4, "Penumbra was not subdivided");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: light's direction and right vector are not orthogonal
+        assertThrows(IllegalArgumentException.class, () -> new RectangleLight(new Color(100, 100, 100),
+                Point3D.ZERO, new Vector(0, 0, -1), new Vector(1, 0, 1), 20, 20), "Wrong vectors accepted");
+
+        // TC12: empty rectangle
+        assertThrows(IllegalArgumentException.class, () -> new RectangleLight(new Color(100, 100, 100),
+                Point3D.ZERO, new Vector(0, 0, -1), new Vector(1, 0, 0), 0, 20), "Empty rectangle accepted");
+    }
+
+    /**
+     * Test method for {@link renderer.BasicRayTracer#setSampleSequence(primitives.SampleSequence)}.
+     */
+    @Test
+    void setSampleSequence() {
+        //a glossy mirror reflecting small bright spheres
+        Scene scene = new Scene("Glossy");
+        scene._geometries.add(new Plane(new Point3D(0, 0, -100), new Vector(0, 0, 1))
+                        .setMaterial(new Material().setKr(0.8).setKGlossy(90)),
+                new Sphere(3, new Point3D(5, 5, 0)).setEmission(new Color(200, 0, 0)),
+                new Sphere(3, new Point3D(-5, -4, 0)).setEmission(new Color(200, 0, 0)),
+                new Sphere(4, new Point3D(6, -6, 0)).setEmission(new Color(200, 0, 0)));
+        Ray ray = new Ray(Point3D.ZERO, new Vector(0, 0, -1));
+        BasicRayTracer reference = new BasicRayTracer(scene);
+        reference.set_upVector(new Vector(0, 1, 0));
+        double expected = mean(reference, ray, 20);
+        BasicRayTracer grid = new BasicRayTracer(scene).setBeamRays(64);
+        grid.set_upVector(new Vector(0, 1, 0));
+        BasicRayTracer sobol = new BasicRayTracer(scene).setSampleSequence(SampleSequence.SOBOL).setBeamRays(64);
+        sobol.set_upVector(new Vector(0, 1, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: the average color of a low-discrepancy beam is the color of the full beam
+        assertEquals(expected, mean(sobol, ray, 200), 1, "Sobol beam is biased");
+
+        // TC02: a low-discrepancy beam is less noisy than a jittered grid of the same size
+        assertTrue(deviation(sobol, ray, 200) < deviation(grid, ray, 200), "Sobol beam is noisier");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: empty beam
+        assertThrows(IllegalArgumentException.class, () -> sobol.setBeamRays(0), "Empty beam accepted");
+    }
+
+    /**
+     * Test method for {@link renderer.BasicRayTracer#setSoftShadowSamples(int)}.
+     */
+    @Test
+    void setSoftShadowSamples() {
+        //a wall shadowed by an opaque sphere from a square light in front of it
+        Scene scene = new Scene("Soft shadow");
+        scene._geometries.add(new Plane(new Point3D(0, 0, -100), new Vector(0, 0, 1))
+                        .setMaterial(new Material().setKd(0.5)),
+                new Sphere(10, new Point3D(0, 0, -50)).setMaterial(new Material().setKd(0.5)));
+        scene._lights.add(new RectangleLight(new Color(100, 100, 100), Point3D.ZERO,
+                new Vector(0, 0, -1), new Vector(1, 0, 0), 20, 20));
+        BasicRayTracer tracer = new BasicRayTracer(scene).setSampleSequence(SampleSequence.HALTON)
+                .setSoftShadowSamples(16);
+        Point3D eye = new Point3D(0, 0, 1);
+        Ray toPenumbra = new Ray(eye, new Vector(0, 22, -101));
+        double expected = mean(new BasicRayTracer(scene), toPenumbra, 1);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: partially shadowed point - the corners (until one differs) and the samples are traced
+        assertEquals(expected, mean(tracer, toPenumbra, 100), 2, "Wrong penumbra");
+        long shadowRays = tracer.getRenderStats().getShadowRays();
+        assertTrue(shadowRays > 100 * (1 + 16) && shadowRays <= 100 * (4 + 16), "Wrong shadow rays in the penumbra");
+
+        // TC02: fully lit point - only the corners are traced
+        tracer.getRenderStats().reset();
+        tracer.traceRay(new Ray(eye, new Vector(0, 60, -101)));
+        assertEquals(4, tracer.getRenderStats().getShadowRays(), "Wrong shadow rays for a lit point");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: negative amount of samples
+        assertThrows(IllegalArgumentException.class, () -> tracer.setSoftShadowSamples(-1), "Negative samples accepted");
+    }
+
+    /**
+     * average red channel of a ray's color traced several times
+     *
+     * @param tracer the ray tracer
+     * @param ray    the ray
+     * @param trials amount of traces
+     * @return average red channel
+     */
+    private double mean(BasicRayTracer tracer, Ray ray, int trials) {
+        double sum = 0;
+        for (int i = 0; i < trials; ++i) {
+            sum += tracer.traceRay(ray).getColor().getRed();
+        }
+        return sum / trials;
+    }
+
+    /**
+     * standard deviation of the red channel of a ray's color traced several times
+     *
+     * @param tracer the ray tracer
+     * @param ray    the ray
+     * @param trials amount of traces
+     * @return standard deviation of the red channel
+     */
+    private double deviation(BasicRayTracer tracer, Ray ray, int trials) {
+        double sum = 0, squares = 0;
+        for (int i = 0; i < trials; ++i) {
+            double red = tracer.traceRay(ray).getColor().getRed();
+            sum += red;
+            squares += red * red;
+        }
+        double mean = sum / trials;
+        return Math.sqrt(squares / trials - mean * mean);
+    }
+}
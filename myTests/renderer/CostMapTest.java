@@ -0,0 +1,98 @@
+package renderer;
+
+import elements.Camera;
+import elements.PointLight;
+import geometries.Sphere;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point3D;
+import primitives.Vector;
+import scene.Scene;
+
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing CostMap
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+class CostMapTest {
+
+    /**
+     * create a render of a small sphere in the middle of the image
+     *
+     * @param name name of the image
+     * @return render of the scene
+     */
+    private Render sphereRender(String name) {
+        Scene scene = new Scene("Cost scene");
+        scene._geometries.add(new Sphere(20, new Point3D(0, 0, -200)).setMaterial(new Material().setKd(0.5)));
+        scene._lights.add(new PointLight(new Color(100, 100, 100), new Point3D(0, 50, 0)));
+        return new Render()
+                .setImageWriter(new ImageWriter(name, 8, 8))
+                .setCamera(new Camera(Point3D.ZERO, new Vector(0, 0, -1), new Vector(0, 1, 0))
+                        .setViewPlaneSize(20, 20).setDistance(100))
+                .setRayTracer(new BasicRayTracer(scene))
+                .setCostMapping(true);
+    }
+
+    /**
+     * Test method for {@link renderer.Render#getCostMap()}.
+     */
+    @Test
+    void getCostMap() {
+        Render render = sphereRender("costMap");
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: pixels that hit the sphere trace a shadow ray, background pixels only the camera ray
+        render.renderImage();
+        CostMap costMap = render.getCostMap();
+        assertEquals(2, costMap.getRays(4, 4), "Wrong rays of a pixel hitting the sphere");
+        assertEquals(1, costMap.getRays(0, 0), "Wrong rays of a background pixel");
+        long rays = 0;
+        for (int row = 0; row < 8; ++row)
+            for (int col = 0; col < 8; ++col)
+                rays += costMap.getRays(col, row);
+        assertEquals(render.getRenderStats().getTotalRays(), rays, "Rays of the pixels do not sum to the total");
+        assertTrue(costMap.getNanos(0, 0, 8, 8) > 0, "Time was not recorded");
+
+        // TC02: cost of packets is divided between their pixels
+        render.setPacketSize(2).setMultithreading(2).renderImage();
+        assertEquals(1, render.getCostMap().getRays(0, 0), "Wrong rays of a background packet pixel");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: cost mapping turned off
+        render.setCostMapping(false).renderImage();
+        assertNull(render.getCostMap(), "Cost map should not be recorded");
+    }
+
+    /**
+     * Test method for {@link renderer.Render#writeCostMap()}.
+     */
+    @Test
+    void writeCostMap() throws IOException {
+        Render render = sphereRender("costMapWrite");
+        render.renderImage();
+        render.writeCostMap();
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: raw data holds the resolution and the rays and time of each pixel
+        try (DataInputStream in = new DataInputStream(new FileInputStream(
+                System.getProperty("user.dir") + "/images/costMapWrite_cost.raw"))) {
+            assertEquals(8, in.readInt(), "Wrong width");
+            assertEquals(8, in.readInt(), "Wrong height");
+            assertEquals(2, in.readInt(), "Wrong amount of channels");
+            assertEquals(render.getCostMap().getRays(0, 0), in.readLong(), "Wrong rays of the first pixel");
+            assertEquals(render.getCostMap().getNanos(0, 0), in.readLong(), "Wrong time of the first pixel");
+        }
+    }
+}
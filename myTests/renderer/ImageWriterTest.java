@@ -3,6 +3,16 @@ package renderer;
 import org.junit.jupiter.api.Test;
 import primitives.Color;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -40,4 +50,158 @@ class ImageWriterTest {
         imagewriter.writeToImage();
     }
 
-}
\ No newline at end of file
+    /**
+     * create an image of a horizontal gradient with colors above 255
+     *
+     * @param name name of the image
+     * @return the image writer
+     */
+    private ImageWriter gradient(String name) {
+        ImageWriter imageWriter = new ImageWriter(name, 4, 3).setHdr(true);
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 4; j++) {
+                imageWriter.writePixel(j, i, new Color(j * 200, i * 0.5, 1000.25));
+            }
+        }
+        return imageWriter;
+    }
+
+    /**
+     * Test method for {@link ImageWriter#writeToPfm()}
+     */
+    @Test
+    void testWriteToPfm() throws IOException {
+        gradient("testPfm").writeToPfm();
+        byte[] bytes = Files.readAllBytes(Paths.get(System.getProperty("user.dir"), "images", "testPfm.pfm"));
+        String header = "PF\n4 3\n-1.0\n";
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: header and size of the file
+        assertEquals(header, new String(bytes, 0, header.length(), "US-ASCII"), "Wrong header");
+        assertEquals(header.length() + 4 * 3 * 3 * 4, bytes.length, "Wrong file size");
+
+        // TC02: unclamped colors, rows from the bottom up
+        ByteBuffer data = ByteBuffer.wrap(bytes, header.length(), bytes.length - header.length())
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 2; i >= 0; i--) {
+            for (int j = 0; j < 4; j++) {
+                assertEquals(j * 200, data.getFloat(), "Wrong red");
+                assertEquals(i * 0.5, data.getFloat(), "Wrong green");
+                assertEquals(1000.25, data.getFloat(), "Wrong blue");
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: unclamped colors are not kept by default
+        assertThrows(IllegalStateException.class, () -> new ImageWriter("testPfm", 4, 3).writeToPfm(),
+                "Image without unclamped colors was written");
+    }
+
+    /**
+     * Test method for {@link ImageWriter#writeToExr()}
+     */
+    @Test
+    void testWriteToExr() throws IOException {
+        gradient("testExr").writeToExr();
+        ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(Paths.get(System.getProperty("user.dir"), "images",
+                "testExr.exr"))).order(ByteOrder.LITTLE_ENDIAN);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: magic number, version and the header's attributes
+        assertEquals(20000630, file.getInt(), "Wrong magic number");
+        assertEquals(2, file.getInt(), "Wrong version");
+        int attributes = 0;
+        for (String name = string(file); !name.isEmpty(); name = string(file), ++attributes) {
+            string(file);//type
+            int size = file.getInt();
+            if (name.equals("dataWindow")) {
+                assertArrayEquals(new int[]{0, 0, 3, 2},
+                        new int[]{file.getInt(), file.getInt(), file.getInt(), file.getInt()}, "Wrong data window");
+            } else {
+                file.position(file.position() + size);
+            }
+        }
+        assertEquals(8, attributes, "Wrong amount of attributes");
+
+        // TC02: offsets of the lines lead to their blocks of unclamped B, G and R values
+        long[] offsets = {file.getLong(), file.getLong(), file.getLong()};
+        for (int i = 0; i < 3; i++) {
+            file.position((int) offsets[i]);
+            assertEquals(i, file.getInt(), "Wrong line");
+            assertEquals(4 * 3 * 4, file.getInt(), "Wrong block size");
+            for (int j = 0; j < 4; j++)
+                assertEquals(1000.25, file.getFloat(), "Wrong blue");
+            for (int j = 0; j < 4; j++)
+                assertEquals(i * 0.5, file.getFloat(), "Wrong green");
+            for (int j = 0; j < 4; j++)
+                assertEquals(j * 200, file.getFloat(), "Wrong red");
+        }
+        assertFalse(file.hasRemaining(), "Wrong file size");
+    }
+
+    /**
+     * Test method for {@link ImageWriter#setFormat(ImageFormat)}
+     */
+    @Test
+    void testSetFormat() throws IOException {
+        //130 rows - 3 bands of rows, the last one is smaller
+        ImageWriter imageWriter = new ImageWriter("testFormat", 70, 130);
+        for (int i = 0; i < 130; i++)
+            for (int j = 0; j < 70; j++)
+                imageWriter.writePixel(j, i, new Color(j, i, (i * 7 + j) % 256));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: binary portable pixmap - header and RGB bytes
+        imageWriter.setFormat(ImageFormat.PPM).writeToImage();
+        byte[] bytes = Files.readAllBytes(Paths.get(System.getProperty("user.dir"), "images", "testFormat.ppm"));
+        String header = "P6\n70 130\n255\n";
+        assertEquals(header, new String(bytes, 0, header.length(), "US-ASCII"), "Wrong header");
+        assertEquals(header.length() + 70 * 130 * 3, bytes.length, "Wrong file size");
+        for (int i = 0; i < 130; i++)
+            for (int j = 0; j < 70; j++) {
+                int k = header.length() + (i * 70 + j) * 3;
+                assertEquals(j, bytes[k], "Wrong red");
+                assertEquals(i, bytes[k + 1] & 0xff, "Wrong green");
+                assertEquals((i * 7 + j) % 256, bytes[k + 2] & 0xff, "Wrong blue");
+            }
+
+        // TC02: bitmap is read back as the image
+        imageWriter.setFormat(ImageFormat.BMP).writeToImage();
+        BufferedImage bitmap = ImageIO.read(new File(System.getProperty("user.dir") + "/images/testFormat.bmp"));
+        for (int i = 0; i < 130; i++)
+            for (int j = 0; j < 70; j++)
+                assertEquals(imageWriter.getPixel(j, i).getRGB(), bitmap.getRGB(j, i), "Wrong bitmap pixel");
+
+        // TC03: raw RGB bytes without a header
+        imageWriter.setFormat(ImageFormat.RAW).writeToImage();
+        byte[] raw = Files.readAllBytes(Paths.get(System.getProperty("user.dir"), "images", "testFormat.rgb"));
+        assertArrayEquals(Arrays.copyOfRange(bytes, header.length(), bytes.length), raw, "Wrong raw bytes");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: a single pixel
+        ImageWriter pixel = new ImageWriter("testFormat", 1, 1).setFormat(ImageFormat.BMP);
+        pixel.writePixel(0, 0, new Color(1, 2, 3));
+        pixel.writeToImage();
+        bytes = Files.readAllBytes(Paths.get(System.getProperty("user.dir"), "images", "testFormat.bmp"));
+        assertEquals(58, bytes.length, "Wrong bitmap size");
+        assertArrayEquals(new byte[]{3, 2, 1}, Arrays.copyOfRange(bytes, 54, 57), "Wrong bitmap pixel");
+    }
+
+    /**
+     * read a null terminated string
+     *
+     * @param buffer the buffer
+     * @return the string
+     */
+    private static String string(ByteBuffer buffer) {
+        StringBuilder builder = new StringBuilder();
+        for (byte b = buffer.get(); b != 0; b = buffer.get())
+            builder.append((char) b);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,65 @@
+package renderer;
+
+import elements.PointLight;
+import geometries.Plane;
+import geometries.Sphere;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing PathTracer
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+class PathTracerTest {
+
+    /**
+     * Test method for {@link renderer.PathTracer#traceRay(primitives.Ray)}.
+     */
+    @Test
+    void traceRay() {
+        //a half mirror wall facing a lit wall
+        Scene scene = new Scene("Mirror");
+        scene._geometries.add(new Plane(new Point3D(0, 0, -100), new Vector(0, 0, 1))
+                        .setMaterial(new Material().setKd(0.3).setKr(0.5)),
+                new Plane(new Point3D(0, 0, 100), new Vector(0, 0, -1))
+                        .setEmission(new Color(20, 40, 60)).setMaterial(new Material().setKd(0.3)));
+        scene._lights.add(new PointLight(new Color(50, 50, 50), new Point3D(0, 0, 0)).setKl(0.01));
+        Ray ray = new Ray(Point3D.ZERO, new Vector(0.1, 0, -1));
+        java.awt.Color expected = new BasicRayTracer(scene).traceRay(ray).getColor();
+        PathTracer tracer = new PathTracer(scene).setSamples(4000);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: average color of the paths equals the color of BasicRayTracer
+        java.awt.Color result = tracer.traceRay(ray).getColor();
+        assertEquals(expected.getRed(), result.getRed(), 2, "Wrong red");
+        assertEquals(expected.getGreen(), result.getGreen(), 2, "Wrong green");
+        assertEquals(expected.getBlue(), result.getBlue(), 2, "Wrong blue");
+
+        // TC02: each path traces a single reflected ray at most
+        assertTrue(tracer.getRenderStats().getReflectionRays() <= 4000, "Too many reflected rays");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: surfaces without reflection and refraction - a single path gives the exact color
+        Scene matte = new Scene("Matte");
+        matte._geometries.add(new Sphere(10, new Point3D(0, 0, -50))
+                .setEmission(new Color(30, 0, 0)).setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(20)));
+        matte._lights.add(new PointLight(new Color(200, 200, 200), new Point3D(20, 20, 0)));
+        Ray toSphere = new Ray(Point3D.ZERO, new Vector(0.05, 0.05, -1));
+        assertEquals(new BasicRayTracer(matte).traceRay(toSphere), new PathTracer(matte).traceRay(toSphere),
+                "Wrong color of a matte surface");
+
+        // TC12: no samples
+        assertThrows(IllegalArgumentException.class, () -> tracer.setSamples(0), "Zero samples accepted");
+    }
+}
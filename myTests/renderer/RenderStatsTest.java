@@ -0,0 +1,68 @@
+package renderer;
+
+import elements.Camera;
+import elements.PointLight;
+import geometries.Plane;
+import geometries.Sphere;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point3D;
+import primitives.Vector;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing RenderStats
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+class RenderStatsTest {
+
+    /**
+     * Test method for {@link renderer.Render#getRenderStats()}.
+     */
+    @Test
+    void getRenderStats() {
+        Scene scene = new Scene("Stats scene");
+        //mirror sphere in front of the camera, and a wall behind the camera reflected by it
+        scene._geometries.add(
+                new Sphere(50, new Point3D(0, 0, -200))
+                        .setMaterial(new Material().setKd(0.5).setKr(0.5)),
+                new Plane(new Point3D(0, 0, 10), new Vector(0, 0, -1))
+                        .setMaterial(new Material().setKd(0.5)));
+        scene._lights.add(new PointLight(new Color(100, 100, 100), new Point3D(0, 50, 0)));
+        Render render = new Render()
+                .setImageWriter(new ImageWriter("stats", 4, 4))
+                .setCamera(new Camera(Point3D.ZERO, new Vector(0, 0, -1), new Vector(0, 1, 0))
+                        .setViewPlaneSize(20, 20).setDistance(100))
+                .setRayTracer(new BasicRayTracer(scene));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: each pixel traces a camera ray, a reflection ray and shadow rays
+        render.renderImage();
+        RenderStats stats = render.getRenderStats();
+        assertEquals(16, stats.getCameraRays(), "Wrong number of camera rays");
+        assertEquals(16, stats.getReflectionRays(), "Wrong number of reflection rays");
+        assertEquals(0, stats.getRefractionRays(), "Wrong number of refraction rays");
+        assertEquals(0, stats.getGlossyRays(), "Wrong number of glossy rays");
+        assertTrue(stats.getShadowRays() > 0 && stats.getShadowRays() <= 32, "Wrong number of shadow rays");
+        assertEquals(1, stats.getMaxDepth(), "Wrong maximum recursion depth");
+        assertEquals(0.5, stats.getAverageDepth(), 1e-10, "Wrong average recursion depth");
+        assertTrue(stats.getGeometryTests() >= stats.getTotalRays(), "Intersection tests were not counted");
+
+        // TC02: statistics are reset for each render and merged from all the threads
+        render.setMultithreading(2).renderImage();
+        assertEquals(16, stats.getCameraRays(), "Wrong number of camera rays with threads");
+        assertEquals(16, stats.getReflectionRays(), "Wrong number of reflection rays with threads");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: camera rays traced in packets are counted as well
+        render.setPacketSize(4).renderImage();
+        assertEquals(16, stats.getCameraRays(), "Wrong number of camera rays in packets");
+    }
+}
@@ -0,0 +1,459 @@
+package renderer;
+
+import elements.Camera;
+import elements.PointLight;
+import geometries.Plane;
+import geometries.Sphere;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.SampleSequence;
+import primitives.Vector;
+import scene.Scene;
+
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing Render
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+class RenderTest {
+
+    /**
+     * render a scene of glossy and diffused surfaces lit by several lights,
+     * with paths and lights drawn at random
+     *
+     * @param threads amount of threads (0 renders without threads)
+     * @param tiles   tile size (0 hands out pixels in order)
+     * @param packet  packet size
+     * @param seed    seed of the frame
+     * @return the rendered image
+     */
+    private ImageWriter render(int threads, int tiles, int packet, long seed) {
+        ImageWriter imageWriter = new ImageWriter("Random scene", 24, 24);
+        Render render = random(imageWriter, new PathTracer(randomScene()).setSamples(4).setLightSamples(2))
+                .setPacketSize(packet)
+                .setTileScheduling(tiles)
+                .setSeed(seed);
+        if (threads > 0) {
+            render.setMultithreading(threads);
+        }
+        render.renderImage();
+        return imageWriter;
+    }
+
+    /**
+     * a scene of glossy and diffused surfaces lit by several lights
+     *
+     * @return the scene
+     */
+    private Scene randomScene() {
+        Scene scene = new Scene("Random scene");
+        scene._geometries.add(
+                new Plane(new Point3D(0, 0, -300), new Vector(0, 0, 1))
+                        .setMaterial(new Material().setKd(0.4).setKr(0.5).setKGlossy(80)),
+                new Sphere(40, new Point3D(0, 0, -200))
+                        .setMaterial(new Material().setKd(0.3).setKt(0.6).setKClear(70)));
+        for (int i = 0; i < 6; ++i) {
+            scene._lights.add(new PointLight(new Color(40, 30 + i * 5, 20), new Point3D(i * 40 - 100, 80, 0)));
+        }
+        return scene;
+    }
+
+    /**
+     * a render of the random scene
+     *
+     * @param imageWriter the image writer
+     * @param rayTracer   the ray tracer of the scene
+     * @return the render
+     */
+    private Render random(ImageWriter imageWriter, RayTracerBase rayTracer) {
+        return new Render()
+                .setImageWriter(imageWriter)
+                .setCamera(new Camera(Point3D.ZERO, new Vector(0, 0, -1), new Vector(0, 1, 0))
+                        .setViewPlaneSize(100, 100).setDistance(100))
+                .setRayTracer(rayTracer)
+                .setSeed(5781);
+    }
+
+    /**
+     * count the pixels that differ between two images
+     *
+     * @param first  first image
+     * @param second second image
+     * @return amount of different pixels
+     */
+    private int differences(ImageWriter first, ImageWriter second) {
+        int count = 0;
+        for (int row = 0; row < first.getNy(); ++row) {
+            for (int col = 0; col < first.getNx(); ++col) {
+                if (!first.getPixel(col, row).equals(second.getPixel(col, row))) {
+                    ++count;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Test method for {@link renderer.Render#setSeed(long)}.
+     */
+    @Test
+    void setSeed() {
+        ImageWriter expected = render(0, 0, 1, 5781);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: multithreaded renders are identical to the single threaded render
+        assertEquals(0, differences(expected, render(4, 0, 1, 5781)), "Threads changed the image");
+        assertEquals(0, differences(expected, render(3, 0, 1, 5781)), "Threads changed the image");
+
+        // TC02: cost-aware tile scheduling does not change the image
+        assertEquals(0, differences(expected, render(4, 8, 1, 5781)), "Tiles changed the image");
+
+        // TC03: another seed draws other samples
+        assertTrue(differences(expected, render(4, 0, 1, 1)) > 0, "Seed did not change the image");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: packets are identical between renders
+        ImageWriter packets = render(0, 0, 4, 5781);
+        assertEquals(0, differences(packets, render(4, 8, 4, 5781)), "Threads changed the packets image");
+    }
+
+    /**
+     * Test method for {@link renderer.Render#setCheckpoint(String)}.
+     */
+    @Test
+    void setCheckpoint() throws IOException {
+        //80x70 pixels in checkpoint tiles of 32x32 - 3x3 tiles
+        ImageWriter expected = new ImageWriter("Random scene", 80, 70);
+        random(expected, new PathTracer(randomScene()).setSamples(2)).renderImage();
+        Files.deleteIfExists(Paths.get(ImageWriter.FOLDER_PATH, "testCheckpoint.ckpt"));
+
+        //the render is cancelled in the middle of the fourth tile (the third tile is 16x32)
+        Render[] cancelled = new Render[1];
+        RayTracerBase cancelling = new PathTracer(randomScene()) {
+            private int rays = 0;
+
+            @Override
+            public Color traceRay(Ray ray) {
+                if (++rays == 2 * 32 * 32 + 16 * 32 + 100) {
+                    cancelled[0].cancel();
+                }
+                return super.traceRay(ray);
+            }
+        }.setSamples(2);
+        cancelled[0] = random(new ImageWriter("Random scene", 80, 70), cancelling).setCheckpoint("testCheckpoint");
+        cancelled[0].renderImage();
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: the tile in progress is completed, later tiles are not rendered
+        try (Checkpoint checkpoint = new Checkpoint(Paths.get(ImageWriter.FOLDER_PATH, "testCheckpoint.ckpt"),
+                80, 70, 32, cancelled[0].fingerprint())) {
+            assertEquals(4, checkpoint.getCompletedTiles(), "Wrong amount of completed tiles");
+        }
+
+        // TC02: resuming renders only the tiles that were not completed, and the image is the uninterrupted image
+        ImageWriter resumed = new ImageWriter("Random scene", 80, 70);
+        Render render = random(resumed, new PathTracer(randomScene()).setSamples(2)).setCheckpoint("testCheckpoint")
+                .setMultithreading(3);
+        render.renderImage();
+        assertEquals(80 * 70 - 3 * 32 * 32 - 16 * 32, render.getRenderStats().getCameraRays(), "Completed tiles were rendered");
+        assertEquals(0, differences(expected, resumed), "Resumed image is different");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: rendering a completed checkpoint only copies it
+        ImageWriter copied = new ImageWriter("Random scene", 80, 70);
+        render.setImageWriter(copied).renderImage();
+        assertEquals(0, render.getRenderStats().getCameraRays(), "Completed image was rendered");
+        assertEquals(0, differences(expected, copied), "Copied image is different");
+
+        // TC12: a checkpoint of another resolution is started over
+        render.setImageWriter(new ImageWriter("Random scene", 40, 40)).renderImage();
+        assertEquals(40 * 40, render.getRenderStats().getCameraRays(), "Wrong checkpoint was resumed");
+        Files.delete(Paths.get(ImageWriter.FOLDER_PATH, "testCheckpoint.ckpt"));
+
+        // TC13: a checkpoint of another scene is started over, and the image is the image of the new scene
+        cancelled[0].renderImage();
+        Scene changed = randomScene();
+        changed._lights.add(new PointLight(new Color(100, 100, 100), new Point3D(0, -80, 0)));
+        ImageWriter changedExpected = new ImageWriter("Random scene", 80, 70);
+        random(changedExpected, new PathTracer(changed).setSamples(2)).renderImage();
+        ImageWriter changedResumed = new ImageWriter("Random scene", 80, 70);
+        render = random(changedResumed, new PathTracer(changed).setSamples(2)).setCheckpoint("testCheckpoint");
+        render.renderImage();
+        assertEquals(80 * 70, render.getRenderStats().getCameraRays(), "Checkpoint of another scene was resumed");
+        assertEquals(0, differences(changedExpected, changedResumed), "Image of another scene is different");
+
+        // TC14: a checkpoint of another seed is started over
+        render.setSeed(1).renderImage();
+        assertEquals(80 * 70, render.getRenderStats().getCameraRays(), "Checkpoint of another seed was resumed");
+        Files.delete(Paths.get(ImageWriter.FOLDER_PATH, "testCheckpoint.ckpt"));
+    }
+
+    /**
+     * a render of the random scene that is cancelled after tracing some camera rays
+     *
+     * @param rays amount of camera rays traced before cancelling
+     * @return the render
+     */
+    private Render cancelling(int rays) {
+        Render[] render = new Render[1];
+        RayTracerBase cancelling = new PathTracer(randomScene()) {
+            private final AtomicInteger _rays = new AtomicInteger();
+
+            @Override
+            public Color traceRay(Ray ray) {
+                if (_rays.incrementAndGet() == rays) {
+                    render[0].cancel();
+                }
+                return super.traceRay(ray);
+            }
+        };
+        render[0] = random(new ImageWriter("Random scene", 80, 70), cancelling);
+        return render[0];
+    }
+
+    /**
+     * Test method for {@link renderer.Render#cancel()}.
+     */
+    @Test
+    void cancel() {
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: single threaded render stops after the pixel in progress
+        Render render = cancelling(50);
+        render.renderImage();
+        assertEquals(50, render.getRenderStats().getCameraRays(), "Pixels were rendered after cancelling");
+
+        // TC02: multithreaded render stops after the pixels in progress
+        render = cancelling(50).setMultithreading(3);
+        render.renderImage();
+        assertTrue(render.getRenderStats().getCameraRays() < 50 + 3, "Pixels were rendered after cancelling");
+
+        // TC03: tiled render stops after the tiles in progress
+        render = cancelling(50).setMultithreading(3).setTileScheduling(8);
+        render.renderImage();
+        assertTrue(render.getRenderStats().getCameraRays() < 50 + 3 * 8 * 8, "Tiles were rendered after cancelling");
+
+        // TC04: render of regions stops after the pixels in progress
+        render = cancelling(50).setMultithreading(3).setRegions(new Rectangle(0, 0, 80, 70));
+        render.renderImage();
+        assertTrue(render.getRenderStats().getCameraRays() < 50 + 3, "Pixels were rendered after cancelling");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: cancelled render is not updated by its changes - the whole image is rendered again
+        render = cancelling(50);
+        render.renderImage();
+        render.renderChanges();
+        assertEquals(80 * 70, render.getRenderStats().getCameraRays(), "Cancelled render was updated");
+    }
+
+    /**
+     * Test method for {@link renderer.Render#setRegions(java.awt.Rectangle...)}.
+     */
+    @Test
+    void setRegions() {
+        ImageWriter expected = render(0, 0, 1, 5781);
+        Color marker = new Color(255, 0, 255);
+        Rectangle inner = new Rectangle(3, 4, 5, 6);
+        Rectangle edge = new Rectangle(20, 18, 10, 10);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: only the pixels of the regions are traced, the other pixels are untouched
+        ImageWriter imageWriter = new ImageWriter("Random scene", 24, 24);
+        for (int row = 0; row < 24; ++row)
+            for (int col = 0; col < 24; ++col)
+                imageWriter.writePixel(col, row, marker);
+        Render render = random(imageWriter, new PathTracer(randomScene()).setSamples(4).setLightSamples(2))
+                .setRegions(inner, edge)
+                .setMultithreading(3);
+        render.renderImage();
+        assertEquals(5 * 6 + 4 * 6, render.getRenderStats().getCameraRays(), "Wrong amount of traced pixels");
+        for (int row = 0; row < 24; ++row)
+            for (int col = 0; col < 24; ++col)
+                if (inner.contains(col, row) || edge.contains(col, row))
+                    assertEquals(expected.getPixel(col, row), imageWriter.getPixel(col, row), "Wrong region pixel");
+                else
+                    assertEquals(marker.getColor(), imageWriter.getPixel(col, row), "Pixel outside the regions changed");
+
+        // TC02: packets cut by the crop window do not color pixels outside it
+        ImageWriter packets = new ImageWriter("Random scene", 24, 24);
+        for (int row = 0; row < 24; ++row)
+            for (int col = 0; col < 24; ++col)
+                packets.writePixel(col, row, marker);
+        random(packets, new BasicRayTracer(randomScene()).setBeamRays(4)).setPacketSize(4).setCropWindow(3, 5, 7, 2).renderImage();
+        for (int row = 0; row < 24; ++row)
+            for (int col = 0; col < 24; ++col)
+                assertEquals(col >= 3 && col < 10 && row >= 5 && row < 7,
+                        !marker.getColor().equals(packets.getPixel(col, row)), "Wrong pixel colored by packets");
+
+        // TC03: pixels of packets cut by the regions are the pixels of a whole render with packets
+        ImageWriter wholePackets = render(0, 0, 4, 5781);
+        ImageWriter cutPackets = new ImageWriter("Random scene", 24, 24);
+        random(cutPackets, new PathTracer(randomScene()).setSamples(4).setLightSamples(2))
+                .setPacketSize(4)
+                .setRegions(inner, edge)
+                .renderImage();
+        for (int row = 0; row < 24; ++row)
+            for (int col = 0; col < 24; ++col)
+                if (inner.contains(col, row) || edge.contains(col, row))
+                    assertEquals(wholePackets.getPixel(col, row), cutPackets.getPixel(col, row),
+                            "Wrong region pixel with packets");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: regions outside the image trace nothing
+        render.setRegions(new Rectangle(30, 30, 5, 5)).renderImage();
+        assertEquals(0, render.getRenderStats().getCameraRays(), "Pixels outside the image were traced");
+
+        // TC12: empty crop window
+        assertThrows(IllegalArgumentException.class, () -> render.setCropWindow(0, 0, 0, 5), "Empty window accepted");
+    }
+
+    /**
+     * render a scene fully into a new image
+     *
+     * @param scene the scene
+     * @return the image
+     */
+    private ImageWriter renderFully(Scene scene) {
+        ImageWriter imageWriter = new ImageWriter("Changes", 60, 60);
+        new Render().setImageWriter(imageWriter)
+                .setCamera(new Camera(Point3D.ZERO, new Vector(0, 0, -1), new Vector(0, 1, 0))
+                        .setViewPlaneSize(100, 100).setDistance(100))
+                .setRayTracer(new BasicRayTracer(scene))
+                .renderImage();
+        return imageWriter;
+    }
+
+    /**
+     * Test method for {@link renderer.Render#renderChanges()}.
+     */
+    @Test
+    void renderChanges() {
+        Scene scene = new Scene("Changes");
+        Sphere moving = new Sphere(10, new Point3D(-20, -20, -150));
+        Sphere edited = new Sphere(10, new Point3D(25, 0, -150));
+        Sphere removed = new Sphere(8, new Point3D(0, 30, -150));
+        for (Sphere sphere : new Sphere[]{moving, edited, removed})
+            sphere.setEmission(new Color(20, 20, 60)).setMaterial(new Material().setKd(0.5).setKs(0.3).setShininess(20));
+        scene._geometries.add(new Plane(new Point3D(0, -50, 0), new Vector(0, 1, 0))
+                .setMaterial(new Material().setKd(0.6)), moving, edited, removed);
+        scene._lights.add(new PointLight(new Color(500, 400, 300), new Point3D(0, 100, -50)).setKl(0.001));
+        ImageWriter imageWriter = new ImageWriter("Changes", 60, 60);
+        Render render = new Render()
+                .setImageWriter(imageWriter)
+                .setCamera(new Camera(Point3D.ZERO, new Vector(0, 0, -1), new Vector(0, 1, 0))
+                        .setViewPlaneSize(100, 100).setDistance(100))
+                .setRayTracer(new BasicRayTracer(scene))
+                .setMultithreading(3);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: the first render renders the whole image
+        assertEquals(1, render.renderChanges().size(), "Wrong first render");
+        assertEquals(60 * 60, render.getRenderStats().getCameraRays(), "First render is not complete");
+
+        // TC02: moved geometry - its pixels and its shadows before and after moving are rendered
+        moving.translate(new Vector(8, 0, 0));
+        render.renderChanges();
+        long rays = render.getRenderStats().getCameraRays();
+        assertTrue(rays > 0 && rays < 60 * 60 / 2, "Wrong amount of pixels rendered for a move");
+        assertEquals(0, differences(renderFully(scene), imageWriter), "Moved geometry was not rendered");
+
+        // TC03: edited geometry - only its pixels are rendered
+        edited.setEmission(new Color(100, 0, 0));
+        render.renderChanges();
+        assertTrue(render.getRenderStats().getCameraRays() < rays, "Wrong amount of pixels rendered for an edit");
+        assertEquals(0, differences(renderFully(scene), imageWriter), "Edited geometry was not rendered");
+
+        // TC04: removed geometry and its shadow are rendered
+        scene._geometries.remove(removed);
+        render.renderChanges();
+        assertEquals(0, differences(renderFully(scene), imageWriter), "Removed geometry was not rendered");
+
+        // TC05: change in a scene with a reflective material renders the whole image
+        edited.setMaterial(new Material().setKd(0.3).setKr(0.5));
+        render.renderChanges();
+        assertEquals(60 * 60, render.getRenderStats().getCameraRays(), "Reflective change was not rendered fully");
+        assertEquals(0, differences(renderFully(scene), imageWriter), "Reflective change was not rendered");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: no changes render nothing
+        assertTrue(render.renderChanges().isEmpty(), "Unchanged scene was rendered");
+        assertEquals(0, render.getRenderStats().getCameraRays(), "Unchanged scene was rendered");
+
+        // TC12: another image writer is rendered fully
+        render.setImageWriter(new ImageWriter("Changes", 60, 60)).renderChanges();
+        assertEquals(60 * 60, render.getRenderStats().getCameraRays(), "New image was not rendered fully");
+    }
+
+    /**
+     * Test method for {@link renderer.Render#setAntialiasing(int)}.
+     */
+    @Test
+    void setAntialiasing() {
+        //a white disc on a black background, its edge crossing the pixels
+        Scene scene = new Scene("Disc");
+        scene._geometries.add(new Sphere(30, new Point3D(0, 0, -100)).setEmission(new Color(255, 255, 255)));
+        ImageWriter imageWriter = new ImageWriter("Disc", 10, 10);
+        Render render = new Render()
+                .setImageWriter(imageWriter)
+                .setCamera(new Camera(Point3D.ZERO, new Vector(0, 0, -1), new Vector(0, 1, 0))
+                        .setViewPlaneSize(100, 100).setDistance(100))
+                .setRayTracer(new BasicRayTracer(scene))
+                .setAntialiasing(16)
+                .setSampleSequence(SampleSequence.SOBOL);
+        render.renderImage();
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: pixels on the edge of the disc are partially covered
+        int partial = 0;
+        for (int row = 0; row < 10; ++row) {
+            for (int col = 0; col < 10; ++col) {
+                int red = imageWriter.getPixel(col, row).getRed();
+                if (red > 0 && red < 255) {
+                    ++partial;
+                }
+            }
+        }
+        assertTrue(partial > 0, "Edge pixels are not antialiased");
+
+        // TC02: pixels inside and outside the disc are not changed
+        assertEquals(255, imageWriter.getPixel(5, 5).getRed(), "Wrong color inside the disc");
+        assertEquals(0, imageWriter.getPixel(0, 0).getRed(), "Wrong color outside the disc");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: packets are antialiased like single rays
+        ImageWriter packets = new ImageWriter("Disc", 10, 10);
+        render.setImageWriter(packets).setPacketSize(4).renderImage();
+        for (int row = 0; row < 10; ++row) {
+            for (int col = 0; col < 10; ++col) {
+                assertEquals(imageWriter.getPixel(col, row).getRed(), packets.getPixel(col, row).getRed(), 40,
+                        "Packets changed the image");
+            }
+        }
+
+        // TC12: no samples
+        assertThrows(IllegalArgumentException.class, () -> render.setAntialiasing(0), "Zero samples accepted");
+    }
+}
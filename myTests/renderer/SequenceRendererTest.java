@@ -0,0 +1,92 @@
+package renderer;
+
+import elements.Camera;
+import elements.PointLight;
+import geometries.Plane;
+import geometries.Sphere;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point3D;
+import primitives.Vector;
+import scene.Scene;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing SequenceRenderer
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+class SequenceRendererTest {
+
+    /**
+     * Test method for {@link renderer.SequenceRenderer#renderSequence(String, int, int, int)}.
+     */
+    @Test
+    void renderSequence() throws IOException {
+        Scene scene = new Scene("Sequence");
+        Sphere sphere = new Sphere(15, new Point3D(-30, 0, -150));
+        sphere.setEmission(new Color(20, 20, 60)).setMaterial(new Material().setKd(0.5).setKs(0.3).setShininess(20));
+        scene._geometries.add(new Plane(new Point3D(0, -50, 0), new Vector(0, 1, 0))
+                .setMaterial(new Material().setKd(0.6)), sphere);
+        scene._lights.add(new PointLight(new Color(500, 400, 300), new Point3D(0, 100, -50)).setKl(0.001));
+        Render render = new Render()
+                .setRayTracer(new BasicRayTracer(scene))
+                .setMultithreading(2);
+        SequenceRenderer sequence = new SequenceRenderer(render)
+                .setCameraPath(frame -> new Camera(new Point3D(frame * 2, 0, 0), new Vector(0, 0, -1),
+                        new Vector(0, 1, 0)).setViewPlaneSize(100, 100).setDistance(100))
+                .setUpdate(frame -> sphere.translate(new Vector(10, 0, 0)))
+                .setFormat(ImageFormat.BMP)
+                .setWriting(2, 1);
+        for (int frame = 0; frame < 5; ++frame)
+            Files.deleteIfExists(Paths.get(ImageWriter.FOLDER_PATH, String.format("testSequence%04d.bmp", frame)));
+        sequence.renderSequence("testSequence", 30, 30, 5);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: frames after the first reuse the compiled scene while geometries only move
+        assertEquals(4, sequence.getReusedScenes(), "Compiled scene was not reused");
+
+        // TC02: each frame is written, the last frame is the scene and camera as they are at its end
+        for (int frame = 0; frame < 5; ++frame)
+            assertTrue(new File(ImageWriter.FOLDER_PATH, String.format("testSequence%04d.bmp", frame)).exists(),
+                    "Frame was not written");
+        ImageWriter expected = new ImageWriter("testSequence", 30, 30);
+        new Render().setImageWriter(expected)
+                .setCamera(new Camera(new Point3D(8, 0, 0), new Vector(0, 0, -1), new Vector(0, 1, 0))
+                        .setViewPlaneSize(100, 100).setDistance(100))
+                .setRayTracer(new BasicRayTracer(scene))
+                .renderImage();
+        BufferedImage last = ImageIO.read(new File(ImageWriter.FOLDER_PATH, "testSequence0004.bmp"));
+        for (int row = 0; row < 30; ++row)
+            for (int col = 0; col < 30; ++col)
+                assertEquals(expected.getPixel(col, row).getRGB(), last.getRGB(col, row), "Wrong pixel of the last frame");
+
+        // TC03: a change other than moves compiles the scene again
+        sequence.setUpdate(frame -> sphere.setMaterial(new Material().setKd(0.1 * frame))).setCameraPath(null);
+        sequence.renderSequence("testSequence", 30, 30, 3);
+        assertEquals(0, sequence.getReusedScenes(), "Compiled scene was reused after material changes");
+
+        // TC04: the render's scene reuse is restored after the sequence
+        assertFalse(render.isSceneReuse(), "Scene reuse was left on");
+        sequence.renderSequence("testSequence", 20, 20, 1);
+        render.setSceneReuse(true);
+        sequence.renderSequence("testSequence", 30, 30, 1);
+        assertTrue(render.isSceneReuse(), "Scene reuse was turned off");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: no pending frames
+        assertThrows(IllegalArgumentException.class, () -> sequence.setWriting(1, 0), "Zero pending frames accepted");
+    }
+}
@@ -0,0 +1,100 @@
+package renderer;
+
+import elements.Camera;
+import elements.PointLight;
+import geometries.Sphere;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point3D;
+import primitives.Vector;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing TileScheduler
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+class TileSchedulerTest {
+
+    /**
+     * Test method for {@link renderer.TileScheduler#order(renderer.TileScheduler.Tile[], int)}.
+     */
+    @Test
+    void order() {
+        TileScheduler scheduler = new TileScheduler(16);
+        TileScheduler.Tile[] tiles = scheduler.tiles(40, 32, 1);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: tiles cover the image, clipped at its edges
+        assertEquals(6, tiles.length, "Wrong number of tiles");
+        assertEquals(8, tiles[2]._width, "Edge tile is not clipped");
+
+        // TC02: hot tile is split and its parts are rendered first
+        for (TileScheduler.Tile tile : tiles) {
+            tile._cost = 1;
+        }
+        tiles[4]._cost = 100;
+        TileScheduler.Tile[] ordered = scheduler.order(tiles, 2);
+        assertTrue(ordered.length > tiles.length, "Hot tile was not split");
+        int area = 0;
+        for (TileScheduler.Tile tile : ordered) {
+            area += tile._width * tile._height;
+        }
+        assertEquals(40 * 32, area, "Tiles do not cover the image");
+        assertEquals(4, ordered[0]._index, "Hot tile is not first");
+        for (int i = 1; i < ordered.length; ++i) {
+            assertTrue(ordered[i - 1]._cost >= ordered[i]._cost, "Tiles are not ordered by cost");
+        }
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: tiles are not split below the packet size
+        TileScheduler packets = new TileScheduler(4);
+        TileScheduler.Tile[] single = packets.tiles(4, 4, 4);
+        single[0]._cost = 100;
+        assertEquals(1, packets.order(single, 8).length, "Tile was split below the packet size");
+    }
+
+    /**
+     * Test method for {@link renderer.Render#setTileScheduling(int)}.
+     */
+    @Test
+    void setTileScheduling() {
+        Scene scene = new Scene("Tiles scene");
+        scene._geometries.add(new Sphere(20, new Point3D(0, 0, -200)).setMaterial(new Material().setKd(0.5)));
+        scene._lights.add(new PointLight(new Color(100, 100, 100), new Point3D(0, 50, 0)));
+        Render render = new Render()
+                .setImageWriter(new ImageWriter("tiles", 20, 20))
+                .setCamera(new Camera(Point3D.ZERO, new Vector(0, 0, -1), new Vector(0, 1, 0))
+                        .setViewPlaneSize(20, 20).setDistance(100))
+                .setRayTracer(new BasicRayTracer(scene))
+                .setMultithreading(3)
+                .setTileScheduling(8)
+                .setCostMapping(true);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: first render estimates the tiles by a pre-pass (2x2 rays in each of the 9 tiles),
+        // the pre-pass is not counted in the render's statistics
+        render.renderImage();
+        assertEquals(400, render.getRenderStats().getCameraRays(), "Pre-pass rays were counted");
+        for (int row = 0; row < 20; ++row)
+            for (int col = 0; col < 20; ++col)
+                assertTrue(render.getCostMap().getRays(col, row) > 0, "Pixel was not rendered");
+
+        // TC02: next render reuses the tiles' times
+        render.renderImage();
+        assertEquals(400, render.getRenderStats().getCameraRays(), "Wrong number of camera rays");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: changing the packet size estimates the tiles again, and tiles are made of whole packets
+        render.setPacketSize(3).renderImage();
+        assertEquals(400, render.getRenderStats().getCameraRays(), "Pre-pass rays were counted");
+    }
+}
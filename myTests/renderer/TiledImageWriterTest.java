@@ -0,0 +1,150 @@
+package renderer;
+
+import elements.Camera;
+import geometries.Sphere;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Point3D;
+import primitives.Vector;
+import scene.Scene;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing TiledImageWriter
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+class TiledImageWriterTest {
+
+    /**
+     * read a null terminated string
+     *
+     * @param buffer the buffer
+     * @return the string
+     */
+    private static String string(ByteBuffer buffer) {
+        StringBuilder builder = new StringBuilder();
+        for (byte b = buffer.get(); b != 0; b = buffer.get())
+            builder.append((char) b);
+        return builder.toString();
+    }
+
+    /**
+     * Test method for {@link renderer.TiledImageWriter#writePixel(int, int, primitives.Color)}.
+     */
+    @Test
+    void writePixel() throws IOException {
+        //10x7 pixels in tiles of 4x4 - 3x2 tiles, the last column and row of tiles are smaller
+        TiledImageWriter imageWriter = new TiledImageWriter("testTiled", 10, 7, 4);
+        int maxInFlight = 0;
+        for (int i = 0; i < 6; i++) {
+            for (int j = 0; j < 10; j++) {
+                imageWriter.writePixel(j, i, new Color(j * 100, i, 0.5));
+                maxInFlight = Math.max(maxInFlight, imageWriter.getTilesInFlight());
+            }
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: pixels written row by row hold only a row of tiles in memory
+        assertEquals(3, maxInFlight, "Wrong amount of tiles in flight");
+
+        // TC02: pixel of a tile that was written to the file is updated in the file
+        imageWriter.writePixel(1, 1, new Color(7, 8, 9));
+        assertEquals(new java.awt.Color(7, 8, 9), imageWriter.getPixel(1, 1), "Pixel was not updated");
+        imageWriter.writeToImage();
+
+        ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(Paths.get(System.getProperty("user.dir"), "images",
+                "testTiled.exr"))).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(20000630, file.getInt(), "Wrong magic number");
+        assertEquals(0x202, file.getInt(), "Wrong version");
+        for (String name = string(file); !name.isEmpty(); name = string(file)) {
+            string(file);//type
+            int size = file.getInt();
+            if (name.equals("tiles")) {
+                assertEquals(4, file.getInt(), "Wrong tile width");
+                assertEquals(4, file.getInt(), "Wrong tile height");
+                file.get();
+            } else {
+                file.position(file.position() + size);
+            }
+        }
+        long[] offsets = new long[6];
+        for (int i = 0; i < 6; i++)
+            offsets[i] = file.getLong();
+
+        // TC03: each tile's offset leads to its block
+        for (int i = 0; i < 6; i++) {
+            file.position((int) offsets[i]);
+            int tileX = file.getInt(), tileY = file.getInt();
+            assertEquals(i % 3, tileX, "Wrong tile column");
+            assertEquals(i / 3, tileY, "Wrong tile row");
+            assertEquals(0, file.getInt() + file.getInt(), "Wrong tile level");
+            int width = Math.min(4, 10 - tileX * 4), height = Math.min(4, 7 - tileY * 4);
+            assertEquals(width * height * 3 * 4, file.getInt(), "Wrong tile size");
+            for (int y = 0; y < height; y++) {
+                int row = tileY * 4 + y;
+                float[][] channels = new float[3][width];
+                for (int c = 2; c >= 0; c--)
+                    for (int x = 0; x < width; x++)
+                        channels[c][x] = file.getFloat();
+                for (int x = 0; x < width; x++) {
+                    int col = tileX * 4 + x;
+                    if (col == 1 && row == 1) {
+                        assertEquals(7, channels[0][x], "Updated pixel is wrong in the file");
+                    } else if (row < 6) {
+                        assertEquals(col * 100, channels[0][x], "Wrong red");
+                        assertEquals(row, channels[1][x], "Wrong green");
+                        assertEquals(0.5, channels[2][x], "Wrong blue");
+                    } else {
+                        // =============== Boundary Values Tests ==================
+                        // TC11: pixels never written are black
+                        assertEquals(0, channels[0][x] + channels[1][x] + channels[2][x], "Missing pixel is not black");
+                    }
+                }
+            }
+        }
+
+        // TC12: empty tiles
+        assertThrows(IllegalArgumentException.class, () -> new TiledImageWriter("testTiled", 10, 7, 0),
+                "Empty tiles accepted");
+    }
+
+    /**
+     * Test method for {@link renderer.Render#setImageWriter(renderer.PixelSink)}.
+     */
+    @Test
+    void render() throws Exception {
+        Scene scene = new Scene("Tiled scene");
+        scene._geometries.add(new Sphere(20, new Point3D(0, 0, -200)).setEmission(new Color(0, 0, 300)));
+        TiledImageWriter imageWriter = new TiledImageWriter("testTiledRender", 20, 20, 8);
+        Render render = new Render()
+                .setImageWriter(imageWriter)
+                .setCamera(new Camera(Point3D.ZERO, new Vector(0, 0, -1), new Vector(0, 1, 0))
+                        .setViewPlaneSize(20, 20).setDistance(100))
+                .setRayTracer(new BasicRayTracer(scene))
+                .setMultithreading(2);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: streaming writer receives the rendered pixels
+        render.renderImage();
+        assertEquals(new java.awt.Color(0, 0, 255), imageWriter.getPixel(10, 10), "Wrong pixel");
+        assertEquals(0, imageWriter.getTilesInFlight(), "Complete tiles were not written");
+
+        // TC02: streaming writer is completed in the background
+        try (AsyncImageWriter asyncWriter = new AsyncImageWriter(1)) {
+            render.writeToImage(asyncWriter).get();
+        }
+        assertTrue(Files.size(Paths.get(System.getProperty("user.dir"), "images", "testTiledRender.exr")) > 20 * 20 * 12,
+                "Image file was not completed");
+    }
+}
@@ -0,0 +1,142 @@
+package scene;
+
+import elements.PointLight;
+import elements.SpotLight;
+import geometries.Geometries;
+import geometries.Plane;
+import geometries.Sphere;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing CompiledScene
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+class CompiledSceneTest {
+
+    /**
+     * Test method for {@link scene.CompiledScene#CompiledScene(scene.Scene)}.
+     */
+    @Test
+    void compile() {
+        Scene scene = new Scene("Test scene");
+        Sphere sphere1 = new Sphere(1, new Point3D(0, 0, -10));
+        Sphere sphere2 = new Sphere(1, new Point3D(5, 0, -10));
+        sphere1.setMaterial(new Material().setKd(0.5).setKs(0.5));
+        sphere2.setMaterial(new Material().setKd(0.5).setKs(0.5));
+        scene._geometries.add(sphere1, new Geometries(sphere2));
+        scene._lights.add(new PointLight(new Color(100, 100, 100), new Point3D(0, 10, 0)));
+        scene._lights.add(new SpotLight(new Color(100, 100, 100), new Point3D(0, 10, 0), new Vector(0, -1, 0)));
+
+        CompiledScene compiled = scene.compile();
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: lights are kept in an array, nested geometries are flattened
+        assertEquals(2, compiled.getLights().length, "Wrong number of lights");
+        assertEquals(2, compiled.getGeometries().findGeoIntersections(
+                new Ray(new Point3D(5, 0, 0), new Vector(0, 0, -1))).size(), "Nested geometry is not found");
+
+        // TC02: lights and geometries added or removed after compiling do not affect the compiled scene
+        scene._lights.clear();
+        scene._geometries.add(new Sphere(1, new Point3D(0, 5, -10)));
+        assertEquals(2, compiled.getLights().length, "Lights snapshot was changed");
+        assertNull(compiled.getGeometries().findGeoIntersections(
+                new Ray(new Point3D(0, 5, 0), new Vector(0, 0, -1))), "Geometries snapshot was changed");
+    }
+
+    /**
+     * Test method for {@link scene.CompiledScene#changesSince(scene.CompiledScene)}.
+     */
+    @Test
+    void changesSince() {
+        Scene scene = new Scene("Test scene");
+        Sphere moving = new Sphere(1, new Point3D(0, 0, -10));
+        Sphere edited = new Sphere(1, new Point3D(5, 0, -10));
+        Sphere removed = new Sphere(1, new Point3D(-5, 0, -10));
+        PointLight light = new PointLight(new Color(100, 100, 100), new Point3D(0, 10, 0));
+        scene._geometries.add(moving, new Geometries(edited), removed);
+        scene._lights.add(light);
+        CompiledScene previous = scene.compile();
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: unchanged scene
+        assertTrue(scene.compile().changesSince(previous).isEmpty(), "Unchanged scene has changes");
+
+        // TC02: moved, added and removed geometries are bounded before and after the change,
+        // edited geometries only where they are
+        moving.translate(new Vector(1, 0, 0));
+        edited.getMaterial().setKd(0.7);
+        scene._geometries.remove(removed);
+        scene._geometries.add(new Sphere(2, new Point3D(0, 5, -10)));
+        CompiledScene current = scene.compile();
+        SceneChanges changes = current.changesSince(previous);
+        assertFalse(changes.isGlobal(), "Bounded changes are global");
+        assertEquals(4, changes.getMoved().size(), "Wrong moved boxes");
+        assertEquals(1, changes.getShaded().size(), "Wrong shaded boxes");
+        assertEquals(5, changes.getShaded().get(0).getCenter(0), 1e-9, "Wrong shaded box");
+
+        // TC03: edited light changes the whole scene
+        light.setKl(0.1);
+        assertTrue(scene.compile().changesSince(current).isGlobal(), "Light change is not global");
+
+        // TC04: changes in a scene with a reflective material are global
+        current = scene.compile();
+        edited.setMaterial(new Material().setKr(0.5));
+        assertTrue(scene.compile().changesSince(current).isGlobal(), "Reflective change is not global");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: no previous snapshot
+        assertTrue(current.changesSince(null).isGlobal(), "First snapshot is not global");
+
+        // TC12: unbounded geometry
+        edited.setMaterial(new Material());
+        Plane plane = new Plane(new Point3D(0, -1, 0), new Vector(0, 1, 0));
+        scene._geometries.add(plane);
+        current = scene.compile();
+        plane.translate(new Vector(0, -1, 0));
+        assertTrue(scene.compile().changesSince(current).isGlobal(), "Unbounded change is not global");
+    }
+
+    /**
+     * Test method for {@link scene.CompiledScene#update(scene.Scene)}.
+     */
+    @Test
+    void update() {
+        Scene scene = new Scene("Test scene");
+        Sphere sphere = new Sphere(1, new Point3D(0, 0, -10));
+        scene._geometries.add(new Geometries(sphere));
+        scene._lights.add(new PointLight(new Color(100, 100, 100), new Point3D(0, 10, 0)));
+        CompiledScene compiled = scene.compile();
+        Ray ray = new Ray(new Point3D(5, 0, 0), new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: moved geometry - the hierarchy is refitted to its new position
+        sphere.translate(new Vector(5, 0, 0));
+        assertTrue(compiled.update(scene), "Moved scene was not updated");
+        assertEquals(2, compiled.getGeometries().findGeoIntersections(ray).size(), "Hierarchy was not refitted");
+        assertTrue(scene.compile().changesSince(compiled).isEmpty(), "Updated snapshot is not up to date");
+
+        // TC02: edited material - the scene must be compiled again
+        sphere.getMaterial().setKd(0.3);
+        assertFalse(compiled.update(scene), "Edited material was updated");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: added geometry
+        compiled = scene.compile();
+        scene._geometries.add(new Sphere(1, new Point3D(0, 5, -10)));
+        assertFalse(compiled.update(scene), "Added geometry was updated");
+    }
+}
@@ -0,0 +1,95 @@
+package scene;
+
+import elements.LightSource;
+import elements.PointLight;
+import elements.SpotLight;
+import geometries.Sphere;
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point3D;
+import primitives.Vector;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing LightTree
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+class LightTreeTest {
+
+    /**
+     * Test method for {@link scene.LightTree#findLights(primitives.Point3D, elements.LightSource[])}.
+     */
+    @Test
+    void findLights() {
+        //a row of attenuating lights along the x axis with influence radius 100
+        //(255/(1+0.0001*d^2)=0.255 at d=~100)
+        LightSource[] lights = new LightSource[21];
+        for (int i = 0; i < 20; ++i) {
+            lights[i] = new PointLight(new Color(255, 0, 0), new Point3D(i * 1000, 0, 0)).setKq(0.1);
+        }
+        lights[20] = new PointLight(new Color(100, 100, 100), new Point3D(0, 0, 0));
+        LightTree tree = new LightTree(lights);
+        double radius = lights[0].getInfluenceRadius(LightTree.MIN_INTENSITY);
+        List<LightSource> result;
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: point near a light is influenced only by it and by the non attenuating light
+        result = findLights(tree, new Point3D(5000, 50, 0));
+        assertEquals(List.of(lights[5], lights[20]), result, "Wrong lights");
+
+        // TC02: point far from all the attenuating lights
+        result = findLights(tree, new Point3D(5500, 0, 0));
+        assertEquals(List.of(lights[20]), result, "Wrong lights");
+
+        // TC03: spot light influences only the half space in front of it
+        LightTree spot = new LightTree(new LightSource[]{
+                new SpotLight(new Color(255, 0, 0), new Point3D(0, 0, 0), new Vector(1, 0, 0)).setKq(0.1)});
+        assertEquals(1, findLights(spot, new Point3D(50, 0, 0)).size(), "Point in front of the spot is not lit");
+        assertEquals(0, findLights(spot, new Point3D(-50, 0, 0)).size(), "Point behind the spot is lit");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: points just inside and just outside the influence radius
+        assertEquals(2, findLights(tree, new Point3D(radius - 0.01, 0, 0)).size(), "Wrong lights inside the radius");
+        assertEquals(1, findLights(tree, new Point3D(radius + 0.01, 0, 0)).size(), "Wrong lights outside the radius");
+
+        // TC12: light weaker than the threshold everywhere is left out
+        LightTree weak = new LightTree(new LightSource[]{
+                new PointLight(new Color(0.1, 0.1, 0.1), new Point3D(0, 0, 0)).setKl(1)});
+        assertEquals(1, weak.getCulledCount(), "Weak light is not culled");
+        assertEquals(0, findLights(weak, Point3D.ZERO).size(), "Weak light is found");
+
+        // TC13: materials reflecting more than the light's intensity (kd+ks>1) widen the regions
+        Scene scene = new Scene("Bright materials");
+        scene._geometries.add(new Sphere(1, new Point3D(0, 0, -1000))
+                .setMaterial(new Material().setKd(1.5).setKs(0.5)));
+        scene._lights.add(lights[0]);
+        LightTree bright = new CompiledScene(scene).getLightTree();
+        double brightRadius = lights[0].getInfluenceRadius(LightTree.MIN_INTENSITY / 2);
+        assertTrue(brightRadius > radius + 0.02, "Region is not wider");
+        assertEquals(1, findLights(bright, new Point3D(radius + 0.01, 0, 0)).size(),
+                "Light of a bright material is left out");
+        assertEquals(0, findLights(bright, new Point3D(brightRadius + 0.01, 0, 0)).size(),
+                "Wrong lights outside the wider radius");
+    }
+
+    /**
+     * find the lights that may contribute to a point
+     *
+     * @param tree  the light tree
+     * @param point the point
+     * @return the lights, in their order in the scene
+     */
+    private static List<LightSource> findLights(LightTree tree, Point3D point) {
+        LightSource[] lights = new LightSource[tree.size()];
+        return List.of(Arrays.copyOf(lights, tree.findLights(point, lights)));
+    }
+}
@@ -0,0 +1,68 @@
+package elements;
+
+import primitives.Color;
+import primitives.Point3D;
+import primitives.Vector;
+
+import static primitives.Util.isZero;
+
+/**
+ * AreaLight represents a flat light source with an area, emitting light in front of it.
+ * its intensity is calculated as a spot light at its center, while its shadows
+ * are soft - shadow rays are sent to sample points spread on its surface
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public abstract class AreaLight extends SpotLight {
+    /**
+     * normalized vectors on the light's surface, orthogonal to each other and to the direction
+     */
+    protected final Vector _right, _up;
+
+    /**
+     * AreaLight constructor
+     * @param intensity color's light intensity
+     * @param position center of the light's surface
+     * @param direction direction the light is facing (normal to the surface)
+     * @param right vector on the light's surface (orthogonal to the direction)
+     */
+    protected AreaLight(Color intensity, Point3D position, Vector direction, Vector right) {
+        super(intensity, position, direction);
+        if (!isZero(direction.dotProduct(right)))// if direction and right are not orthogonal throw exception
+            throw new IllegalArgumentException("The vectors need to be orthogonal");
+        _right = right.normalized();
+        _up = getDirection().crossProduct(_right).normalize();
+    }
+
+    /**
+     * get a point on the light's surface by its coordinates in a unit square
+     * mapped onto the surface. the corners and edges of the square are mapped
+     * to the edges of the surface
+     * @param s coordinate in the right direction, in range [0,1]
+     * @param t coordinate in the up direction, in range [0,1]
+     * @return point on the light's surface
+     */
+    public abstract Point3D getPoint(double s, double t);
+
+    /**
+     * get the corners of a rectangle on the light's plane bounding its surface
+     * @return the four corners
+     */
+    public abstract Point3D[] getCorners();
+
+    /**
+     * get a point on the light's plane by its offsets from the center
+     * @param right offset in the right direction
+     * @param up offset in the up direction
+     * @return point on the light's plane
+     */
+    protected Point3D offset(double right, double up) {
+        Point3D center = getPosition();
+        Point3D r = _right.getHead();
+        Point3D u = _up.getHead();
+        return new Point3D(center.getX() + r.getX() * right + u.getX() * up,
+                center.getY() + r.getY() * right + u.getY() * up,
+                center.getZ() + r.getZ() * right + u.getZ() * up);
+    }
+}
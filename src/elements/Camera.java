@@ -49,6 +49,54 @@ public class Camera {
      */
     private double _distance;
 
+    /**
+     * pixel grid of the view plane precomputed for the last used resolution
+     * (null until rays are constructed, reset when the view plane changes)
+     */
+    private volatile PixelGrid _grid;
+
+    /**
+     * PixelGrid is an internal helper class holding the basis of the view plane's
+     * pixel grid for a specific resolution: the direction from p0 to the center of
+     * pixel (0,0) and the steps between neighbouring pixels in the grid.
+     * the direction to the center of pixel (i,j) is dir00 + j*stepRight + i*stepDown
+     */
+    private static class PixelGrid {
+        private final int _nX, _nY;
+        private final double _dir00X, _dir00Y, _dir00Z;
+        private final double _rightX, _rightY, _rightZ;
+        private final double _downX, _downY, _downZ;
+
+        /**
+         * PixelGrid constructor
+         * @param camera the camera the grid belongs to
+         * @param nX view plane's pixels number in x axis (columns)
+         * @param nY view plane's pixels number in Y axis (rows)
+         */
+        private PixelGrid(Camera camera, int nX, int nY) {
+            _nX = nX;
+            _nY = nY;
+            //size of the pixels in y axis and x axis
+            double Ry = camera._height / nY;
+            double Rx = camera._width / nX;
+            //distances from pc to the center of pixel (0,0)
+            double Y0 = (nY - 1) / 2d * Ry;
+            double X0 = -(nX - 1) / 2d * Rx;
+            Point3D to = camera._vTo.getHead();
+            Point3D up = camera._vUp.getHead();
+            Point3D right = camera._vRight.getHead();
+            _dir00X = to.getX() * camera._distance + right.getX() * X0 + up.getX() * Y0;
+            _dir00Y = to.getY() * camera._distance + right.getY() * X0 + up.getY() * Y0;
+            _dir00Z = to.getZ() * camera._distance + right.getZ() * X0 + up.getZ() * Y0;
+            _rightX = right.getX() * Rx;
+            _rightY = right.getY() * Rx;
+            _rightZ = right.getZ() * Rx;
+            _downX = -up.getX() * Ry;
+            _downY = -up.getY() * Ry;
+            _downZ = -up.getZ() * Ry;
+        }
+    }
+
     /**
      * Camera constructor
      * @param p0 location of the camera
@@ -98,6 +146,30 @@ public class Camera {
         return _vRight;
     }
 
+    /**
+     * view plane width getter
+     * @return width of the view plane
+     */
+    public double get_width() {
+        return _width;
+    }
+
+    /**
+     * view plane height getter
+     * @return height of the view plane
+     */
+    public double get_height() {
+        return _height;
+    }
+
+    /**
+     * distance getter
+     * @return distance from the camera to the view plane
+     */
+    public double get_distance() {
+        return _distance;
+    }
+
     /**
      * setter to the view plane width and length (chaining method)
      * @param width width of the view plane
@@ -108,6 +180,7 @@ public class Camera {
 
         _width=width;
         _height=height;
+        _grid=null;//the pixel grid has changed
         return this;
     }
 
@@ -119,6 +192,7 @@ public class Camera {
     public Camera setDistance(double distance){
 
         _distance=distance;
+        _grid=null;//the pixel grid has changed
         return this;
     }
 
@@ -132,30 +206,149 @@ public class Camera {
      */
     public Ray constructRayThroughPixel(int nX, int nY, int j, int i){
 
-        Point3D pc=_p0.add(_vTo.scale(_distance)); //Pc=P0+d*Vto Pc is the center point of the view plane
+        PixelGrid grid = pixelGrid(nX, nY);
+
+        //vector from p0 to the center of pixel[i,j]: Vij=dir00+j*right+i*down
+        Vector Vij = new Vector(grid._dir00X + j * grid._rightX + i * grid._downX,
+                grid._dir00Y + j * grid._rightY + i * grid._downY,
+                grid._dir00Z + j * grid._rightZ + i * grid._downZ);
+
+        return new Ray(_p0,Vij);//ray that starts at p0 and go through the center of pixel[i,j]
+
+    }
 
-        //size of the pixels in y axis and x axis
-        double Ry=_height/nY;
-        double Rx=_width/nX;
+    /**
+     * find ray that starts at p0 and go through a point inside specific pixel in the view plane
+     * @param nX view plane's pixels number in x axis (columns)
+     * @param nY view plane's pixels number in Y axis (rows)
+     * @param j pixel's column index
+     * @param i pixel's row index
+     * @param x position of the point across the pixel, in range [0,1] (0.5 is the center)
+     * @param y position of the point down the pixel, in range [0,1] (0.5 is the center)
+     * @return reference to Ray representing a ray that starts at p0 go through the point in the pixel
+     */
+    public Ray constructRayThroughPixel(int nX, int nY, int j, int i, double x, double y){
 
-        //Center of the P[i,j] pixel
-        Point3D Pij=pc; //for case that pc is exactly Pij
-        double Yi = -(i - (nY-1) / 2d) * Ry;//distance from pc to the center of p[i,j] in y axis
-        double Xj = (j - (nX-1) / 2d) * Rx;//distance from pc to the center of p[i,j] in x axis
+        PixelGrid grid = pixelGrid(nX, nY);
+        double right = j + x - 0.5;
+        double down = i + y - 0.5;
 
-        if (!isZero(Xj)) {//if p[i,j] is not in the same row of pc change P[i,j] x coordinate
-            Pij = Pij.add(_vRight.scale(Xj));
+        //vector from p0 to the point in pixel[i,j]: V=dir00+(j+x-0.5)*right+(i+y-0.5)*down
+        Vector v = new Vector(grid._dir00X + right * grid._rightX + down * grid._downX,
+                grid._dir00Y + right * grid._rightY + down * grid._downY,
+                grid._dir00Z + right * grid._rightZ + down * grid._downZ);
+
+        return new Ray(_p0,v);
+
+    }
+
+    /**
+     * fill the rays that start at p0 and go through the centers of a rectangular tile of pixels
+     * into primitive arrays (x,y,z triplets, tile's pixels ordered row by row)
+     * @param nX view plane's pixels number in x axis (columns)
+     * @param nY view plane's pixels number in Y axis (rows)
+     * @param col tile's first column index
+     * @param row tile's first row index
+     * @param width amount of columns in the tile
+     * @param height amount of rows in the tile
+     * @param origins output - rays' starting points (at least 3*width*height values)
+     * @param directions output - rays' normalized directions (at least 3*width*height values)
+     */
+    public void constructRaysThroughTile(int nX, int nY, int col, int row, int width, int height,
+                                         double[] origins, double[] directions){
+        constructRaysThroughTile(nX, nY, col, row, width, height, 0.5, 0.5, origins, directions);
+    }
+
+    /**
+     * fill the rays that start at p0 and go through the same point inside each pixel of a
+     * rectangular tile into primitive arrays (x,y,z triplets, tile's pixels ordered row by row).
+     * the directions are the same as the ones of {@link #constructRayThroughPixel(int, int, int, int, double, double)}
+     * @param nX view plane's pixels number in x axis (columns)
+     * @param nY view plane's pixels number in Y axis (rows)
+     * @param col tile's first column index
+     * @param row tile's first row index
+     * @param width amount of columns in the tile
+     * @param height amount of rows in the tile
+     * @param x position of the point across the pixels, in range [0,1] (0.5 is the center)
+     * @param y position of the point down the pixels, in range [0,1] (0.5 is the center)
+     * @param origins output - rays' starting points (at least 3*width*height values)
+     * @param directions output - rays' normalized directions (at least 3*width*height values)
+     */
+    public void constructRaysThroughTile(int nX, int nY, int col, int row, int width, int height,
+                                         double x, double y, double[] origins, double[] directions){
+        PixelGrid grid = pixelGrid(nX, nY);
+        double p0X = _p0.getX(), p0Y = _p0.getY(), p0Z = _p0.getZ();
+        int k = 0;
+        for (int i = row; i < row + height; ++i) {
+            double down = i + y - 0.5;
+            for (int j = col; j < col + width; ++j, k += 3) {
+                double right = j + x - 0.5;
+                //V=dir00+(j+x-0.5)*right+(i+y-0.5)*down
+                double vX = grid._dir00X + right * grid._rightX + down * grid._downX;
+                double vY = grid._dir00Y + right * grid._rightY + down * grid._downY;
+                double vZ = grid._dir00Z + right * grid._rightZ + down * grid._downZ;
+                double length = Math.sqrt(vX * vX + vY * vY + vZ * vZ);
+                origins[k] = p0X;
+                origins[k + 1] = p0Y;
+                origins[k + 2] = p0Z;
+                directions[k] = vX / length;
+                directions[k + 1] = vY / length;
+                directions[k + 2] = vZ / length;
+            }
         }
+    }
 
-        if (!isZero(Yi)) {//if p[i,j] is not in the same column of pc change P[i,j] x coordinate
-            Pij = Pij.add(_vUp.scale(Yi));
+    /**
+     * get the pixel grid of a resolution, computing it only when the resolution
+     * or the view plane has changed since the last call
+     * @param nX view plane's pixels number in x axis (columns)
+     * @param nY view plane's pixels number in Y axis (rows)
+     * @return the pixel grid
+     */
+    private PixelGrid pixelGrid(int nX, int nY) {
+        PixelGrid grid = _grid;
+        if (grid == null || grid._nX != nX || grid._nY != nY) {
+            grid = new PixelGrid(this, nX, nY);
+            _grid = grid;
         }
+        return grid;
+    }
 
-        Vector Vij=Pij.subtract(_p0);//vector from p0 to pij
 
-        return new Ray(_p0,Vij);//ray that starts at p0 and go through the center of pixel[i,j]
+    /**
+     * find the position in the view plane's pixels that a direction from p0 goes through
+     * (the inverse of constructRayThroughPixel - the center of pixel[i,j] is at (j,i))
+     * @param nX view plane's pixels number in x axis (columns)
+     * @param nY view plane's pixels number in Y axis (rows)
+     * @param x x component of the direction
+     * @param y y component of the direction
+     * @param z z component of the direction
+     * @return column and row of the position, or null if the direction does not go towards the view plane
+     */
+    public double[] projectDirection(int nX, int nY, double x, double y, double z) {
+        Point3D to = _vTo.getHead();
+        double forward = x * to.getX() + y * to.getY() + z * to.getZ();
+        if (forward <= 0)
+            return null;
+        //scale the direction to reach the view plane
+        double scale = _distance / forward;
+        Point3D right = _vRight.getHead();
+        Point3D up = _vUp.getHead();
+        double across = (x * right.getX() + y * right.getY() + z * right.getZ()) * scale;
+        double down = -(x * up.getX() + y * up.getY() + z * up.getZ()) * scale;
+        return new double[]{across / (_width / nX) + (nX - 1) / 2d, down / (_height / nY) + (nY - 1) / 2d};
+    }
 
+    /**
+     * find the position in the view plane's pixels that a point is seen through
+     * @param nX view plane's pixels number in x axis (columns)
+     * @param nY view plane's pixels number in Y axis (rows)
+     * @param point the point
+     * @return column and row of the position, or null if the point is not in front of the camera
+     */
+    public double[] projectPoint(int nX, int nY, Point3D point) {
+        return projectDirection(nX, nY, point.getX() - _p0.getX(), point.getY() - _p0.getY(),
+                point.getZ() - _p0.getZ());
     }
 
 }
-
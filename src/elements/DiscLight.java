@@ -0,0 +1,80 @@
+package elements;
+
+import primitives.Color;
+import primitives.Point3D;
+import primitives.Vector;
+
+/**
+ * DiscLight represents a round area light source
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public class DiscLight extends AreaLight {
+    /**
+     * radius of the disc
+     */
+    private final double _radius;
+
+    /**
+     * DiscLight constructor
+     * @param intensity color's light intensity
+     * @param position center of the disc
+     * @param direction direction the light is facing (normal to the disc)
+     * @param radius radius of the disc
+     */
+    public DiscLight(Color intensity, Point3D position, Vector direction, double radius) {
+        super(intensity, position, direction, orthogonal(direction));
+        if (radius <= 0)
+            throw new IllegalArgumentException("Disc radius must be positive");
+        _radius = radius;
+    }
+
+    /**
+     * find a vector orthogonal to a vector
+     * @param vector the vector
+     * @return vector orthogonal to it
+     */
+    private static Vector orthogonal(Vector vector) {
+        Point3D head = vector.getHead();
+        //cross product with the axis least parallel to the vector
+        return Math.abs(head.getX()) < Math.abs(head.getY())
+                ? vector.crossProduct(new Vector(1, 0, 0))
+                : vector.crossProduct(new Vector(0, 1, 0));
+    }
+
+    /**
+     * get a point on the disc - the unit square is mapped onto the disc by the
+     * concentric mapping, which keeps neighbouring points near each other
+     * (the square's corners are mapped to the disc's rim)
+     * @param s coordinate in the right direction, in range [0,1]
+     * @param t coordinate in the up direction, in range [0,1]
+     * @return point on the disc
+     */
+    @Override
+    public Point3D getPoint(double s, double t) {
+        double a = 2 * s - 1, b = 2 * t - 1;
+        if (a == 0 && b == 0) {
+            return getPosition();
+        }
+        double r, phi;
+        if (Math.abs(a) > Math.abs(b)) {
+            r = a;
+            phi = Math.PI / 4 * (b / a);
+        } else {
+            r = b;
+            phi = Math.PI / 2 - Math.PI / 4 * (a / b);
+        }
+        return offset(r * _radius * Math.cos(phi), r * _radius * Math.sin(phi));
+    }
+
+    /**
+     * get the corners of the square bounding the disc
+     * @return the four corners
+     */
+    @Override
+    public Point3D[] getCorners() {
+        return new Point3D[]{offset(-_radius, -_radius), offset(_radius, -_radius),
+                offset(_radius, _radius), offset(-_radius, _radius)};
+    }
+}
@@ -10,7 +10,7 @@ import primitives.Color;
  * @author Reuven Klein
  * @author Lior Peretz
  */
-abstract class Light {
+public abstract class Light {
     /**
      * color's intensity of the light
      */
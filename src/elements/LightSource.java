@@ -31,4 +31,25 @@ public interface LightSource {
 
 
     double getDistance(Point3D point);
+
+    /**
+     * get the radius of the light source's influence - the distance from the light
+     * beyond which its intensity (largest color component) is below a threshold.
+     * contains default implementation for lights that do not attenuate
+     * @param threshold minimal considered intensity
+     * @return the influence radius (infinity if the light does not attenuate)
+     */
+    default double getInfluenceRadius(double threshold) {
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * get the version of the light source, changed by every change of its properties
+     * (used to track changes of the scene). contains default implementation for
+     * lights that can't be changed
+     * @return version of the light source
+     */
+    default int getVersion() {
+        return 0;
+    }
 }
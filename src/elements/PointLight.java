@@ -29,6 +29,10 @@ public class PointLight extends Light implements LightSource{
      * quadratic attenuation coefficients
      */
     private double _Kq=0;
+    /**
+     * amount of changes of the attenuation factors
+     */
+    private int _version=0;
 
     /**
      * PointLight constructor
@@ -75,19 +79,53 @@ public class PointLight extends Light implements LightSource{
         return point.distance(_position);
     }
 
+    /**
+     * the distance in which the attenuated intensity drops to the threshold -
+     * the positive root of kq*d^2+kl*d+kc=I0/threshold
+     * @param threshold minimal considered intensity
+     * @return the influence radius (infinity if the light does not attenuate)
+     */
+    @Override
+    public double getInfluenceRadius(double threshold) {
+        double c = _Kc - _intensity.maxComponent() / threshold;
+        if (c >= 0) {//the light is weaker than the threshold even at its position
+            return 0;
+        }
+        if (_Kq > 0) {
+            return (-_Kl + Math.sqrt(_Kl * _Kl - 4 * _Kq * c)) / (2 * _Kq);
+        }
+        return _Kl > 0 ? -c / _Kl : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * position getter
+     * @return point light location
+     */
+    public Point3D getPosition() {
+        return _position;
+    }
+
+    @Override
+    public int getVersion() {
+        return _version;
+    }
+
     //chaining setters methods
     public PointLight setKc(double kc) {
         _Kc = kc;
+        ++_version;
         return this;
     }
 
     public PointLight setKl(double kl) {
         _Kl = kl;
+        ++_version;
         return this;
     }
 
     public PointLight setKq(double kq) {
         _Kq = kq;
+        ++_version;
         return this;
     }
 }
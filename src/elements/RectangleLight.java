@@ -0,0 +1,55 @@
+package elements;
+
+import primitives.Color;
+import primitives.Point3D;
+import primitives.Vector;
+
+/**
+ * RectangleLight represents a rectangular area light source
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public class RectangleLight extends AreaLight {
+    /**
+     * size of the rectangle
+     */
+    private final double _width, _height;
+
+    /**
+     * RectangleLight constructor
+     * @param intensity color's light intensity
+     * @param position center of the rectangle
+     * @param direction direction the light is facing (normal to the rectangle)
+     * @param right direction of the rectangle's width (orthogonal to the direction)
+     * @param width width of the rectangle
+     * @param height height of the rectangle
+     */
+    public RectangleLight(Color intensity, Point3D position, Vector direction, Vector right, double width, double height) {
+        super(intensity, position, direction, right);
+        if (width <= 0 || height <= 0)
+            throw new IllegalArgumentException("Rectangle size must be positive");
+        _width = width;
+        _height = height;
+    }
+
+    /**
+     * get a point on the rectangle - the unit square is stretched over the rectangle
+     * @param s coordinate in the right direction, in range [0,1]
+     * @param t coordinate in the up direction, in range [0,1]
+     * @return point on the rectangle
+     */
+    @Override
+    public Point3D getPoint(double s, double t) {
+        return offset((s - 0.5) * _width, (t - 0.5) * _height);
+    }
+
+    /**
+     * get the corners of the rectangle
+     * @return the four corners
+     */
+    @Override
+    public Point3D[] getCorners() {
+        return new Point3D[]{getPoint(0, 0), getPoint(1, 0), getPoint(1, 1), getPoint(0, 1)};
+    }
+}
@@ -44,5 +44,13 @@ public class SpotLight extends PointLight{
         return intensity.scale(Math.max(0,dirDotL));
     }
 
+    /**
+     * direction getter
+     * @return normalized spotLight direction vector
+     */
+    public Vector getDirection() {
+        return _direction;
+    }
+
 
 }
@@ -0,0 +1,209 @@
+package geometries;
+
+import primitives.Point3D;
+import primitives.Ray;
+
+/**
+ * BoundingBox class represents an axis aligned box that bounds
+ * one or more geometries. used by the bounding volume hierarchy
+ * to skip geometries that a ray cannot hit
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public class BoundingBox {
+    /**
+     * box's minimum and maximum coordinates, intentionally "package-friendly"
+     * due to performance constraints
+     */
+    final double _minX, _minY, _minZ;
+    final double _maxX, _maxY, _maxZ;
+
+    /**
+     * BoundingBox constructor receiving the minimal and maximal corners
+     *
+     * @param min corner with the minimal coordinates
+     * @param max corner with the maximal coordinates
+     */
+    public BoundingBox(Point3D min, Point3D max) {
+        this(min.getX(), min.getY(), min.getZ(), max.getX(), max.getY(), max.getZ());
+    }
+
+    /**
+     * BoundingBox constructor receiving the box's coordinates
+     *
+     * @param minX minimal x coordinate
+     * @param minY minimal y coordinate
+     * @param minZ minimal z coordinate
+     * @param maxX maximal x coordinate
+     * @param maxY maximal y coordinate
+     * @param maxZ maximal z coordinate
+     */
+    public BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        if (minX > maxX || minY > maxY || minZ > maxZ)
+            throw new IllegalArgumentException("Box minimum corner must not exceed the maximum corner");
+        _minX = minX;
+        _minY = minY;
+        _minZ = minZ;
+        _maxX = maxX;
+        _maxY = maxY;
+        _maxZ = maxZ;
+    }
+
+    /**
+     * create the smallest box that contains all the given points
+     *
+     * @param points one or more points
+     * @return box bounding the points
+     */
+    public static BoundingBox of(Point3D... points) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (Point3D p : points) {
+            minX = Math.min(minX, p.getX());
+            minY = Math.min(minY, p.getY());
+            minZ = Math.min(minZ, p.getZ());
+            maxX = Math.max(maxX, p.getX());
+            maxY = Math.max(maxY, p.getY());
+            maxZ = Math.max(maxZ, p.getZ());
+        }
+        return new BoundingBox(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * union between two boxes
+     *
+     * @param other another box
+     * @return the smallest box that contains both boxes
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(Math.min(_minX, other._minX), Math.min(_minY, other._minY), Math.min(_minZ, other._minZ),
+                Math.max(_maxX, other._maxX), Math.max(_maxY, other._maxY), Math.max(_maxZ, other._maxZ));
+    }
+
+    /**
+     * surface area of the box, used to estimate the probability
+     * that a random ray hits it
+     *
+     * @return box's surface area
+     */
+    public double surfaceArea() {
+        double dx = _maxX - _minX;
+        double dy = _maxY - _minY;
+        double dz = _maxZ - _minZ;
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * center of the box in a specific axis
+     *
+     * @param axis 0 for x, 1 for y and 2 for z
+     * @return box's center coordinate in the axis
+     */
+    public double getCenter(int axis) {
+        switch (axis) {
+            case 0:
+                return (_minX + _maxX) / 2;
+            case 1:
+                return (_minY + _maxY) / 2;
+            default:
+                return (_minZ + _maxZ) / 2;
+        }
+    }
+
+    /**
+     * minimal corner getter
+     *
+     * @return the corner with the minimal coordinates
+     */
+    public Point3D getMin() {
+        return new Point3D(_minX, _minY, _minZ);
+    }
+
+    /**
+     * maximal corner getter
+     *
+     * @return the corner with the maximal coordinates
+     */
+    public Point3D getMax() {
+        return new Point3D(_maxX, _maxY, _maxZ);
+    }
+
+    /**
+     * check if a point is inside the box (or on its surface)
+     *
+     * @param point point in space
+     * @return true if the point is inside the box
+     */
+    public boolean contains(Point3D point) {
+        double x = point.getX(), y = point.getY(), z = point.getZ();
+        return x >= _minX && x <= _maxX && y >= _minY && y <= _maxY && z >= _minZ && z <= _maxZ;
+    }
+
+    /**
+     * check if a ray hits the box in a limited maximum distance from ray starting point
+     *
+     * @param ray         ray in 3d space
+     * @param maxDistance maximum distance limit
+     * @return true if the ray hits the box
+     */
+    public boolean intersects(Ray ray, double maxDistance) {
+        Point3D p0 = ray.getP0();
+        Point3D dir = ray.getDir().getHead();
+        return intersects(p0.getX(), p0.getY(), p0.getZ(),
+                1 / dir.getX(), 1 / dir.getY(), 1 / dir.getZ(), maxDistance);
+    }
+
+    /**
+     * check if a ray hits the box using the slabs method
+     * <p>
+     * Mathematical principle:
+     * the box is the intersection of three slabs (pair of parallel planes).
+     * for each slab calculate the distances in which the ray enters and leaves it,
+     * the ray hits the box if the latest entrance is before the earliest exit
+     *
+     * @param ox          x coordinate of the ray's starting point
+     * @param oy          y coordinate of the ray's starting point
+     * @param oz          z coordinate of the ray's starting point
+     * @param invX        1 / x coordinate of the ray's direction
+     * @param invY        1 / y coordinate of the ray's direction
+     * @param invZ        1 / z coordinate of the ray's direction
+     * @param maxDistance maximum distance limit
+     * @return true if the ray hits the box
+     */
+    public boolean intersects(double ox, double oy, double oz,
+                              double invX, double invY, double invZ, double maxDistance) {
+        double tNear = 0;
+        double tFar = maxDistance;
+
+        double t1 = (_minX - ox) * invX;
+        double t2 = (_maxX - ox) * invX;
+        //comparisons (instead of Math.min/max) ignore NaN of rays parallel to the slab
+        if (t1 > t2) { double tmp = t1; t1 = t2; t2 = tmp; }
+        tNear = t1 > tNear ? t1 : tNear;
+        tFar = t2 < tFar ? t2 : tFar;
+        if (tNear > tFar) return false;
+
+        t1 = (_minY - oy) * invY;
+        t2 = (_maxY - oy) * invY;
+        if (t1 > t2) { double tmp = t1; t1 = t2; t2 = tmp; }
+        tNear = t1 > tNear ? t1 : tNear;
+        tFar = t2 < tFar ? t2 : tFar;
+        if (tNear > tFar) return false;
+
+        t1 = (_minZ - oz) * invZ;
+        t2 = (_maxZ - oz) * invZ;
+        if (t1 > t2) { double tmp = t1; t1 = t2; t2 = tmp; }
+        tNear = t1 > tNear ? t1 : tNear;
+        tFar = t2 < tFar ? t2 : tFar;
+        return tNear <= tFar;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundingBox{" +
+                "min=(" + _minX + ", " + _minY + ", " + _minZ + ")" +
+                ", max=(" + _maxX + ", " + _maxY + ", " + _maxZ + ")" +
+                '}';
+    }
+}
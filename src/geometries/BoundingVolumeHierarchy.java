@@ -0,0 +1,637 @@
+package geometries;
+
+import primitives.Point3D;
+import primitives.Ray;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * BoundingVolumeHierarchy is a binary tree of bounding boxes over a collection
+ * of intersectables. a ray is tested against the geometries of a node only
+ * if it hits the node's box, so most of the scene is skipped for each ray.
+ * <p>
+ * the tree is built using the surface area heuristic (SAH). when geometries move
+ * (animated scenes) the tree can be refitted - the boxes are recalculated bottom-up
+ * without changing the tree's structure. when refits degrade the SAH cost of the tree
+ * too much the tree is rebuilt from scratch
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public class BoundingVolumeHierarchy implements Intersectable {
+    /**
+     * maximal amount of intersectables in a leaf
+     */
+    private static final int MAX_LEAF_SIZE = 4;
+    /**
+     * estimated cost of traversing a node (relative to intersection cost)
+     */
+    private static final double TRAVERSAL_COST = 1d;
+    /**
+     * estimated cost of intersecting a ray with a single intersectable
+     */
+    private static final double INTERSECTION_COST = 1d;
+    /**
+     * refitted tree is rebuilt when its cost exceeds the cost at build time by this factor
+     */
+    private static final double REBUILD_THRESHOLD = 1.5d;
+
+    /**
+     * Entry is an internal helper class linking
+     * an intersectable to its current bounding box
+     */
+    private static class Entry {
+        private final Intersectable _item;
+        private BoundingBox _box;
+
+        /**
+         * Entry constructor
+         *
+         * @param item bounded intersectable
+         * @param box  the intersectable's bounding box
+         */
+        private Entry(Intersectable item, BoundingBox box) {
+            _item = item;
+            _box = box;
+        }
+    }
+
+    /**
+     * Node is an internal helper class representing a node in the tree.
+     * a leaf holds a range of entries (and their batch), an inner node holds two children
+     */
+    private static class Node {
+        private BoundingBox _box;
+        private Node _left;
+        private Node _right;
+        private int _first;
+        private int _count;
+        private IntersectionBatch _batch;
+
+        /**
+         * check if the node is a leaf
+         *
+         * @return true if the node has no children
+         */
+        private boolean isLeaf() {
+            return _left == null;
+        }
+    }
+
+    /**
+     * bounded intersectables, ordered so each leaf's entries are contiguous
+     */
+    private final Entry[] _entries;
+    /**
+     * unbounded intersectables (e.g. planes), tested by every ray
+     */
+    private final List<Intersectable> _unbounded = new LinkedList<>();
+    /**
+     * root of the tree (null if there are no bounded intersectables)
+     */
+    private Node _root;
+    /**
+     * depth of the tree, used to size the traversal stack
+     */
+    private int _depth;
+    /**
+     * SAH cost of the tree when it was last built
+     */
+    private double _buildCost;
+    /**
+     * counter of the intersection tests (null if the tests are not counted)
+     */
+    private IntersectionCounter _counter;
+
+    /**
+     * BoundingVolumeHierarchy constructor. builds the tree over the intersectables
+     *
+     * @param intersectables collection of intersectables
+     */
+    public BoundingVolumeHierarchy(List<Intersectable> intersectables) {
+        List<Entry> bounded = new LinkedList<>();
+        for (Intersectable item : intersectables) {
+            BoundingBox box = item.getBoundingBox();
+            if (box == null) {
+                _unbounded.add(item);
+            } else {
+                bounded.add(new Entry(item, box));
+            }
+        }
+        _entries = bounded.toArray(new Entry[0]);
+        rebuild();
+    }
+
+    /**
+     * build the tree from scratch using the current bounding boxes of the intersectables
+     */
+    public void rebuild() {
+        for (Entry entry : _entries) {
+            entry._box = entry._item.getBoundingBox();
+        }
+        _depth = 0;
+        _root = _entries.length == 0 ? null : build(0, _entries.length, 1);
+        if (_root != null) {
+            createBatches(_root);
+        }
+        _buildCost = cost();
+    }
+
+    /**
+     * recalculate the boxes of the tree bottom-up after intersectables have moved,
+     * keeping the structure of the tree. takes linear time in the amount of intersectables.
+     * if the refitted tree's cost became too high compared to the cost when it
+     * was built, it is rebuilt
+     *
+     * @return true if the tree was rebuilt, false if refitting was enough
+     */
+    public boolean refit() {
+        if (_root == null) {
+            return false;
+        }
+        for (Entry entry : _entries) {
+            entry._box = entry._item.getBoundingBox();
+        }
+        refit(_root);
+        if (cost() > _buildCost * REBUILD_THRESHOLD) {
+            rebuild();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * estimated cost of tracing a ray through the tree according to
+     * the surface area heuristic: each node's cost is weighted by the probability
+     * of a ray hitting it (relative surface area to its parent)
+     *
+     * @return the SAH cost of the tree
+     */
+    public double cost() {
+        return _root == null ? 0 : cost(_root);
+    }
+
+    /**
+     * the box that bounds all the intersectables in the tree
+     *
+     * @return bounding box, or null if the tree contains unbounded intersectables
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        return _unbounded.isEmpty() && _root != null ? _root._box : null;
+    }
+
+    /**
+     * count the intersection tests done by the queries of the tree
+     *
+     * @param counter counter of the intersection tests, null to stop counting
+     */
+    public void setIntersectionCounter(IntersectionCounter counter) {
+        _counter = counter;
+    }
+
+    /**
+     * find intersections points of ray with the intersectables in the tree
+     * in a limited maximum distance from ray starting point.
+     * only the nodes whose box is hit by the ray are visited
+     *
+     * @param ray         ray in 3d space
+     * @param maxDistance maximum distance limit
+     * @return list of intersections points of the ray with the intersectables
+     */
+    @Override
+    public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance) {
+        List<GeoPoint> result = null;
+
+        for (Intersectable item : _unbounded) {
+            result = addIntersections(result, item.findGeoIntersections(ray, maxDistance));
+        }
+        if (_root == null) {
+            count(0, _unbounded.size());
+            return result;
+        }
+
+        Point3D p0 = ray.getP0();
+        Point3D dir = ray.getDir().getHead();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double invX = 1 / dir.getX(), invY = 1 / dir.getY(), invZ = 1 / dir.getZ();
+
+        //iterative traversal with explicit stack
+        Node[] stack = new Node[_depth + 1];
+        int top = 0;
+        stack[top++] = _root;
+        long boxTests = 0, geometryTests = _unbounded.size();
+        while (top > 0) {
+            Node node = stack[--top];
+            ++boxTests;
+            if (!node._box.intersects(ox, oy, oz, invX, invY, invZ, maxDistance)) {
+                continue;
+            }
+            if (node.isLeaf()) {
+                geometryTests += node._count;
+                result = node._batch.findGeoIntersections(ray, maxDistance, result);
+            } else {
+                stack[top++] = node._right;
+                stack[top++] = node._left;
+            }
+        }
+        count(boxTests, geometryTests);
+        return result;
+    }
+
+    /**
+     * add the tests done by a query to the counter, if the tests are counted
+     *
+     * @param boxTests      amount of ray-box tests
+     * @param geometryTests amount of ray-geometry tests
+     */
+    private void count(long boxTests, long geometryTests) {
+        IntersectionCounter counter = _counter;
+        if (counter != null) {
+            counter.count(boxTests, geometryTests);
+        }
+    }
+
+    /**
+     * add intersection points to the result list
+     *
+     * @param result        the result list (may be null if it was not initialized yet)
+     * @param intersections intersection points to add (may be null)
+     * @return the result list
+     */
+    private static List<GeoPoint> addIntersections(List<GeoPoint> result, List<GeoPoint> intersections) {
+        if (intersections != null) {
+            if (result == null) {//result was not initialized yet
+                result = new LinkedList<>();
+            }
+            result.addAll(intersections);
+        }
+        return result;
+    }
+
+    /**
+     * find the closest intersection of each ray in a packet of coherent rays
+     * (e.g. camera rays through neighbouring pixels). the packet traverses the tree
+     * together: a node is visited once for all the rays, the whole packet is culled
+     * when the box is missed by the interval bounds of the packet, and rays that
+     * already missed a node are not tested against the node's descendants
+     *
+     * @param rays packet of rays
+     * @return the closest intersection of each ray (null for rays with no intersections)
+     */
+    public GeoPoint[] findClosestIntersections(Ray[] rays) {
+        int n = rays.length;
+        GeoPoint[] closest = new GeoPoint[n];
+        double[] closestDistance = new double[n];
+        Arrays.fill(closestDistance, Double.POSITIVE_INFINITY);
+
+        for (Intersectable item : _unbounded) {
+            for (int i = 0; i < n; ++i) {
+                updateClosest(rays, i, item.findGeoIntersections(rays[i], closestDistance[i]), closest, closestDistance);
+            }
+        }
+        if (_root == null || n == 0) {
+            count(0, (long) _unbounded.size() * n);
+            return closest;
+        }
+
+        //rays' starting points and inverse directions
+        double[] ox = new double[n], oy = new double[n], oz = new double[n];
+        double[] dirX = new double[n], dirY = new double[n], dirZ = new double[n];
+        double[] invX = new double[n], invY = new double[n], invZ = new double[n];
+        for (int i = 0; i < n; ++i) {
+            Point3D p0 = rays[i].getP0();
+            Point3D dir = rays[i].getDir().getHead();
+            ox[i] = p0.getX();
+            oy[i] = p0.getY();
+            oz[i] = p0.getZ();
+            dirX[i] = dir.getX();
+            dirY[i] = dir.getY();
+            dirZ[i] = dir.getZ();
+            invX[i] = 1 / dirX[i];
+            invY[i] = 1 / dirY[i];
+            invZ[i] = 1 / dirZ[i];
+        }
+        PacketBounds packet = new PacketBounds(ox, oy, oz, invX, invY, invZ);
+
+        //iterative traversal with explicit stack of nodes and the first ray that may hit them
+        Node[] stack = new Node[_depth + 1];
+        int[] firstActiveStack = new int[_depth + 1];
+        int top = 0;
+        stack[top] = _root;
+        firstActiveStack[top++] = 0;
+        long boxTests = 0, geometryTests = (long) _unbounded.size() * n;
+        while (top > 0) {
+            Node node = stack[--top];
+            int firstActive = firstActiveStack[top];
+            ++boxTests;//the packet's interval test
+
+            //cull the whole packet using interval bounds of the packet
+            double packetDistance = 0;
+            for (int i = firstActive; i < n; ++i) {
+                packetDistance = Math.max(packetDistance, closestDistance[i]);
+            }
+            if (packet.misses(node._box, packetDistance)) {
+                continue;
+            }
+            //find the first ray in the packet that hits the node
+            int firstTested = firstActive;
+            while (firstActive < n && !node._box.intersects(ox[firstActive], oy[firstActive], oz[firstActive],
+                    invX[firstActive], invY[firstActive], invZ[firstActive], closestDistance[firstActive])) {
+                ++firstActive;
+            }
+            boxTests += Math.min(firstActive + 1, n) - firstTested;
+            if (firstActive == n) {
+                continue;
+            }
+
+            if (node.isLeaf()) {
+                for (int i = firstActive; i < n; ++i) {
+                    if (i != firstActive) {
+                        ++boxTests;
+                        if (!node._box.intersects(ox[i], oy[i], oz[i], invX[i], invY[i], invZ[i], closestDistance[i])) {
+                            continue;
+                        }
+                    }
+                    geometryTests += node._count;
+                    updateClosest(rays, i, node._batch.findGeoIntersections(rays[i], closestDistance[i], null),
+                            closest, closestDistance);
+                }
+            } else {
+                //visit first the child that is nearer along the first active ray's direction,
+                //so the closest distances shrink early and prune the farther child
+                double toRight = (node._right._box.getCenter(0) - node._left._box.getCenter(0)) * dirX[firstActive]
+                        + (node._right._box.getCenter(1) - node._left._box.getCenter(1)) * dirY[firstActive]
+                        + (node._right._box.getCenter(2) - node._left._box.getCenter(2)) * dirZ[firstActive];
+                Node near = toRight >= 0 ? node._left : node._right;
+                Node far = toRight >= 0 ? node._right : node._left;
+                stack[top] = far;
+                firstActiveStack[top++] = firstActive;
+                stack[top] = near;
+                firstActiveStack[top++] = firstActive;
+            }
+        }
+        count(boxTests, geometryTests);
+        return closest;
+    }
+
+    /**
+     * update the closest intersection of a ray in a packet
+     *
+     * @param rays            packet of rays
+     * @param i               index of the ray in the packet
+     * @param intersections   new intersections of the ray (may be null)
+     * @param closest         closest intersections of the packet's rays
+     * @param closestDistance distances of the closest intersections
+     */
+    private static void updateClosest(Ray[] rays, int i, List<GeoPoint> intersections,
+                                      GeoPoint[] closest, double[] closestDistance) {
+        if (intersections == null) {
+            return;
+        }
+        GeoPoint gp = rays[i].findClosestGeoPoint(intersections);
+        double distance = rays[i].getP0().distance(gp._point);
+        if (distance < closestDistance[i]) {
+            closestDistance[i] = distance;
+            closest[i] = gp;
+        }
+    }
+
+    /**
+     * PacketBounds is an internal helper class holding interval bounds
+     * of a packet of rays - the range of the starting points and the range of the
+     * inverse directions in each axis. used to cull a node for the whole packet
+     * with a single test (interval arithmetic version of the slabs method)
+     */
+    private static class PacketBounds {
+        private final double[] _minO = new double[3], _maxO = new double[3];
+        private final double[] _minInv = new double[3], _maxInv = new double[3];
+        /**
+         * true for axes where all the directions have the same sign
+         * (otherwise the axis can't bound the packet)
+         */
+        private final boolean[] _coherent = new boolean[3];
+
+        /**
+         * PacketBounds constructor
+         *
+         * @param ox   x coordinates of the rays' starting points
+         * @param oy   y coordinates of the rays' starting points
+         * @param oz   z coordinates of the rays' starting points
+         * @param invX inverse x coordinates of the rays' directions
+         * @param invY inverse y coordinates of the rays' directions
+         * @param invZ inverse z coordinates of the rays' directions
+         */
+        private PacketBounds(double[] ox, double[] oy, double[] oz, double[] invX, double[] invY, double[] invZ) {
+            double[][] o = {ox, oy, oz};
+            double[][] inv = {invX, invY, invZ};
+            for (int axis = 0; axis < 3; ++axis) {
+                _minO[axis] = _minInv[axis] = Double.POSITIVE_INFINITY;
+                _maxO[axis] = _maxInv[axis] = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < ox.length; ++i) {
+                    _minO[axis] = Math.min(_minO[axis], o[axis][i]);
+                    _maxO[axis] = Math.max(_maxO[axis], o[axis][i]);
+                    _minInv[axis] = Math.min(_minInv[axis], inv[axis][i]);
+                    _maxInv[axis] = Math.max(_maxInv[axis], inv[axis][i]);
+                }
+                _coherent[axis] = !Double.isInfinite(_minInv[axis]) && !Double.isInfinite(_maxInv[axis])
+                        && (_minInv[axis] > 0 || _maxInv[axis] < 0);
+            }
+        }
+
+        /**
+         * check if all the rays in the packet surely miss a box.
+         * for each coherent axis bound the entrance and exit distances of all rays,
+         * the packet misses if the latest lower bound of entrance is after
+         * the earliest upper bound of exit
+         *
+         * @param box         the tested box
+         * @param maxDistance maximum distance limit of all the rays
+         * @return true if no ray in the packet can hit the box
+         */
+        private boolean misses(BoundingBox box, double maxDistance) {
+            double[] boxMin = {box._minX, box._minY, box._minZ};
+            double[] boxMax = {box._maxX, box._maxY, box._maxZ};
+            double tNear = 0;
+            double tFar = maxDistance;
+            for (int axis = 0; axis < 3; ++axis) {
+                if (!_coherent[axis]) {
+                    continue;
+                }
+                boolean positive = _minInv[axis] > 0;
+                double nearPlane = positive ? boxMin[axis] : boxMax[axis];
+                double farPlane = positive ? boxMax[axis] : boxMin[axis];
+                tNear = Math.max(tNear, minProduct(nearPlane - _maxO[axis], nearPlane - _minO[axis],
+                        _minInv[axis], _maxInv[axis]));
+                tFar = Math.min(tFar, -minProduct(_maxO[axis] - farPlane, _minO[axis] - farPlane,
+                        _minInv[axis], _maxInv[axis]));
+            }
+            return tNear > tFar;
+        }
+
+        /**
+         * minimum of the product of two intervals
+         *
+         * @param a1 lower bound of the first interval
+         * @param a2 upper bound of the first interval
+         * @param b1 lower bound of the second interval
+         * @param b2 upper bound of the second interval
+         * @return the minimal product of values from the intervals
+         */
+        private static double minProduct(double a1, double a2, double b1, double b2) {
+            return Math.min(Math.min(a1 * b1, a1 * b2), Math.min(a2 * b1, a2 * b2));
+        }
+    }
+
+    /**
+     * build recursively a sub tree over a range of entries
+     *
+     * @param first index of the first entry in the range
+     * @param count amount of entries in the range
+     * @param depth depth of the built node
+     * @return root of the sub tree
+     */
+    private Node build(int first, int count, int depth) {
+        _depth = Math.max(_depth, depth);
+        Node node = new Node();
+        node._first = first;
+        node._count = count;
+        node._box = boundsOf(first, count);
+        if (count <= MAX_LEAF_SIZE) {
+            return node;
+        }
+
+        //split along the axis in which the centers of the boxes are most spread
+        int axis = largestCentersAxis(first, count);
+        Comparator<Entry> byCenter = Comparator.comparingDouble(e -> e._box.getCenter(axis));
+        Arrays.sort(_entries, first, first + count, byCenter);
+
+        //sweep the sorted entries and choose the split with the lowest SAH cost
+        double[] rightAreas = new double[count];
+        BoundingBox box = _entries[first + count - 1]._box;
+        for (int i = count - 1; i > 0; --i) {
+            box = box.union(_entries[first + i]._box);
+            rightAreas[i] = box.surfaceArea();
+        }
+        double parentArea = node._box.surfaceArea();
+        double bestCost = count * INTERSECTION_COST;//cost of keeping the node as a leaf
+        int bestSplit = -1;
+        box = _entries[first]._box;
+        for (int i = 1; i < count; ++i) {
+            double splitCost = TRAVERSAL_COST + INTERSECTION_COST
+                    * (box.surfaceArea() * i + rightAreas[i] * (count - i)) / parentArea;
+            if (splitCost < bestCost) {
+                bestCost = splitCost;
+                bestSplit = i;
+            }
+            box = box.union(_entries[first + i]._box);
+        }
+        if (bestSplit < 0 || parentArea == 0) {
+            //degenerated boxes - split in the middle to keep leaves small
+            if (parentArea != 0 && count <= MAX_LEAF_SIZE * 2) {
+                return node;
+            }
+            bestSplit = count / 2;
+        }
+
+        node._left = build(first, bestSplit, depth + 1);
+        node._right = build(first + bestSplit, count - bestSplit, depth + 1);
+        return node;
+    }
+
+    /**
+     * recalculate recursively the boxes of a sub tree
+     *
+     * @param node root of the sub tree
+     * @return the recalculated box of the node
+     */
+    private BoundingBox refit(Node node) {
+        if (node.isLeaf()) {
+            node._batch.update();
+            node._box = boundsOf(node._first, node._count);
+        } else {
+            node._box = refit(node._left).union(refit(node._right));
+        }
+        return node._box;
+    }
+
+    /**
+     * create recursively the intersection batches of the leaves of a sub tree
+     *
+     * @param node root of the sub tree
+     */
+    private void createBatches(Node node) {
+        if (node.isLeaf()) {
+            List<Intersectable> items = new LinkedList<>();
+            for (int i = node._first; i < node._first + node._count; ++i) {
+                items.add(_entries[i]._item);
+            }
+            node._batch = new IntersectionBatch(items);
+        } else {
+            createBatches(node._left);
+            createBatches(node._right);
+        }
+    }
+
+    /**
+     * calculate recursively the SAH cost of a sub tree
+     *
+     * @param node root of the sub tree
+     * @return the SAH cost of the sub tree
+     */
+    private double cost(Node node) {
+        if (node.isLeaf()) {
+            return node._count * INTERSECTION_COST;
+        }
+        double area = node._box.surfaceArea();
+        if (area == 0) {
+            return TRAVERSAL_COST + cost(node._left) + cost(node._right);
+        }
+        return TRAVERSAL_COST + (node._left._box.surfaceArea() * cost(node._left)
+                + node._right._box.surfaceArea() * cost(node._right)) / area;
+    }
+
+    /**
+     * calculate the box bounding a range of entries
+     *
+     * @param first index of the first entry in the range
+     * @param count amount of entries in the range
+     * @return the bounding box of the range
+     */
+    private BoundingBox boundsOf(int first, int count) {
+        BoundingBox box = _entries[first]._box;
+        for (int i = first + 1; i < first + count; ++i) {
+            box = box.union(_entries[i]._box);
+        }
+        return box;
+    }
+
+    /**
+     * find the axis in which the centers of a range of entries are most spread
+     *
+     * @param first index of the first entry in the range
+     * @param count amount of entries in the range
+     * @return 0 for x, 1 for y and 2 for z
+     */
+    private int largestCentersAxis(int first, int count) {
+        int bestAxis = 0;
+        double bestExtent = -1;
+        for (int axis = 0; axis < 3; ++axis) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = first; i < first + count; ++i) {
+                double center = _entries[i]._box.getCenter(axis);
+                min = Math.min(min, center);
+                max = Math.max(max, center);
+            }
+            if (max - min > bestExtent) {
+                bestExtent = max - min;
+                bestAxis = axis;
+            }
+        }
+        return bestAxis;
+    }
+}
@@ -68,6 +68,18 @@ public class Cylinder extends Tube {
 
     }
 
+    /**
+     * the cylinder is bounded by the box of its two bases centers,
+     * expanded by the radius in each axis
+     * @return cylinder's bounding box
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        BoundingBox axis = BoundingBox.of(_axisRay.getP0(), _axisRay.getPoint(_height));
+        return new BoundingBox(axis._minX - _radius, axis._minY - _radius, axis._minZ - _radius,
+                axis._maxX + _radius, axis._maxY + _radius, axis._maxZ + _radius);
+    }
+
     @Override
     public String toString() {
         return super.toString() + ",height=" + _height;
@@ -17,6 +17,10 @@ import java.util.List;
 public class Geometries implements Intersectable {
     //list of intersetable geometries
     private List<Intersectable> _intersectables;
+    //bounding volume hierarchy over the geometries (null if it was not built)
+    private BoundingVolumeHierarchy _hierarchy;
+    //counter of the intersection tests (null if the tests are not counted)
+    private IntersectionCounter _counter;
 
     /**
      * Geometries constructor. initialize new geometries collection
@@ -47,6 +51,100 @@ public class Geometries implements Intersectable {
         //}
 
         Collections.addAll(_intersectables, intersectables);
+        _hierarchy = null;//the hierarchy does not contain the new geometries
+    }
+
+    /**
+     * remove geometries from the collection (nested collections are not searched)
+     *
+     * @param intersectables list of geometries to remove from the collection
+     * @return true if any of the geometries was in the collection
+     */
+    public boolean remove(Intersectable... intersectables) {
+        boolean removed = false;
+        for (Intersectable item : intersectables) {
+            removed |= _intersectables.remove(item);
+        }
+        if (removed) {
+            _hierarchy = null;//the hierarchy contains the removed geometries
+        }
+        return removed;
+    }
+
+    /**
+     * intersectables getter
+     *
+     * @return unmodifiable list of the intersectables in the collection
+     */
+    public List<Intersectable> getIntersectables() {
+        return Collections.unmodifiableList(_intersectables);
+    }
+
+    /**
+     * build a bounding volume hierarchy over the geometries in the collection,
+     * used to accelerate finding intersections. must be built again after adding geometries
+     *
+     * @return current Geometries instance
+     */
+    public Geometries buildHierarchy() {
+        _hierarchy = new BoundingVolumeHierarchy(_intersectables);
+        _hierarchy.setIntersectionCounter(_counter);
+        return this;
+    }
+
+    /**
+     * count the intersection tests done when finding intersections with the collection
+     *
+     * @param counter counter of the intersection tests, null to stop counting
+     * @return current Geometries instance
+     */
+    public Geometries setIntersectionCounter(IntersectionCounter counter) {
+        _counter = counter;
+        if (_hierarchy != null) {
+            _hierarchy.setIntersectionCounter(counter);
+        }
+        return this;
+    }
+
+    /**
+     * refit the bounding volume hierarchy after geometries in the collection have moved
+     * (nested collections are refitted as well). the hierarchy is rebuilt if refitting
+     * degrades it too much, or built if it does not exist yet
+     *
+     * @return true if the hierarchy was (re)built, false if refitting was enough
+     */
+    public boolean refitHierarchy() {
+        for (Intersectable geometry : _intersectables) {
+            if (geometry instanceof Geometries && ((Geometries) geometry)._hierarchy != null) {
+                ((Geometries) geometry).refitHierarchy();
+            }
+        }
+        if (_hierarchy == null) {
+            buildHierarchy();
+            return true;
+        }
+        return _hierarchy.refit();
+    }
+
+    /**
+     * the box bounding all the geometries in the collection
+     *
+     * @return bounding box, or null if the collection is empty or contains unbounded geometries
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        if (_hierarchy != null) {
+            return _hierarchy.getBoundingBox();
+        }
+        BoundingBox result = null;
+        for (Intersectable geometry : _intersectables) {
+            BoundingBox box = geometry.getBoundingBox();
+            if (box == null) {
+                return null;
+            }
+            result = result == null ? box : result.union(box);
+        }
+        return result;
     }
 
     /**
@@ -58,6 +156,9 @@ public class Geometries implements Intersectable {
      */
     @Override
     public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance) {
+        if (_hierarchy != null) {
+            return _hierarchy.findGeoIntersections(ray, maxDistance);
+        }
         List<GeoPoint> result = null;
 
         //check for ray intersections with each geometry
@@ -71,9 +172,30 @@ public class Geometries implements Intersectable {
                 result.addAll(intersectionPoints);
             }
         }
+        if (_counter != null) {
+            _counter.count(0, _intersectables.size());
+        }
 
         return result;
 
     }
 
+    /**
+     * find the closest intersection of each ray in a packet of coherent rays.
+     * when the bounding volume hierarchy is built the packet traverses it together
+     *
+     * @param rays packet of rays
+     * @return the closest intersection of each ray (null for rays with no intersections)
+     */
+    public GeoPoint[] findClosestIntersections(Ray[] rays) {
+        if (_hierarchy != null) {
+            return _hierarchy.findClosestIntersections(rays);
+        }
+        GeoPoint[] closest = new GeoPoint[rays.length];
+        for (int i = 0; i < rays.length; ++i) {
+            closest[i] = rays[i].findClosestGeoPoint(findGeoIntersections(rays[i]));
+        }
+        return closest;
+    }
+
 }
@@ -16,6 +16,8 @@ public abstract class Geometry implements Intersectable {
     protected Color _emission=Color.BLACK;
     //geometry's material
     private Material _material=new Material();
+    //amount of times the geometry was moved (used to track changes of the scene)
+    private int _version=0;
 
     /**
      * get the normal vector to surface from a point
@@ -24,6 +26,29 @@ public abstract class Geometry implements Intersectable {
      */
     public abstract Vector getNormal(Point3D p);
 
+    /**
+     * move the geometry in space (used to animate scenes).
+     * bounding volume hierarchies containing the geometry must be refitted afterwards
+     * @param offset translation vector
+     * @return current Geometry instance
+     */
+    public abstract Geometry translate(Vector offset);
+
+    /**
+     * count a move of the geometry - called by the implementations of translate
+     */
+    protected void moved() {
+        ++_version;
+    }
+
+    /**
+     * version getter
+     * @return amount of times the geometry was moved, changed by every move
+     */
+    public int getVersion() {
+        return _version;
+    }
+
     /**
      * emission getter
      * @return self color of geometry
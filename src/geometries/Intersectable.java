@@ -71,5 +71,14 @@ public interface Intersectable {
      */
     List<GeoPoint> findGeoIntersections(Ray ray,double maxDistance);
 
+    /**
+     * get the axis aligned box that bounds the intersectable.
+     * contains default implementation for unbounded intersectables
+     * @return bounding box, or null if the intersectable is unbounded (e.g. plane)
+     */
+    default BoundingBox getBoundingBox() {
+        return null;
+    }
+
 }
 
@@ -0,0 +1,230 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.Point3D;
+import primitives.Ray;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import static geometries.IntersectionKernels.TRIANGLE_TOLERANCE;
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+
+/**
+ * IntersectionBatch holds the geometries of a bounding volume hierarchy's leaf
+ * in a structure of arrays (SoA) layout - spheres' centers and radii and triangles'
+ * vertices and edges are kept in contiguous primitive arrays. a ray is tested against
+ * the whole block by the intersection kernels without allocating objects - the Vector API
+ * kernels when module {@code jdk.incubator.vector} is present, else the scalar kernels
+ * (see {@link IntersectionKernels}). geometries of other types are tested one by one
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+class IntersectionBatch {
+    /**
+     * the intersection kernels - Vector API kernels if they are available, else scalar kernels
+     */
+    static final IntersectionKernels KERNELS = loadKernels();
+
+    //spheres block
+    private final Sphere[] _spheres;
+    private final double[] _cx, _cy, _cz, _radius;
+
+    //triangles block - first vertex and two edges from it
+    private final Triangle[] _triangles;
+    private final double[] _v0x, _v0y, _v0z;
+    private final double[] _e1x, _e1y, _e1z;
+    private final double[] _e2x, _e2y, _e2z;
+    //determinant below which the ray is nearly parallel to the triangle (relative to its edges)
+    private final double[] _minDet;
+
+    //other intersectables
+    private final Intersectable[] _others;
+
+    /**
+     * distances of intersections found by the kernels - first and second distances
+     * (reused by the same thread)
+     */
+    private static final ThreadLocal<double[][]> DISTANCES = ThreadLocal.withInitial(() -> new double[2][0]);
+
+    /**
+     * IntersectionBatch constructor. divides the intersectables into blocks by type
+     *
+     * @param items intersectables of a leaf
+     */
+    IntersectionBatch(List<Intersectable> items) {
+        List<Sphere> spheres = new LinkedList<>();
+        List<Triangle> triangles = new LinkedList<>();
+        List<Intersectable> others = new LinkedList<>();
+        for (Intersectable item : items) {
+            if (item instanceof Sphere) {
+                spheres.add((Sphere) item);
+            } else if (item instanceof Triangle) {
+                triangles.add((Triangle) item);
+            } else {
+                others.add(item);
+            }
+        }
+        _spheres = spheres.toArray(new Sphere[0]);
+        _cx = new double[_spheres.length];
+        _cy = new double[_spheres.length];
+        _cz = new double[_spheres.length];
+        _radius = new double[_spheres.length];
+
+        _triangles = triangles.toArray(new Triangle[0]);
+        int n = _triangles.length;
+        _v0x = new double[n];
+        _v0y = new double[n];
+        _v0z = new double[n];
+        _e1x = new double[n];
+        _e1y = new double[n];
+        _e1z = new double[n];
+        _e2x = new double[n];
+        _e2y = new double[n];
+        _e2z = new double[n];
+        _minDet = new double[n];
+
+        _others = others.toArray(new Intersectable[0]);
+        update();
+    }
+
+    /**
+     * load the Vector API kernels, which are compiled from the {@code vector} source folder
+     * and need module {@code jdk.incubator.vector} (e.g. {@code --add-modules jdk.incubator.vector})
+     *
+     * @return the Vector API kernels, or the scalar kernels if they are not available
+     */
+    private static IntersectionKernels loadKernels() {
+        try {
+            return (IntersectionKernels) Class.forName("geometries.VectorIntersectionKernels")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            //the kernels were not compiled, or the module is not present
+            return new ScalarIntersectionKernels();
+        }
+    }
+
+    /**
+     * copy the current positions of the geometries into the arrays
+     * (must be called after geometries have moved)
+     */
+    void update() {
+        for (int i = 0; i < _spheres.length; ++i) {
+            Point3D center = _spheres[i]._center;
+            _cx[i] = center.getX();
+            _cy[i] = center.getY();
+            _cz[i] = center.getZ();
+            _radius[i] = _spheres[i]._radius;
+        }
+        for (int i = 0; i < _triangles.length; ++i) {
+            Point3D v0 = _triangles[i].vertices.get(0);
+            Point3D v1 = _triangles[i].vertices.get(1);
+            Point3D v2 = _triangles[i].vertices.get(2);
+            _v0x[i] = v0.getX();
+            _v0y[i] = v0.getY();
+            _v0z[i] = v0.getZ();
+            _e1x[i] = v1.getX() - v0.getX();
+            _e1y[i] = v1.getY() - v0.getY();
+            _e1z[i] = v1.getZ() - v0.getZ();
+            _e2x[i] = v2.getX() - v0.getX();
+            _e2y[i] = v2.getY() - v0.getY();
+            _e2z[i] = v2.getZ() - v0.getZ();
+            _minDet[i] = TRIANGLE_TOLERANCE * Math.sqrt((_e1x[i] * _e1x[i] + _e1y[i] * _e1y[i] + _e1z[i] * _e1z[i])
+                    * (_e2x[i] * _e2x[i] + _e2y[i] * _e2y[i] + _e2z[i] * _e2z[i]));
+        }
+    }
+
+    /**
+     * find intersections points of ray with the geometries in the batch
+     * in a limited maximum distance from ray starting point
+     *
+     * @param ray         ray in 3d space
+     * @param maxDistance maximum distance limit
+     * @param result      list to add the intersections to (may be null if it was not initialized yet)
+     * @return the result list (null if it was not initialized and no intersections were found)
+     */
+    List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance, List<GeoPoint> result) {
+        Point3D p0 = ray.getP0();
+        Point3D dir = ray.getDir().getHead();
+        double ox = p0.getX(), oy = p0.getY(), oz = p0.getZ();
+        double dx = dir.getX(), dy = dir.getY(), dz = dir.getZ();
+
+        int size = Math.max(_spheres.length, _triangles.length);
+        double[][] distances = DISTANCES.get();
+        if (distances[0].length < size) {
+            distances[0] = new double[size];
+            distances[1] = new double[size];
+        }
+        double[] t1 = distances[0], t2 = distances[1];
+
+        if (_spheres.length > 0) {
+            KERNELS.intersectSpheres(ox, oy, oz, dx, dy, dz, _cx, _cy, _cz, _radius, _spheres.length, t1, t2);
+            for (int i = 0; i < _spheres.length; ++i) {
+                if (!(t2[i] > t1[i])) {
+                    continue;//missed (NaN) or tangent
+                }
+                if (t1[i] <= 0 && isZero(_cx[i] - ox) && isZero(_cy[i] - oy) && isZero(_cz[i] - oz)) {
+                    //ray starts at the sphere's center - special case of the sphere itself
+                    result = add(result, _spheres[i].findGeoIntersections(ray, maxDistance));
+                    continue;
+                }
+                if (t1[i] > 0 && alignZero(t1[i] - maxDistance) <= 0) {
+                    result = add(result, new GeoPoint(_spheres[i], ray.getPoint(t1[i])));
+                }
+                if (t2[i] > 0 && alignZero(t2[i] - maxDistance) <= 0) {
+                    result = add(result, new GeoPoint(_spheres[i], ray.getPoint(t2[i])));
+                }
+            }
+        }
+
+        if (_triangles.length > 0) {
+            KERNELS.intersectTriangles(ox, oy, oz, dx, dy, dz, _v0x, _v0y, _v0z, _e1x, _e1y, _e1z, _e2x, _e2y, _e2z,
+                    _minDet, _triangles.length, t1);
+            for (int i = 0; i < _triangles.length; ++i) {
+                //the kernel is conservative - the exact intersection is found by the triangle
+                if (t1[i] > -TRIANGLE_TOLERANCE && t1[i] <= maxDistance + TRIANGLE_TOLERANCE) {
+                    result = add(result, _triangles[i].findGeoIntersections(ray, maxDistance));
+                }
+            }
+        }
+
+        for (Intersectable item : _others) {
+            result = add(result, item.findGeoIntersections(ray, maxDistance));
+        }
+        return result;
+    }
+
+    /**
+     * add intersection points to the result list
+     *
+     * @param result        the result list (may be null if it was not initialized yet)
+     * @param intersections intersection points to add (may be null)
+     * @return the result list
+     */
+    private static List<GeoPoint> add(List<GeoPoint> result, List<GeoPoint> intersections) {
+        if (intersections != null) {
+            if (result == null) {//result was not initialized yet
+                result = new LinkedList<>();
+            }
+            result.addAll(intersections);
+        }
+        return result;
+    }
+
+    /**
+     * add an intersection point to the result list
+     *
+     * @param result the result list (may be null if it was not initialized yet)
+     * @param gp     intersection point to add
+     * @return the result list
+     */
+    private static List<GeoPoint> add(List<GeoPoint> result, GeoPoint gp) {
+        if (result == null) {//result was not initialized yet
+            result = new LinkedList<>();
+        }
+        result.add(gp);
+        return result;
+    }
+}
@@ -0,0 +1,60 @@
+package geometries;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * IntersectionCounter counts the intersection tests done while finding intersections
+ * of rays with a collection of geometries - tests of rays against bounding boxes and
+ * against the geometries themselves. the counters are striped, so threads tracing
+ * rays concurrently do not contend on them, and are summed when they are read
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public final class IntersectionCounter {
+    /**
+     * amount of ray-box tests
+     */
+    private final LongAdder _boxTests = new LongAdder();
+    /**
+     * amount of ray-geometry tests
+     */
+    private final LongAdder _geometryTests = new LongAdder();
+
+    /**
+     * add the tests done while finding the intersections of a single query
+     *
+     * @param boxTests      amount of ray-box tests
+     * @param geometryTests amount of ray-geometry tests
+     */
+    void count(long boxTests, long geometryTests) {
+        _boxTests.add(boxTests);
+        _geometryTests.add(geometryTests);
+    }
+
+    /**
+     * box tests getter
+     *
+     * @return amount of ray-box tests
+     */
+    public long getBoxTests() {
+        return _boxTests.sum();
+    }
+
+    /**
+     * geometry tests getter
+     *
+     * @return amount of ray-geometry tests
+     */
+    public long getGeometryTests() {
+        return _geometryTests.sum();
+    }
+
+    /**
+     * reset the counters to zero
+     */
+    public void reset() {
+        _boxTests.reset();
+        _geometryTests.reset();
+    }
+}
@@ -0,0 +1,77 @@
+package geometries;
+
+/**
+ * IntersectionKernels intersects a ray with blocks of geometries kept in primitive arrays
+ * (see {@link IntersectionBatch}). the kernels of the {@code vector} source folder use the
+ * SIMD instructions of the CPU through the Vector API (module {@code jdk.incubator.vector}),
+ * and the scalar kernels ({@link ScalarIntersectionKernels}) are used when they are not available
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+interface IntersectionKernels {
+    /**
+     * tolerance of the triangles test, keeps the batch test conservative
+     * (the exact test is done by the triangle itself)
+     */
+    double TRIANGLE_TOLERANCE = 1e-6;
+
+    /**
+     * batch kernel intersecting a ray with a block of spheres.
+     * for each sphere writes the distances of the two intersections, tM-tH and tM+tH
+     * (NaN if the ray misses the sphere, equal distances if the ray is tangent to it)
+     * <p>
+     * Mathematical principle: same as {@link Sphere#findGeoIntersections(primitives.Ray, double)} -
+     * tM is the projection of u=center-p0 on the ray, d is the distance from the
+     * center to the ray, and tH=sqrt(r^2-d^2)
+     *
+     * @param ox     x coordinate of the ray's starting point
+     * @param oy     y coordinate of the ray's starting point
+     * @param oz     z coordinate of the ray's starting point
+     * @param dx     x coordinate of the ray's direction
+     * @param dy     y coordinate of the ray's direction
+     * @param dz     z coordinate of the ray's direction
+     * @param cx     x coordinates of the spheres' centers
+     * @param cy     y coordinates of the spheres' centers
+     * @param cz     z coordinates of the spheres' centers
+     * @param radius spheres' radii
+     * @param count  amount of spheres in the block
+     * @param t1     output - distances of the first intersections
+     * @param t2     output - distances of the second intersections
+     */
+    void intersectSpheres(double ox, double oy, double oz, double dx, double dy, double dz,
+                          double[] cx, double[] cy, double[] cz, double[] radius, int count,
+                          double[] t1, double[] t2);
+
+    /**
+     * batch kernel intersecting a ray with a block of triangles (Moller-Trumbore algorithm).
+     * for each triangle writes the distance of the intersection, or NaN if the ray misses it.
+     * the barycentric test has a small tolerance so hits on the edges are never missed, and
+     * a ray nearly parallel to a triangle (relative to the triangle's size) is not rejected -
+     * its distance is written as 0 and it is left to the exact test
+     *
+     * @param ox     x coordinate of the ray's starting point
+     * @param oy     y coordinate of the ray's starting point
+     * @param oz     z coordinate of the ray's starting point
+     * @param dx     x coordinate of the ray's direction
+     * @param dy     y coordinate of the ray's direction
+     * @param dz     z coordinate of the ray's direction
+     * @param v0x    x coordinates of the triangles' first vertices
+     * @param v0y    y coordinates of the triangles' first vertices
+     * @param v0z    z coordinates of the triangles' first vertices
+     * @param e1x    x coordinates of the triangles' first edges
+     * @param e1y    y coordinates of the triangles' first edges
+     * @param e1z    z coordinates of the triangles' first edges
+     * @param e2x    x coordinates of the triangles' second edges
+     * @param e2y    y coordinates of the triangles' second edges
+     * @param e2z    z coordinates of the triangles' second edges
+     * @param minDet determinants below which the ray is nearly parallel to the triangles
+     * @param count  amount of triangles in the block
+     * @param t      output - distances of the intersections
+     */
+    void intersectTriangles(double ox, double oy, double oz, double dx, double dy, double dz,
+                            double[] v0x, double[] v0y, double[] v0z,
+                            double[] e1x, double[] e1y, double[] e1z,
+                            double[] e2x, double[] e2y, double[] e2z, double[] minDet,
+                            int count, double[] t);
+}
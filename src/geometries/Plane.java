@@ -16,7 +16,7 @@ import static primitives.Util.isZero;
  * @author Lior Peretz
  */
 public class Plane extends Geometry {
-    final Point3D _p;//point in the plane
+    Point3D _p;//point in the plane
     final Vector _normal;//normal vector to the plane
 
     /**
@@ -73,6 +73,13 @@ public class Plane extends Geometry {
         return _normal;
     }
 
+    @Override
+    public Geometry translate(Vector offset) {
+        _p = _p.add(offset);
+        moved();
+        return this;
+    }
+
     @Override
     public String toString() {
         return "Plane{" +
@@ -87,6 +87,22 @@ public class Polygon extends Geometry {
         return plane.getNormal();
     }
 
+    @Override
+    public Geometry translate(Vector offset) {
+        Point3D[] moved = new Point3D[vertices.size()];
+        for (int i = 0; i < moved.length; ++i)
+            moved[i] = vertices.get(i).add(offset);
+        vertices = List.of(moved);
+        plane = new Plane(moved[0], plane.getNormal());
+        moved();
+        return this;
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return BoundingBox.of(vertices.toArray(new Point3D[0]));
+    }
+
     /**
      * find intersections points of ray with a polygon
      * in a limited maximum distance from ray starting point
@@ -0,0 +1,119 @@
+package geometries;
+
+import static geometries.IntersectionKernels.TRIANGLE_TOLERANCE;
+
+/**
+ * ScalarIntersectionKernels are the intersection kernels computed one geometry at a time -
+ * used when the Vector API kernels are not available, and for the geometries left after
+ * the last full vector of a block
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+class ScalarIntersectionKernels implements IntersectionKernels {
+
+    @Override
+    public void intersectSpheres(double ox, double oy, double oz, double dx, double dy, double dz,
+                                 double[] cx, double[] cy, double[] cz, double[] radius, int count,
+                                 double[] t1, double[] t2) {
+        intersectSpheres(ox, oy, oz, dx, dy, dz, cx, cy, cz, radius, 0, count, t1, t2);
+    }
+
+    @Override
+    public void intersectTriangles(double ox, double oy, double oz, double dx, double dy, double dz,
+                                   double[] v0x, double[] v0y, double[] v0z,
+                                   double[] e1x, double[] e1y, double[] e1z,
+                                   double[] e2x, double[] e2y, double[] e2z, double[] minDet,
+                                   int count, double[] t) {
+        intersectTriangles(ox, oy, oz, dx, dy, dz, v0x, v0y, v0z, e1x, e1y, e1z, e2x, e2y, e2z, minDet,
+                0, count, t);
+    }
+
+    /**
+     * intersect a ray with a range of a block of spheres
+     * (see {@link IntersectionKernels#intersectSpheres})
+     *
+     * @param ox     x coordinate of the ray's starting point
+     * @param oy     y coordinate of the ray's starting point
+     * @param oz     z coordinate of the ray's starting point
+     * @param dx     x coordinate of the ray's direction
+     * @param dy     y coordinate of the ray's direction
+     * @param dz     z coordinate of the ray's direction
+     * @param cx     x coordinates of the spheres' centers
+     * @param cy     y coordinates of the spheres' centers
+     * @param cz     z coordinates of the spheres' centers
+     * @param radius spheres' radii
+     * @param from   index of the first sphere of the range
+     * @param to     index after the last sphere of the range
+     * @param t1     output - distances of the first intersections
+     * @param t2     output - distances of the second intersections
+     */
+    static void intersectSpheres(double ox, double oy, double oz, double dx, double dy, double dz,
+                                 double[] cx, double[] cy, double[] cz, double[] radius, int from, int to,
+                                 double[] t1, double[] t2) {
+        for (int i = from; i < to; ++i) {
+            double ux = cx[i] - ox, uy = cy[i] - oy, uz = cz[i] - oz;
+            double tM = ux * dx + uy * dy + uz * dz;
+            double dSquared = Math.max(ux * ux + uy * uy + uz * uz - tM * tM, 0);
+            //NaN when the ray misses the sphere
+            double tH = Math.sqrt(radius[i] * radius[i] - dSquared);
+            t1[i] = tM - tH;
+            t2[i] = tM + tH;
+        }
+    }
+
+    /**
+     * intersect a ray with a range of a block of triangles
+     * (see {@link IntersectionKernels#intersectTriangles})
+     *
+     * @param ox     x coordinate of the ray's starting point
+     * @param oy     y coordinate of the ray's starting point
+     * @param oz     z coordinate of the ray's starting point
+     * @param dx     x coordinate of the ray's direction
+     * @param dy     y coordinate of the ray's direction
+     * @param dz     z coordinate of the ray's direction
+     * @param v0x    x coordinates of the triangles' first vertices
+     * @param v0y    y coordinates of the triangles' first vertices
+     * @param v0z    z coordinates of the triangles' first vertices
+     * @param e1x    x coordinates of the triangles' first edges
+     * @param e1y    y coordinates of the triangles' first edges
+     * @param e1z    z coordinates of the triangles' first edges
+     * @param e2x    x coordinates of the triangles' second edges
+     * @param e2y    y coordinates of the triangles' second edges
+     * @param e2z    z coordinates of the triangles' second edges
+     * @param minDet determinants below which the ray is nearly parallel to the triangles
+     * @param from   index of the first triangle of the range
+     * @param to     index after the last triangle of the range
+     * @param t      output - distances of the intersections
+     */
+    static void intersectTriangles(double ox, double oy, double oz, double dx, double dy, double dz,
+                                   double[] v0x, double[] v0y, double[] v0z,
+                                   double[] e1x, double[] e1y, double[] e1z,
+                                   double[] e2x, double[] e2y, double[] e2z, double[] minDet,
+                                   int from, int to, double[] t) {
+        for (int i = from; i < to; ++i) {
+            //p = dir x e2
+            double px = dy * e2z[i] - dz * e2y[i];
+            double py = dz * e2x[i] - dx * e2z[i];
+            double pz = dx * e2y[i] - dy * e2x[i];
+            double det = e1x[i] * px + e1y[i] * py + e1z[i] * pz;
+            double invDet = 1 / det;
+            //s = p0 - v0
+            double sx = ox - v0x[i], sy = oy - v0y[i], sz = oz - v0z[i];
+            double u = (sx * px + sy * py + sz * pz) * invDet;
+            //q = s x e1
+            double qx = sy * e1z[i] - sz * e1y[i];
+            double qy = sz * e1x[i] - sx * e1z[i];
+            double qz = sx * e1y[i] - sy * e1x[i];
+            double v = (dx * qx + dy * qy + dz * qz) * invDet;
+            double dist = (e2x[i] * qx + e2y[i] * qy + e2z[i] * qz) * invDet;
+            if (Math.abs(det) <= minDet[i]) {
+                t[i] = 0;
+            } else if (u >= -TRIANGLE_TOLERANCE && v >= -TRIANGLE_TOLERANCE && u + v <= 1 + TRIANGLE_TOLERANCE) {
+                t[i] = dist;
+            } else {
+                t[i] = Double.NaN;
+            }
+        }
+    }
+}
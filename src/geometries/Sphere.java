@@ -19,7 +19,7 @@ public class Sphere extends Geometry {
     /**
      * the center point of the sphere
      */
-    final Point3D _center;
+    Point3D _center;
     /**
      * sphere's radius
      */
@@ -45,6 +45,19 @@ public class Sphere extends Geometry {
         return p.subtract(_center).normalize();
     }
 
+    @Override
+    public Geometry translate(Vector offset) {
+        _center = _center.add(offset);
+        moved();
+        return this;
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return new BoundingBox(_center.getX() - _radius, _center.getY() - _radius, _center.getZ() - _radius,
+                _center.getX() + _radius, _center.getY() + _radius, _center.getZ() + _radius);
+    }
+
     @Override
     public String toString() {
         return "Sphere{" +
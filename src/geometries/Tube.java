@@ -16,7 +16,7 @@ import static primitives.Util.isZero;
  * @author Lior Peretz
  */
 public class Tube extends Geometry {
-    final Ray _axisRay;//tube's axis
+    Ray _axisRay;//tube's axis
     final double _radius;//tube's radius
 
     /**
@@ -51,6 +51,13 @@ public class Tube extends Geometry {
 
     }
 
+    @Override
+    public Geometry translate(Vector offset) {
+        _axisRay = new Ray(_axisRay.getP0().add(offset), _axisRay.getDir());
+        moved();
+        return this;
+    }
+
     @Override
     public String toString() {
         return "axisRay=" + _axisRay.toString() +
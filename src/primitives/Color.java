@@ -87,6 +87,42 @@ public class Color {
         return new java.awt.Color(ir > 255 ? 255 : ir, ig > 255 ? 255 : ig, ib > 255 ? 255 : ib);
     }
 
+    /**
+     * Red component getter (without upper limit)
+     *
+     * @return red component
+     */
+    public double getRed() {
+        return r;
+    }
+
+    /**
+     * Green component getter (without upper limit)
+     *
+     * @return green component
+     */
+    public double getGreen() {
+        return g;
+    }
+
+    /**
+     * Blue component getter (without upper limit)
+     *
+     * @return blue component
+     */
+    public double getBlue() {
+        return b;
+    }
+
+    /**
+     * Largest component of the color
+     *
+     * @return the maximum of the RGB components
+     */
+    public double maxComponent() {
+        return Math.max(r, Math.max(g, b));
+    }
+
     /**
      * Operation of adding this and one or more other colors (by component)
      *
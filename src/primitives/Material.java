@@ -1,5 +1,7 @@
 package primitives;
 
+import java.util.Objects;
+
 /**
  * Material class describe material by it's behavior when light hit it
  *
@@ -36,6 +38,27 @@ public class Material {
      */
     public double _kClear =100d;
 
+    /**
+     * Material default constructor
+     */
+    public Material() {
+    }
+
+    /**
+     * Copy constructor for Material
+     *
+     * @param other the source material
+     */
+    public Material(Material other) {
+        _Kd = other._Kd;
+        _Ks = other._Ks;
+        _nShininess = other._nShininess;
+        _Kr = other._Kr;
+        _Kt = other._Kt;
+        _kGlossy = other._kGlossy;
+        _kClear = other._kClear;
+    }
+
     //chaining setters methods
     /**
      * Kd chaining setter
@@ -106,4 +129,23 @@ public class Material {
         _kClear = kClear;
         return this;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Material material = (Material) o;
+        return Double.compare(material._Kd, _Kd) == 0 &&
+                Double.compare(material._Ks, _Ks) == 0 &&
+                _nShininess == material._nShininess &&
+                Double.compare(material._Kr, _Kr) == 0 &&
+                Double.compare(material._Kt, _Kt) == 0 &&
+                Double.compare(material._kGlossy, _kGlossy) == 0 &&
+                Double.compare(material._kClear, _kClear) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(_Kd, _Ks, _nShininess, _Kr, _Kt, _kGlossy, _kClear);
+    }
 }
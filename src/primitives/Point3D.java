@@ -48,7 +48,9 @@ public class Point3D {
      */
     public Point3D(double x, double y, double z) {
 
-        this(new Coordinate(x), new Coordinate(y), new Coordinate(z));
+        _x = new Coordinate(x);
+        _y = new Coordinate(y);
+        _z = new Coordinate(z);
     }
 
     @Override
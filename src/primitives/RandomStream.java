@@ -0,0 +1,102 @@
+package primitives;
+
+/**
+ * RandomStream is a fast splittable generator of pseudo random numbers (SplitMix64).
+ * a stream is derived from a seed and the coordinates of a sample (e.g. frame seed,
+ * pixel and sample index), so the same sample always draws the same numbers, no matter
+ * which thread traces it or in which order. a stream is not thread safe - each thread
+ * draws from its own stream, so there is no contention on a shared generator
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public final class RandomStream {
+    /**
+     * increment of the state between draws (odd, the golden ratio scaled to 64 bits)
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    /**
+     * scale of 53 random bits to a double in range [0,1)
+     */
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+    /**
+     * current state of the stream
+     */
+    private long _state;
+
+    /**
+     * RandomStream constructor
+     *
+     * @param seed seed of the stream
+     */
+    public RandomStream(long seed) {
+        _state = mix(seed);
+    }
+
+    /**
+     * derive the stream of a sample
+     *
+     * @param seed   seed of the frame
+     * @param col    pixel's column
+     * @param row    pixel's row
+     * @param sample index of the sample in the pixel
+     * @return the sample's stream
+     */
+    public static RandomStream of(long seed, int col, int row, int sample) {
+        //each coordinate is mixed in turn, so close coordinates give unrelated streams
+        long key = mix(seed + GOLDEN_GAMMA);
+        key = mix(key ^ (((long) col << 32) | (row & 0xffffffffL)));
+        return new RandomStream(key ^ sample);
+    }
+
+    /**
+     * split a new stream, independent of this one (advances this stream)
+     *
+     * @return the new stream
+     */
+    public RandomStream split() {
+        return new RandomStream(nextLong());
+    }
+
+    /**
+     * draw a random long
+     *
+     * @return random long
+     */
+    public long nextLong() {
+        return mix(_state += GOLDEN_GAMMA);
+    }
+
+    /**
+     * draw a random double in range [0,1)
+     *
+     * @return random double
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * draw a random double in range [origin,bound)
+     *
+     * @param origin lowest value
+     * @param bound  upper bound (exclusive)
+     * @return random double
+     */
+    public double nextDouble(double origin, double bound) {
+        double value = origin + nextDouble() * (bound - origin);
+        return value >= bound && bound > origin ? Math.nextDown(bound) : value;//rounding may reach the bound
+    }
+
+    /**
+     * mix the bits of a value (the finalizer of SplitMix64)
+     *
+     * @param z the value
+     * @return mixed value
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -47,6 +47,30 @@ public class Ray {
         _dir=dir.normalized();
     }
 
+    /**
+     * Ray constructor of {@link #ofNormalized(Point3D, double, double, double)}
+     * @param p0 beginning point (shared)
+     * @param head head of the normalized direction vector (owned by the ray)
+     */
+    private Ray(Point3D p0, Point3D head) {
+        _p0 = p0;
+        _dir = Vector.of(head);
+    }
+
+    /**
+     * create a ray of a direction that is already normalized (e.g. the camera rays of a packet) -
+     * the beginning point is shared with the ray (points are not changed), and the direction
+     * is neither copied nor normalized again
+     * @param p0 beginning point
+     * @param dx x coordinate of the normalized direction
+     * @param dy y coordinate of the normalized direction
+     * @param dz z coordinate of the normalized direction
+     * @return the ray
+     */
+    public static Ray ofNormalized(Point3D p0, double dx, double dy, double dz) {
+        return new Ray(p0, new Point3D(dx, dy, dz));
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,119 @@
+package primitives;
+
+/**
+ * SampleSequence is a sequence of sample points in the unit square, used to spread
+ * rays over an area (a pixel, a glossy beam's target surface or an area light).
+ * the low-discrepancy sequences cover the area more evenly than random points, so the
+ * average of the samples converges with fewer rays. each set of points is randomized
+ * by a random stream, so neighbouring pixels do not repeat the same pattern
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public enum SampleSequence {
+    /**
+     * independent uniform random points
+     */
+    RANDOM,
+    /**
+     * Halton sequence (bases 2 and 3), shifted by a random offset (Cranley-Patterson rotation)
+     */
+    HALTON,
+    /**
+     * Sobol sequence (first two dimensions - a (0,2)-sequence), scrambled by random bits
+     */
+    SOBOL;
+
+    /**
+     * scale of 32 bits to a double in range [0,1)
+     */
+    private static final double INT_UNIT = 0x1.0p-32;
+
+    /**
+     * get the first points of the sequence
+     *
+     * @param count  amount of points
+     * @param random random stream randomizing the points
+     * @return the points, each one is (x,y) in range [0,1)
+     */
+    public double[][] points(int count, RandomStream random) {
+        double[][] points = new double[count][2];
+        switch (this) {
+            case HALTON:
+                double offsetX = random.nextDouble();
+                double offsetY = random.nextDouble();
+                for (int i = 0; i < count; ++i) {
+                    points[i][0] = fraction(radicalInverse(i, 2) + offsetX);
+                    points[i][1] = fraction(radicalInverse(i, 3) + offsetY);
+                }
+                break;
+            case SOBOL:
+                long scramble = random.nextLong();
+                for (int i = 0; i < count; ++i) {
+                    points[i][0] = toDouble(Integer.reverse(i) ^ (int) scramble);
+                    points[i][1] = toDouble(sobol(i, (int) (scramble >>> 32)));
+                }
+                break;
+            default:
+                for (double[] point : points) {
+                    point[0] = random.nextDouble();
+                    point[1] = random.nextDouble();
+                }
+        }
+        return points;
+    }
+
+    /**
+     * radical inverse of an index - its digits in a base mirrored around the decimal point
+     *
+     * @param index the index
+     * @param base  the base
+     * @return radical inverse in range [0,1)
+     */
+    private static double radicalInverse(int index, int base) {
+        double inverse = 0;
+        double digit = 1d / base;
+        for (int i = index; i > 0; i /= base, digit /= base) {
+            inverse += (i % base) * digit;
+        }
+        return inverse;
+    }
+
+    /**
+     * second dimension of the Sobol sequence (the generator matrix of the first
+     * dimension is the identity, so it is the bit reversed index)
+     *
+     * @param index    the index
+     * @param scramble random bits of the scrambling
+     * @return 32 bits of the point's coordinate
+     */
+    private static int sobol(int index, int scramble) {
+        int bits = scramble;
+        for (int v = 1 << 31; index != 0; index >>>= 1, v ^= v >>> 1) {
+            if ((index & 1) != 0) {
+                bits ^= v;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * unsigned 32 bits as a double in range [0,1)
+     *
+     * @param bits the bits
+     * @return the double
+     */
+    private static double toDouble(int bits) {
+        return (bits & 0xffffffffL) * INT_UNIT;
+    }
+
+    /**
+     * fractional part of a non negative value
+     *
+     * @param value the value
+     * @return fractional part in range [0,1)
+     */
+    private static double fraction(double value) {
+        return value - Math.floor(value);
+    }
+}
@@ -1,5 +1,7 @@
 package primitives;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * Util class is used for some internal utilities, e.g. controlling accuracy
  *
@@ -59,12 +61,14 @@ public abstract class Util {
 
     /**
      * Provide a real random number in range between min and max
+     * (drawn from the current thread's generator, without contention between threads.
+     * reproducible numbers are drawn from a {@link RandomStream})
      * @param min
      * @param max
      * @return the random value
      */
     public static double random(double min, double max) {
-        return Math.random() * (max - min) + min;
+        return ThreadLocalRandom.current().nextDouble() * (max - min) + min;
     }
 
 }
@@ -44,6 +44,24 @@ public class Vector {
         this(new Point3D(x,y,z));
     }
 
+    /**
+     * Vector constructor of {@link #of(Point3D)} - the head is set by the factory
+     */
+    private Vector() {
+    }
+
+    /**
+     * create a vector of a head that is known not to be (0,0,0) - the head is neither
+     * checked nor copied, it is owned by the vector
+     * @param head the head of the vector
+     * @return the vector
+     */
+    static Vector of(Point3D head) {
+        Vector vector = new Vector();
+        vector._head = head;
+        return vector;
+    }
+
     /**
      * get the vector's head
      * @return reference to point3D representing the vector's head
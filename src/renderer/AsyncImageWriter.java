@@ -0,0 +1,278 @@
+package renderer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * AsyncImageWriter encodes and writes finished images on background threads, so the
+ * renderer can go on to the next frame while the previous one is written. the pixels
+ * are copied when the image is handed over, then encoded as a png file whose strips
+ * of rows are filtered and deflated in parallel (each strip is flushed to a byte
+ * boundary, so the compressed strips are concatenated into a single zlib stream).
+ * images of uncompressed formats are written in their writer's format
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public class AsyncImageWriter implements AutoCloseable {
+    /**
+     * amount of rows in each compressed strip
+     */
+    private static final int STRIP_ROWS = 64;
+    /**
+     * modulus of the Adler-32 checksum
+     */
+    private static final int ADLER_BASE = 65521;
+    /**
+     * png file signature
+     */
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+
+    /**
+     * the threads encoding the images
+     */
+    private final ForkJoinPool _pool;
+
+    /**
+     * Strip is a compressed strip of rows
+     */
+    private static class Strip {
+        /**
+         * the deflated rows
+         */
+        private final byte[] _data;
+        /**
+         * Adler-32 checksum of the filtered rows
+         */
+        private final long _adler;
+        /**
+         * length of the filtered rows in bytes
+         */
+        private final long _length;
+
+        /**
+         * Strip constructor
+         *
+         * @param data   the deflated rows
+         * @param adler  checksum of the filtered rows
+         * @param length length of the filtered rows
+         */
+        private Strip(byte[] data, long adler, long length) {
+            _data = data;
+            _adler = adler;
+            _length = length;
+        }
+    }
+
+    /**
+     * AsyncImageWriter constructor
+     *
+     * @param threads amount of threads encoding the images
+     */
+    public AsyncImageWriter(int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Threads amount must be 1 or higher");
+        _pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * write an image in the background - the pixels and the name of an image writer are copied
+     * before returning, so the image writer can be reused (e.g. renamed for the next frame). other pixel sinks (e.g. a streaming writer)
+     * are completed in the background and must not be written to until the future completes
+     *
+     * @param sink the image
+     * @return future completed when the file is written
+     */
+    public CompletableFuture<Void> write(PixelSink sink) {
+        if (!(sink instanceof ImageWriter))
+            return CompletableFuture.runAsync(sink::writeToImage, _pool);
+        ImageWriter imageWriter = (ImageWriter) sink;
+        int[] pixels = imageWriter.snapshot();
+        String imageName = imageWriter.getImageName();
+        int nX = imageWriter.getNx();
+        int nY = imageWriter.getNy();
+        ImageFormat format = imageWriter.getFormat();
+        if (format != ImageFormat.PNG) {
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    ImageWriter.writeUncompressed(imageName, format, nX, nY, pixels);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Can't write the image file " + imageName, e);
+                }
+            }, _pool);
+        }
+        int count = (nY + STRIP_ROWS - 1) / STRIP_ROWS;
+        List<CompletableFuture<Strip>> strips = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            int strip = i;
+            strips.add(CompletableFuture.supplyAsync(() -> deflate(pixels, nX, nY, strip, strip == count - 1), _pool));
+        }
+        return CompletableFuture.allOf(strips.toArray(new CompletableFuture<?>[0])).thenRunAsync(() -> {
+            try {
+                writePng(imageName, nX, nY, strips);
+            } catch (IOException e) {
+                throw new IllegalStateException("Can't write the image file " + imageName, e);
+            }
+        }, _pool);
+    }
+
+    /**
+     * filter and deflate a strip of rows. each row is filtered by the Paeth predictor
+     *
+     * @param pixels RGB of the pixels, row by row
+     * @param nX     amount of pixels by width
+     * @param nY     amount of pixels by height
+     * @param strip  index of the strip
+     * @param last   true if it is the last strip (the stream is finished), otherwise the stream is flushed
+     * @return the compressed strip
+     */
+    private static Strip deflate(int[] pixels, int nX, int nY, int strip, boolean last) {
+        int first = strip * STRIP_ROWS;
+        int rows = Math.min(STRIP_ROWS, nY - first);
+        int rowSize = 1 + nX * 3;
+        byte[] filtered = new byte[rows * rowSize];
+        for (int y = 0; y < rows; ++y) {
+            int offset = y * rowSize;
+            filtered[offset] = 4;//Paeth
+            int row = (first + y) * nX;
+            for (int x = 0; x < nX; ++x) {
+                int rgb = pixels[row + x];
+                int above = first + y == 0 ? 0 : pixels[row - nX + x];
+                int left = x == 0 ? 0 : pixels[row + x - 1];
+                int corner = x == 0 || first + y == 0 ? 0 : pixels[row - nX + x - 1];
+                for (int c = 0; c < 3; ++c) {
+                    int shift = 16 - 8 * c;
+                    filtered[offset + 1 + x * 3 + c] = (byte) ((rgb >> shift) - paeth(left >> shift & 0xff,
+                            above >> shift & 0xff, corner >> shift & 0xff));
+                }
+            }
+        }
+        Adler32 adler = new Adler32();
+        adler.update(filtered, 0, filtered.length);
+
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(filtered);
+        if (last)
+            deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(filtered.length / 2);
+        byte[] buffer = new byte[1 << 16];
+        while (true) {
+            int length = deflater.deflate(buffer, 0, buffer.length, last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+            out.write(buffer, 0, length);
+            if (last ? deflater.finished() : length < buffer.length)
+                break;
+        }
+        deflater.end();
+        return new Strip(out.toByteArray(), adler.getValue(), filtered.length);
+    }
+
+    /**
+     * Paeth predictor of a byte from its left, above and upper left neighbours
+     *
+     * @param left   the left byte
+     * @param above  the above byte
+     * @param corner the upper left byte
+     * @return the neighbour closest to left + above - corner
+     */
+    private static int paeth(int left, int above, int corner) {
+        int estimate = left + above - corner;
+        int toLeft = Math.abs(estimate - left);
+        int toAbove = Math.abs(estimate - above);
+        int toCorner = Math.abs(estimate - corner);
+        if (toLeft <= toAbove && toLeft <= toCorner)
+            return left;
+        return toAbove <= toCorner ? above : corner;
+    }
+
+    /**
+     * Adler-32 checksum of two concatenated blocks, from the checksums of the blocks
+     *
+     * @param first        checksum of the first block
+     * @param second       checksum of the second block
+     * @param secondLength length of the second block
+     * @return checksum of the concatenation
+     */
+    private static long combine(long first, long second, long secondLength) {
+        long remainder = secondLength % ADLER_BASE;
+        long sum1 = ((first & 0xffff) + (second & 0xffff) + ADLER_BASE - 1) % ADLER_BASE;
+        long sum2 = (remainder * (first & 0xffff) + (first >>> 16) + (second >>> 16) + ADLER_BASE - remainder)
+                % ADLER_BASE;
+        return sum2 << 16 | sum1;
+    }
+
+    /**
+     * write the png file of the compressed strips - a chunk of image data for each strip
+     *
+     * @param imageName name of the image (without the .png extension)
+     * @param nX        amount of pixels by width
+     * @param nY        amount of pixels by height
+     * @param strips    the compressed strips (all completed)
+     * @throws IOException if the file can't be written
+     */
+    private static void writePng(String imageName, int nX, int nY, List<CompletableFuture<Strip>> strips)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(ImageWriter.FOLDER_PATH, imageName + ".png"),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ImageWriter.writeFully(channel, ByteBuffer.wrap(PNG_SIGNATURE));
+            //8 bits RGB, default compression and filtering, not interlaced
+            writeChunk(channel, "IHDR", ByteBuffer.allocate(13).putInt(nX).putInt(nY)
+                    .put((byte) 8).put((byte) 2).put((byte) 0).put((byte) 0).put((byte) 0).array());
+            //zlib header (deflate with a 32K window, default level)
+            writeChunk(channel, "IDAT", new byte[]{0x78, (byte) 0x9c});
+            long adler = 1;
+            for (CompletableFuture<Strip> future : strips) {
+                Strip strip = future.join();
+                writeChunk(channel, "IDAT", strip._data);
+                adler = combine(adler, strip._adler, strip._length);
+            }
+            writeChunk(channel, "IDAT", ByteBuffer.allocate(4).putInt((int) adler).array());
+            writeChunk(channel, "IEND", new byte[0]);
+        }
+    }
+
+    /**
+     * write a png chunk - length, type, data and CRC of the type and data
+     *
+     * @param channel the file
+     * @param type    type of the chunk
+     * @param data    data of the chunk
+     * @throws IOException if the file can't be written
+     */
+    private static void writeChunk(FileChannel channel, String type, byte[] data) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(12 + data.length);
+        chunk.putInt(data.length);
+        for (int i = 0; i < 4; ++i)
+            chunk.put((byte) type.charAt(i));
+        chunk.put(data);
+        CRC32 crc = new CRC32();
+        crc.update(chunk.array(), 4, 4 + data.length);
+        chunk.putInt((int) crc.getValue());
+        chunk.flip();
+        ImageWriter.writeFully(channel, chunk);
+    }
+
+    /**
+     * wait for the images in progress to be written and stop the threads
+     */
+    @Override
+    public void close() {
+        _pool.shutdown();
+        try {
+            _pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
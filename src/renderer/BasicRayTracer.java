@@ -1,14 +1,21 @@
 package renderer;
 
+import elements.AreaLight;
 import elements.LightSource;
+import geometries.Geometry;
 import geometries.Intersectable.GeoPoint;
 import primitives.*;
+import scene.CompiledScene;
+import scene.LightTree;
 import scene.Scene;
 
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Map;
 
 import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
 
 /**
  * BasicRayTracer is tracing rays from the camera to the scene
@@ -25,7 +32,7 @@ public class BasicRayTracer extends RayTracerBase {
     /**
      * minimal considered color change
      */
-    private static final double MIN_CALC_COLOR_K = 0.001;
+    protected static final double MIN_CALC_COLOR_K = 0.001;
     /**
      * initial coefficient for recursive calculations of
      * reflections and refractions
@@ -43,6 +50,96 @@ public class BasicRayTracer extends RayTracerBase {
      * adaptive super sampling recursion max depth
      */
     private static final int MAX_SUPER_SAMPLING_LEVEL = 6;
+    /**
+     * adaptive soft shadow sampling recursion max depth (up to 9x9 shadow rays to an area light)
+     */
+    private static final int MAX_SHADOW_SAMPLING_LEVEL = 3;
+    /**
+     * sequence of the sample points of glossy beams and area lights
+     */
+    private SampleSequence _sequence = SampleSequence.RANDOM;
+    /**
+     * desired amount of rays in a glossy beam
+     */
+    private int _beamRays = AMOUNT_OF_RAYS;
+    /**
+     * amount of shadow rays to an area light at a partially shadowed point (0 subdivides the light adaptively)
+     */
+    private int _softShadowSamples = 0;
+    /**
+     * amount of lights sampled at each point (0 evaluates all the lights)
+     */
+    private int _lightSamples = 0;
+    /**
+     * last opaque occluder of the shadow rays to each light, kept per thread.
+     * neighbouring points are usually shadowed by the same geometry, so it is tested first
+     */
+    private final ThreadLocal<OccluderCache> _occluders = ThreadLocal.withInitial(OccluderCache::new);
+    /**
+     * lights found for the shaded point (reused by the same thread)
+     */
+    private final ThreadLocal<LightSource[]> _foundLights = ThreadLocal.withInitial(() -> new LightSource[0]);
+    /**
+     * scratch arrays of the many-light sampling mode (reused by the same thread)
+     */
+    private final ThreadLocal<LightSamples> _lightSamplesScratch = ThreadLocal.withInitial(LightSamples::new);
+
+    /**
+     * OccluderCache is an internal helper class holding the last opaque occluder
+     * of each light source found by a thread, for a specific compiled scene
+     */
+    private static class OccluderCache {
+        /**
+         * the compiled scene the occluders belong to
+         */
+        private CompiledScene _scene;
+        /**
+         * last opaque occluder of each light source
+         */
+        private final Map<LightSource, Geometry> _occluders = new IdentityHashMap<>();
+    }
+
+    /**
+     * LightSamples is an internal helper class holding the arrays used by a thread
+     * to sample the lights of a point, grown to the largest amount of lights found
+     */
+    private static class LightSamples {
+        /**
+         * directions from the lights to the point
+         */
+        private Vector[] _ls = new Vector[0];
+        /**
+         * intensities of the lights at the point
+         */
+        private Color[] _intensities = new Color[0];
+        /**
+         * estimated contributions of the lights
+         */
+        private double[] _weights = new double[0];
+        /**
+         * cumulative weights, used to pick the lights
+         */
+        private double[] _cumulative = new double[0];
+        /**
+         * how many times each light was picked
+         */
+        private int[] _picks = new int[0];
+
+        /**
+         * grow the arrays to hold the given amount of lights
+         *
+         * @param size amount of lights
+         */
+        private void ensureSize(int size) {
+            if (_ls.length < size) {
+                _ls = new Vector[size];
+                _intensities = new Color[size];
+                _weights = new double[size];
+                _cumulative = new double[size];
+                _picks = new int[size];
+            }
+        }
+    }
     /**
      * BasicRayTracer constructor
      *
@@ -62,6 +159,63 @@ public class BasicRayTracer extends RayTracerBase {
         return this;
     }
 
+    /**
+     * many-light sampling mode - instead of evaluating all the lights at each point,
+     * a fixed amount of lights is sampled proportionally to their estimated contribution
+     * and weighted to keep the average color unbiased. the shading cost of a point
+     * is then independent of the amount of lights
+     * @param samples amount of lights sampled at each point, 0 to evaluate all the lights
+     * @return current BasicRayTracer instance
+     */
+    public BasicRayTracer setLightSamples(int samples) {
+        if (samples < 0) {
+            throw new IllegalArgumentException("Light samples must be 0 or higher");
+        }
+        _lightSamples = samples;
+        return this;
+    }
+
+    /**
+     * sample sequence setter. glossy beams (when adaptive super sampling is off) and
+     * soft shadows (when their amount of samples is set) are sampled by the sequence.
+     * with the random sequence the beams are sampled on a jittered grid
+     * @param sequence sequence of the sample points
+     * @return current BasicRayTracer instance
+     */
+    public BasicRayTracer setSampleSequence(SampleSequence sequence) {
+        _sequence = sequence;
+        return this;
+    }
+
+    /**
+     * amount of beam rays setter. low-discrepancy sequences reach the same noise
+     * with far fewer rays than the default
+     * @param rays desired amount of rays in a glossy beam
+     * @return current BasicRayTracer instance
+     */
+    public BasicRayTracer setBeamRays(int rays) {
+        if (rays < 1) {
+            throw new IllegalArgumentException("Beam rays must be 1 or higher");
+        }
+        _beamRays = rays;
+        return this;
+    }
+
+    /**
+     * amount of soft shadow samples setter. the corners of an area light are sampled first,
+     * and if they differ the light is sampled at points of the sample sequence
+     * @param samples amount of shadow rays to an area light at a partially shadowed point,
+     *                0 to subdivide the light adaptively
+     * @return current BasicRayTracer instance
+     */
+    public BasicRayTracer setSoftShadowSamples(int samples) {
+        if (samples < 0) {
+            throw new IllegalArgumentException("Soft shadow samples must be 0 or higher");
+        }
+        _softShadowSamples = samples;
+        return this;
+    }
+
     /**
      * get the color of a single pixel by sending
      * ray from the camera through it and calculate it's color
@@ -71,10 +225,29 @@ public class BasicRayTracer extends RayTracerBase {
      */
     @Override
     public Color traceRay(Ray ray) {
+        _stats.countCameraRays(1);
         //get the ray's closest intersection point and determine it's color
         GeoPoint closestPoint = findClosestIntersection(ray);
         //default color if the ray does not intersect any geometry
-        return closestPoint == null ? _scene._background : calcColor(closestPoint, ray);
+        return closestPoint == null ? _compiledScene.getBackground() : calcColor(closestPoint, ray);
+    }
+
+    /**
+     * get the colors of a packet of camera rays. the closest intersections
+     * of the packet are found together, the secondary rays are traced separately
+     *
+     * @param rays packet of rays from the camera
+     * @return the colors of the pixels the rays hit in the view plane
+     */
+    @Override
+    public Color[] traceRays(Ray[] rays) {
+        _stats.countCameraRays(rays.length);
+        GeoPoint[] closestPoints = _compiledScene.getGeometries().findClosestIntersections(rays);
+        Color[] colors = new Color[rays.length];
+        for (int i = 0; i < rays.length; ++i) {
+            colors[i] = closestPoints[i] == null ? _compiledScene.getBackground() : calcColor(closestPoints[i], rays[i]);
+        }
+        return colors;
     }
 
     /**
@@ -84,8 +257,8 @@ public class BasicRayTracer extends RayTracerBase {
      * @return closest geoPoint intersection
      * (if there are no intersection return null)
      */
-    private GeoPoint findClosestIntersection(Ray ray) {
-        List<GeoPoint> intersections = _scene._geometries.findGeoIntersections(ray);
+    protected GeoPoint findClosestIntersection(Ray ray) {
+        List<GeoPoint> intersections = _compiledScene.getGeometries().findGeoIntersections(ray);
         if (intersections != null) {
             return ray.findClosestGeoPoint(intersections);
         }
@@ -102,7 +275,7 @@ public class BasicRayTracer extends RayTracerBase {
      */
     private Color calcColor(GeoPoint gp, Ray ray) {
         return calcColor(gp, ray, MAX_CALC_COLOR_LEVEL, INITIAL_K)
-                .add(_scene._ambientLight.getIntensity());
+                .add(_compiledScene.getAmbientIntensity());
     }
 
     /**
@@ -117,6 +290,7 @@ public class BasicRayTracer extends RayTracerBase {
      * @return the color of the pixel that view the geoPoint
      */
     private Color calcColor(GeoPoint geoPoint, Ray ray, int level, double k) {
+        _stats.countShadedPoint(MAX_CALC_COLOR_LEVEL - level);
         //use geometry's self color as base
         Color color = (geoPoint._geometry.getEmission());
         //add up local effects to the color
@@ -145,13 +319,13 @@ public class BasicRayTracer extends RayTracerBase {
         double kkr = k * material._Kr;
         if (kkr > MIN_CALC_COLOR_K) {
             Ray r = constructReflectedRay(gp._point, v, n);
-            color = calcColorFromBeamOfRays(r, n, level, material._Kr, kkr, material._kGlossy);
+            color = calcColorFromBeamOfRays(r, n, level, material._Kr, kkr, material._kGlossy, true);
         }
         double kkt = k * material._Kt;
         if (kkt > MIN_CALC_COLOR_K) {
             Ray r = constructRefractedRay(gp._point, v, n);
             color = color.add(
-                    calcColorFromBeamOfRays(r, n, level, material._Kt, kkt, material._kClear));
+                    calcColorFromBeamOfRays(r, n, level, material._Kt, kkt, material._kClear, false));
         }
         return color;
     }
@@ -171,7 +345,7 @@ public class BasicRayTracer extends RayTracerBase {
         GeoPoint gp = findClosestIntersection(ray);
         //if the ray intersect a geometry color is continued to be calculated
         //and if it not, return the default background color
-        return (gp == null ? _scene._background : calcColor(gp, ray, level - 1, kkx).scale(kx));
+        return (gp == null ? _compiledScene.getBackground() : calcColor(gp, ray, level - 1, kkx).scale(kx));
     }
 
     /**
@@ -182,7 +356,7 @@ public class BasicRayTracer extends RayTracerBase {
      * @param normal normal vector to the geometry from point
      * @return reflected ray
      */
-    private Ray constructReflectedRay(Point3D point, Vector v, Vector normal) {
+    protected Ray constructReflectedRay(Point3D point, Vector v, Vector normal) {
         double vDotN = v.dotProduct(normal);
         Vector r = v.subtract(normal.scale(2 * vDotN));
         return new Ray(point, r, normal);//using ray's constructor that moves
@@ -197,7 +371,7 @@ public class BasicRayTracer extends RayTracerBase {
      * @param normal normal vector to the geometry from point
      * @return refracted ray
      */
-    private Ray constructRefractedRay(Point3D point, Vector v, Vector normal) {
+    protected Ray constructRefractedRay(Point3D point, Vector v, Vector normal) {
         return new Ray(point, v, normal); //using ray's constructor that moves
         // the point by delta in the normal direction
     }
@@ -212,12 +386,19 @@ public class BasicRayTracer extends RayTracerBase {
      * @param kx             either transparency or reflection coefficient of the current calculated geometry
      * @param kkx            either transparency or reflection coefficient from the last recursion level
      * @param kGlossyOrClear coefficient of glossy or clear
+     * @param isReflection   true for a reflection beam, false for a refraction beam
      * @return average color from the beam of the rays
      */
-    private Color calcColorFromBeamOfRays(Ray r, Vector n, int level, double kx, double kkx, double kGlossyOrClear) {
+    private Color calcColorFromBeamOfRays(Ray r, Vector n, int level, double kx, double kkx, double kGlossyOrClear,
+                                          boolean isReflection) {
 
         if (kGlossyOrClear == 100) {//if kGlossy is 100 the surface is perfect mirror and
                                     //if KClear is 100 the surface is perfect transparent
+            if (isReflection) {
+                _stats.countReflectionRay();
+            } else {
+                _stats.countRefractionRay();
+            }
             return calcGlobalEffect(r, level, kx, kkx);
         }
         double scatteringWidth = 100 - kGlossyOrClear;//scatteringWidth determines the edge's length of the
@@ -253,13 +434,17 @@ public class BasicRayTracer extends RayTracerBase {
      * @return
      */
     private Color colorFromRegularBeam(Vector rVector, int level, double kx, double kkx, Point3D p0, Vector n,TargetSurface targetSurface){
+        if (_sequence != SampleSequence.RANDOM) {
+            return colorFromSequenceBeam(rVector, level, kx, kkx, p0, n, targetSurface);
+        }
 
         //calculate the actual amount of rays (must have an integer square root)
-        int squaresPerEdge = (int) Math.sqrt(AMOUNT_OF_RAYS);
+        int squaresPerEdge = (int) Math.sqrt(_beamRays);
         int sumOfRays = squaresPerEdge * squaresPerEdge;
         //length of each square in the grid of the target plane
         double squareLength = (targetSurface.getEdgeLen()) / squaresPerEdge;
         Color color = Color.BLACK;
+        RandomStream random = random();
         //divide the target surface to squared grid
         //and send random ray to each square in it
         for (int i = 0; i < squaresPerEdge; i++) {
@@ -267,8 +452,8 @@ public class BasicRayTracer extends RayTracerBase {
                 //scaling the right and down vectors in random value
                 //in order to reach to a random point at the square
                 //and create ray from p0 to it
-                double randomRightToScale = ThreadLocalRandom.current().nextDouble(0, squareLength);
-                double randomDownToScale = ThreadLocalRandom.current().nextDouble(0, squareLength);
+                double randomRightToScale = random.nextDouble(0, squareLength);
+                double randomDownToScale = random.nextDouble(0, squareLength);
                 Vector randomVector = targetSurface.getRight().scale(randomRightToScale + j * squareLength).
                         add(targetSurface.getDown().scale(randomDownToScale + i * squareLength));
                 Point3D randomPoint = targetSurface.getTopLeftPoint().add(randomVector);
@@ -278,6 +463,7 @@ public class BasicRayTracer extends RayTracerBase {
                 // calculate the global color effect from it, else ignore it.
                 if (alignZero(rVector.dotProduct(n)) * alignZero(randomRayDir.dotProduct(n)) > 0) {
                     Ray randomRay = new Ray(p0, randomRayDir);
+                    _stats.countGlossyRay();
                     color = color.add(calcGlobalEffect(randomRay, level, kx, kkx));
                 } else {
                     sumOfRays--;
@@ -288,6 +474,43 @@ public class BasicRayTracer extends RayTracerBase {
 
     }
 
+    /**
+     * calculate the color of reflection/refraction ray to glossy surfaces/diffused glass
+     * by a beam of rays sent to the points of the sample sequence on the target surface
+     * @param rVector reflection/refraction vector
+     * @param level reflection/refraction recursion depth
+     * @param kx either transparency or reflection coefficient of the current calculated geometry
+     * @param kkx either transparency or reflection coefficient from the last recursion level
+     * @param p0 source point of the reflection/refraction ray
+     * @param n normal to the geoPoint
+     * @param targetSurface ray's target surface
+     * @return average color from the beam of the rays
+     */
+    private Color colorFromSequenceBeam(Vector rVector, int level, double kx, double kkx, Point3D p0, Vector n,
+                                        TargetSurface targetSurface) {
+        Point3D topLeft = targetSurface.getTopLeftPoint();
+        Point3D right = targetSurface.getRight().getHead();
+        Point3D down = targetSurface.getDown().getHead();
+        double edge = targetSurface.getEdgeLen();
+        double rn = alignZero(rVector.dotProduct(n));
+        Color color = Color.BLACK;
+        int sumOfRays = 0;
+        for (double[] point : _sequence.points(_beamRays, random())) {
+            //the target point is computed by coordinates, so no vector on the way can be zero
+            double x = point[0] * edge, y = point[1] * edge;
+            Vector randomRayDir = new Point3D(topLeft.getX() + right.getX() * x + down.getX() * y,
+                    topLeft.getY() + right.getY() * x + down.getY() * y,
+                    topLeft.getZ() + right.getZ() * x + down.getZ() * y).subtract(p0);
+            //ignore rays that pass the surface to the other side
+            if (rn * alignZero(randomRayDir.dotProduct(n)) > 0) {
+                _stats.countGlossyRay();
+                color = color.add(calcGlobalEffect(new Ray(p0, randomRayDir), level, kx, kkx));
+                ++sumOfRays;
+            }
+        }
+        return sumOfRays == 0 ? Color.BLACK : color.reduce(sumOfRays);//average color from all rays
+    }
+
     /**
      * calculate the color of reflection/refraction using adaptive super sampling
      * wrapper to recursive method
@@ -445,6 +668,7 @@ public class BasicRayTracer extends RayTracerBase {
             targetPoint=targetPoint.add(targetSurface.getDown().scale(index._x*targetSurface.getSquareLen()));
         }
         Ray ray=new Ray(p0,targetPoint.subtract(p0));
+        _stats.countGlossyRay();
         return calcGlobalEffect(ray,level,kx,kkx);
 
     }
@@ -455,9 +679,10 @@ public class BasicRayTracer extends RayTracerBase {
      *
      * @param geoPoint point on geometry surface
      * @param ray      ray from the camera to the point
+     * @param k        color's coefficient of the recursion level
      * @return calculated color with effects
      */
-    private Color calcLocalEffects(GeoPoint geoPoint, Ray ray, double k) {
+    protected Color calcLocalEffects(GeoPoint geoPoint, Ray ray, double k) {
         Vector v = ray.getDir();
         Vector n = geoPoint._geometry.getNormal(geoPoint._point);
         double nv = alignZero(n.dotProduct(v));
@@ -470,14 +695,30 @@ public class BasicRayTracer extends RayTracerBase {
         int nShininess = material._nShininess;
         double kd = material._Kd;
         double ks = material._Ks;
-        //calculate color's effects from each light source
-        for (LightSource lightSource : _scene._lights) {
+        LightTree lightTree = _compiledScene.getLightTree();
+        LightSource[] lights = _foundLights.get();
+        if (lights.length < lightTree.size()) {
+            lights = new LightSource[lightTree.size()];
+            _foundLights.set(lights);
+        }
+        int count = lightTree.findLights(geoPoint._point, lights);
+        if (_lightSamples > 0 && count > _lightSamples) {
+            return calcSampledLocalEffects(geoPoint, lights, count, v, n, nv, k, material);
+        }
+        //calculate color's effects from each light source that may contribute to the point
+        for (int i = 0; i < count; ++i) {
+            LightSource lightSource = lights[i];
             Vector l = lightSource.getL(geoPoint._point);//normalized vector from the light source to the geoPoint
             double nl = alignZero(n.dotProduct(l));
             if (nl * nv > 0) { // sign(nl) == sing(nv)
+                Color lightIntensity = lightSource.getIntensity(geoPoint._point);
+                //skip lights too weak to contribute (e.g. attenuated or outside a spot's cone) before the shadow ray
+                if (lightIntensity.maxComponent() * k * (kd + ks) < LightTree.MIN_INTENSITY) {
+                    continue;
+                }
                 double ktr = transparency(lightSource, l, n, geoPoint);
                 if (ktr * k > MIN_CALC_COLOR_K) {
-                    Color lightIntensity = lightSource.getIntensity(geoPoint._point).scale(ktr);
+                    lightIntensity = lightIntensity.scale(ktr);
                     //add up diffusive and shininess effects
                     color = color.add(calcDiffusive(kd, l, n, lightIntensity),
                             calcSpecular(ks, l, n, v, nShininess, lightIntensity));
@@ -487,6 +728,85 @@ public class BasicRayTracer extends RayTracerBase {
         return color;
     }
 
+    /**
+     * calculate color's local effects (diffusive and shininess) of single geoPoint
+     * from a sample of the lights. each light is sampled with probability proportional
+     * to the estimate of its contribution (intensity at the point, which includes its
+     * power, attenuation and spot cone, multiplied by the material's kd*|n∙l|+ks),
+     * and its contribution is divided by the probability, so the expected color
+     * equals the color from all the lights
+     *
+     * @param geoPoint point on geometry surface
+     * @param lights   the lights that may contribute to the point
+     * @param size     amount of the lights
+     * @param v        direction of the ray to the point
+     * @param n        normal to the geometry at the point
+     * @param nv       dot product of the normal and the ray's direction
+     * @param k        color's coefficient of the recursion level
+     * @param material material of the geometry
+     * @return estimated color with effects
+     */
+    private Color calcSampledLocalEffects(GeoPoint geoPoint, LightSource[] lights, int size, Vector v, Vector n,
+                                          double nv, double k, Material material) {
+        LightSamples samples = _lightSamplesScratch.get();
+        samples.ensureSize(size);
+        Vector[] ls = samples._ls;
+        Color[] intensities = samples._intensities;
+        double[] weights = samples._weights;
+        double total = 0;//sum of the weights
+        double[] cumulative = samples._cumulative;
+        for (int i = 0; i < size; ++i) {
+            ls[i] = lights[i].getL(geoPoint._point);
+            weights[i] = 0;
+            double nl = alignZero(n.dotProduct(ls[i]));
+            if (nl * nv > 0) { // sign(nl) == sing(nv)
+                intensities[i] = lights[i].getIntensity(geoPoint._point);
+                double intensity = intensities[i].maxComponent();
+                if (intensity * k * (material._Kd + material._Ks) >= LightTree.MIN_INTENSITY) {
+                    weights[i] = intensity * (material._Kd * Math.abs(nl) + material._Ks);
+                }
+            }
+            total += weights[i];
+            cumulative[i] = total;
+        }
+        if (total == 0) {
+            return Color.BLACK;
+        }
+
+        //sample lights (with repetitions) and count how many times each light was picked
+        int[] picks = samples._picks;
+        Arrays.fill(picks, 0, size, 0);
+        RandomStream random = random();
+        for (int s = 0; s < _lightSamples; ++s) {
+            double u = random.nextDouble(0, total);
+            int low = 0, high = size - 1;
+            while (low < high) {//first light whose cumulative weight exceeds u
+                int middle = (low + high) / 2;
+                if (cumulative[middle] > u) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            ++picks[low];
+        }
+
+        Color color = Color.BLACK;
+        for (int i = 0; i < size; ++i) {
+            if (picks[i] == 0) {
+                continue;
+            }
+            double ktr = transparency(lights[i], ls[i], n, geoPoint);
+            if (ktr * k > MIN_CALC_COLOR_K) {
+                //contribution divided by the light's probability (weight/total) and averaged over the samples
+                Color lightIntensity = intensities[i].scale(ktr * picks[i] * total / (weights[i] * _lightSamples));
+                color = color.add(calcDiffusive(material._Kd, ls[i], n, lightIntensity),
+                        calcSpecular(material._Ks, ls[i], n, v, material._nShininess, lightIntensity));
+            }
+        }
+        return color;
+    }
+
     /**
      * calculating diffusion color. formula: (Kd∙|l∙n|)∙lightIntensity
      *
@@ -532,18 +852,162 @@ public class BasicRayTracer extends RayTracerBase {
      * @return effective transparency's coefficient
      */
     private double transparency(LightSource lightSource, Vector l, Vector n, GeoPoint geoPoint) {
+        if (lightSource instanceof AreaLight) {
+            return areaTransparency((AreaLight) lightSource, n, geoPoint);
+        }
         Vector lightDirection = l.scale(-1); // from point to light source
+        return transparency(lightSource, lightDirection, lightSource.getDistance(geoPoint._point), n, geoPoint);
+    }
+
+    /**
+     * calculating the effective transparency's coefficient of an area light - the average
+     * transparency towards points on its surface, sampled adaptively (wrapper to recursive method).
+     * the transparency is sampled at the corners of the light's surface, and areas whose
+     * corners differ are subdivided, so fully lit and fully shadowed points cost only 4 shadow rays
+     *
+     * @param light    the area light
+     * @param n        normal vector to the geoPoint
+     * @param geoPoint a geoPoint in the scene
+     * @return effective transparency's coefficient
+     */
+    private double areaTransparency(AreaLight light, Vector n, GeoPoint geoPoint) {
+        //matrix of the sampled transparencies (NaN where not sampled yet), used to reduce redundant calculations
+        int dimension = (1 << MAX_SHADOW_SAMPLING_LEVEL) + 1;
+        double[][] samples = new double[dimension][dimension];
+        for (double[] row : samples) {
+            Arrays.fill(row, Double.NaN);
+        }
+        if (_softShadowSamples == 0) {
+            return areaTransparency(light, n, geoPoint, samples, 0, 0, dimension - 1, MAX_SHADOW_SAMPLING_LEVEL);
+        }
+
+        //fully lit or fully shadowed points are recognized by the corners of the light
+        int last = dimension - 1;
+        double topLeft = sample(light, n, geoPoint, samples, 0, 0);
+        if (topLeft == sample(light, n, geoPoint, samples, 0, last)
+                && topLeft == sample(light, n, geoPoint, samples, last, 0)
+                && topLeft == sample(light, n, geoPoint, samples, last, last)) {
+            return topLeft;
+        }
+        double sum = 0;
+        for (double[] point : _sequence.points(_softShadowSamples, random())) {
+            sum += transparency(light, point[0], point[1], n, geoPoint);
+        }
+        return sum / _softShadowSamples;
+    }
+
+    /**
+     * calculate recursively, using adaptive sampling, the average transparency
+     * towards a square area of the light's surface
+     *
+     * @param light         the area light
+     * @param n             normal vector to the geoPoint
+     * @param geoPoint      a geoPoint in the scene
+     * @param samples       matrix of sampled transparencies
+     * @param row           index (in samples) of the square's top row
+     * @param col           index (in samples) of the square's left column
+     * @param size          edge length of the square (in samples' indexes)
+     * @param samplingLevel sampling recursion depth
+     * @return average transparency towards the square
+     */
+    private double areaTransparency(AreaLight light, Vector n, GeoPoint geoPoint, double[][] samples,
+                                    int row, int col, int size, int samplingLevel) {
+        double topLeft = sample(light, n, geoPoint, samples, row, col);
+        double topRight = sample(light, n, geoPoint, samples, row, col + size);
+        double bottomLeft = sample(light, n, geoPoint, samples, row + size, col);
+        double bottomRight = sample(light, n, geoPoint, samples, row + size, col + size);
+
+        //if the 4 corners are similar, or the max depth was reached, return their average
+        if ((topLeft == topRight && topRight == bottomLeft && bottomLeft == bottomRight) || samplingLevel == 0) {
+            return (topLeft + topRight + bottomLeft + bottomRight) / 4;
+        }
+        //4 recursive calls, each one to quarter square
+        int half = size / 2;
+        return (areaTransparency(light, n, geoPoint, samples, row, col, half, samplingLevel - 1)
+                + areaTransparency(light, n, geoPoint, samples, row, col + half, half, samplingLevel - 1)
+                + areaTransparency(light, n, geoPoint, samples, row + half, col, half, samplingLevel - 1)
+                + areaTransparency(light, n, geoPoint, samples, row + half, col + half, half, samplingLevel - 1)) / 4;
+    }
+
+    /**
+     * get the transparency towards a sample point on the light's surface,
+     * tracing a shadow ray only if it was not sampled yet
+     *
+     * @param light    the area light
+     * @param n        normal vector to the geoPoint
+     * @param geoPoint a geoPoint in the scene
+     * @param samples  matrix of sampled transparencies
+     * @param row      row of the sample in the matrix
+     * @param col      column of the sample in the matrix
+     * @return transparency towards the sample point
+     */
+    private double sample(AreaLight light, Vector n, GeoPoint geoPoint, double[][] samples, int row, int col) {
+        if (Double.isNaN(samples[row][col])) {
+            int last = samples.length - 1;
+            samples[row][col] = transparency(light, (double) col / last, 1 - (double) row / last, n, geoPoint);
+        }
+        return samples[row][col];
+    }
+
+    /**
+     * get the transparency towards a point on the light's surface
+     *
+     * @param light    the area light
+     * @param s        coordinate of the point in the light's right direction, in range [0,1]
+     * @param t        coordinate of the point in the light's up direction, in range [0,1]
+     * @param n        normal vector to the geoPoint
+     * @param geoPoint a geoPoint in the scene
+     * @return transparency towards the point
+     */
+    private double transparency(AreaLight light, double s, double t, Vector n, GeoPoint geoPoint) {
+        Vector toLight = light.getPoint(s, t).subtract(geoPoint._point);
+        double distance = toLight.length();
+        //points on the light's plane itself are not shadowed
+        return isZero(distance) ? 1d : transparency(light, toLight.normalize(), distance, n, geoPoint);
+    }
+
+    /**
+     * calculating the effective transparency's coefficient of all the geometries
+     * between a geoPoint to a point of a light source
+     *
+     * @param lightSource    the light source
+     * @param lightDirection normalized vector from the geoPoint to the light's point
+     * @param distance       distance from the geoPoint to the light's point
+     * @param n              normal vector to the geoPoint
+     * @param geoPoint       a geoPoint in the scene
+     * @return effective transparency's coefficient
+     */
+    private double transparency(LightSource lightSource, Vector lightDirection, double distance, Vector n,
+                                GeoPoint geoPoint) {
         Ray lightRay = new Ray(geoPoint._point, lightDirection, n);//ray from delta moved geoPoint to the light source
+        _stats.countShadowRay();
+
+        //first test the last opaque geometry that blocked the light
+        OccluderCache cache = _occluders.get();
+        if (cache._scene != _compiledScene) {//the scene was compiled again
+            cache._scene = _compiledScene;
+            cache._occluders.clear();
+        }
+        Geometry occluder = cache._occluders.get(lightSource);
+        if (occluder != null && occluder.findGeoIntersections(lightRay, distance) != null) {
+            _stats.countOccluderHit();
+            return 0d;
+        }
+
         //check for ray hits on the way from the geoPoint to the light source
-        List<GeoPoint> intersections = _scene._geometries
-                .findGeoIntersections(lightRay, lightSource.getDistance(geoPoint._point));
+        List<GeoPoint> intersections = _compiledScene.getGeometries().findGeoIntersections(lightRay, distance);
         if (intersections == null) {
             return 1d;
         }
         //multiplying all the transparency's coefficients of the intersected geoPoints
         double ktr = 1d;//transparency's coefficient
         for (GeoPoint gp : intersections) {
-            ktr *= gp._geometry.getMaterial()._Kt;
+            double kt = gp._geometry.getMaterial()._Kt;
+            if (kt < MIN_CALC_COLOR_K) {//an opaque geometry blocks the light by itself
+                cache._occluders.put(lightSource, gp._geometry);
+                return 0d;
+            }
+            ktr *= kt;
             if (ktr < MIN_CALC_COLOR_K) {
                 return 0d;//geometries are considered opaque
             }
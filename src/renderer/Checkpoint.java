@@ -0,0 +1,206 @@
+package renderer;
+
+import primitives.Color;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Checkpoint is a memory-mapped file holding the framebuffer of a render (unclamped
+ * float colors) and a bitmap of its completed tiles. the pixels and the bitmap are
+ * written straight to the mapped file, so when the render is cancelled or the JVM is
+ * killed, a new render of the same image resumes by skipping the completed tiles.
+ * the header holds a fingerprint of the render (scene, camera and settings), and a
+ * checkpoint of another render is started over
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+final class Checkpoint implements AutoCloseable {
+    /**
+     * magic number of the file ("RCKP")
+     */
+    private static final int MAGIC = 0x52434b50;
+    /**
+     * size of the header - magic number, resolution, tile size and fingerprint of the render
+     */
+    private static final int HEADER_SIZE = 4 * Integer.BYTES + Long.BYTES;
+    /**
+     * size of a pixel in the framebuffer (RGB floats)
+     */
+    private static final int PIXEL_SIZE = 3 * Float.BYTES;
+
+    /**
+     * the file
+     */
+    private final FileChannel _channel;
+    /**
+     * mapped header and completed tiles bitmap
+     */
+    private final MappedByteBuffer _bitmap;
+    /**
+     * mapped framebuffer - a buffer for each row of tiles (so images above 2GB can be mapped)
+     */
+    private final MappedByteBuffer[] _bands;
+    /**
+     * resolution of the image
+     */
+    private final int _nX, _nY;
+    /**
+     * edge length of the tiles in pixels
+     */
+    private final int _tileSize;
+    /**
+     * amount of tiles in a row
+     */
+    private final int _tilesX;
+    /**
+     * amount of tiles
+     */
+    private final int _tiles;
+
+    /**
+     * Checkpoint constructor. opens the checkpoint file of an image, or creates it if
+     * it does not exist or was made for another resolution, tile size or render
+     *
+     * @param file        path of the file
+     * @param nX          amount of pixels by width
+     * @param nY          amount of pixels by height
+     * @param tileSize    edge length of the tiles in pixels
+     * @param fingerprint fingerprint of the render (its scene, camera and settings)
+     * @throws IOException if the file can't be opened or mapped
+     */
+    Checkpoint(Path file, int nX, int nY, int tileSize, long fingerprint) throws IOException {
+        _nX = nX;
+        _nY = nY;
+        _tileSize = tileSize;
+        _tilesX = (nX + tileSize - 1) / tileSize;
+        int tilesY = (nY + tileSize - 1) / tileSize;
+        _tiles = _tilesX * tilesY;
+        long bitmapSize = HEADER_SIZE + (_tiles + 7) / 8;
+        long size = bitmapSize + (long) nX * nY * PIXEL_SIZE;
+
+        _channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean resume = _channel.size() == size;
+        if (!resume)
+            _channel.truncate(0);
+        _bitmap = _channel.map(FileChannel.MapMode.READ_WRITE, 0, bitmapSize);
+        _bitmap.order(ByteOrder.LITTLE_ENDIAN);
+        if (resume && (_bitmap.getInt(0) != MAGIC || _bitmap.getInt(4) != nX || _bitmap.getInt(8) != nY
+                || _bitmap.getInt(12) != tileSize || _bitmap.getLong(16) != fingerprint)) {
+            resume = false;
+        }
+        if (!resume) {
+            //a new checkpoint - no tile is completed
+            for (int i = 0; i < bitmapSize; ++i)
+                _bitmap.put(i, (byte) 0);
+            _bitmap.putInt(0, MAGIC).putInt(4, nX).putInt(8, nY).putInt(12, tileSize).putLong(16, fingerprint);
+        }
+        _bands = new MappedByteBuffer[tilesY];
+        for (int band = 0; band < tilesY; ++band) {
+            int rows = Math.min(tileSize, nY - band * tileSize);
+            _bands[band] = _channel.map(FileChannel.MapMode.READ_WRITE,
+                    bitmapSize + (long) band * tileSize * nX * PIXEL_SIZE, (long) rows * nX * PIXEL_SIZE);
+            _bands[band].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * amount of tiles getter
+     *
+     * @return amount of tiles in the image
+     */
+    int getTiles() {
+        return _tiles;
+    }
+
+    /**
+     * get the pixels of a tile
+     *
+     * @param index index of the tile (row by row)
+     * @return column, row, width and height of the tile
+     */
+    int[] getTile(int index) {
+        int col = index % _tilesX * _tileSize;
+        int row = index / _tilesX * _tileSize;
+        return new int[]{col, row, Math.min(_tileSize, _nX - col), Math.min(_tileSize, _nY - row)};
+    }
+
+    /**
+     * check whether a tile was completed
+     *
+     * @param index index of the tile
+     * @return true if all the pixels of the tile were written
+     */
+    synchronized boolean isComplete(int index) {
+        return (_bitmap.get(HEADER_SIZE + index / 8) & (1 << index % 8)) != 0;
+    }
+
+    /**
+     * mark a tile as completed (after all its pixels were written)
+     *
+     * @param index index of the tile
+     */
+    synchronized void complete(int index) {
+        int position = HEADER_SIZE + index / 8;
+        _bitmap.put(position, (byte) (_bitmap.get(position) | 1 << index % 8));
+    }
+
+    /**
+     * amount of completed tiles getter
+     *
+     * @return amount of completed tiles
+     */
+    synchronized int getCompletedTiles() {
+        int count = 0;
+        for (int i = 0; i < _tiles; ++i)
+            if (isComplete(i))
+                ++count;
+        return count;
+    }
+
+    /**
+     * write the color of a pixel to the framebuffer
+     *
+     * @param xIndex X axis index of the pixel
+     * @param yIndex Y axis index of the pixel
+     * @param color  color of the pixel
+     */
+    void writePixel(int xIndex, int yIndex, Color color) {
+        int position = ((yIndex % _tileSize) * _nX + xIndex) * PIXEL_SIZE;
+        _bands[yIndex / _tileSize].putFloat(position, (float) color.getRed())
+                .putFloat(position + Float.BYTES, (float) color.getGreen())
+                .putFloat(position + 2 * Float.BYTES, (float) color.getBlue());
+    }
+
+    /**
+     * read the color of a pixel from the framebuffer
+     *
+     * @param xIndex X axis index of the pixel
+     * @param yIndex Y axis index of the pixel
+     * @return color of the pixel
+     */
+    Color getPixel(int xIndex, int yIndex) {
+        int position = ((yIndex % _tileSize) * _nX + xIndex) * PIXEL_SIZE;
+        MappedByteBuffer band = _bands[yIndex / _tileSize];
+        return new Color(band.getFloat(position), band.getFloat(position + Float.BYTES),
+                band.getFloat(position + 2 * Float.BYTES));
+    }
+
+    /**
+     * flush the mapped file to the disk and close it
+     *
+     * @throws IOException if the file can't be written
+     */
+    @Override
+    public void close() throws IOException {
+        _bitmap.force();
+        for (MappedByteBuffer band : _bands)
+            band.force();
+        _channel.close();
+    }
+}
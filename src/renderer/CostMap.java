@@ -0,0 +1,178 @@
+package renderer;
+
+import primitives.Color;
+
+/**
+ * CostMap records the cost of rendering each pixel of an image - the amount of rays
+ * traced for it and the wall time it took. it is used to find expensive regions of a scene,
+ * which are written as false-colour heatmaps, and to schedule the expensive tiles first
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public final class CostMap {
+    /**
+     * resolution of the image
+     */
+    private final int _nX, _nY;
+    /**
+     * amount of rays traced for each pixel (row by row)
+     */
+    private final long[] _rays;
+    /**
+     * wall time of each pixel in nanoseconds (row by row)
+     */
+    private final long[] _nanos;
+
+    /**
+     * CostMap constructor
+     *
+     * @param nX amount of pixels by width
+     * @param nY amount of pixels by height
+     */
+    public CostMap(int nX, int nY) {
+        _nX = nX;
+        _nY = nY;
+        _rays = new long[nX * nY];
+        _nanos = new long[nX * nY];
+    }
+
+    /**
+     * record the cost of a pixel
+     *
+     * @param col   pixel's column number
+     * @param row   pixel's row number
+     * @param rays  amount of rays traced for the pixel
+     * @param nanos wall time of the pixel in nanoseconds
+     */
+    void record(int col, int row, long rays, long nanos) {
+        _rays[row * _nX + col] = rays;
+        _nanos[row * _nX + col] = nanos;
+    }
+
+    /**
+     * record the cost of a block of pixels that were rendered together,
+     * divided evenly between the pixels
+     *
+     * @param firstCol column number of the block's top left pixel
+     * @param firstRow row number of the block's top left pixel
+     * @param width    width of the block in pixels
+     * @param height   height of the block in pixels
+     * @param rays     amount of rays traced for the block
+     * @param nanos    wall time of the block in nanoseconds
+     */
+    void record(int firstCol, int firstRow, int width, int height, long rays, long nanos) {
+        int pixels = width * height;
+        for (int i = 0; i < height; ++i)
+            for (int j = 0; j < width; ++j)
+                record(firstCol + j, firstRow + i, rays / pixels, nanos / pixels);
+    }
+
+    /**
+     * width getter
+     *
+     * @return amount of pixels by width
+     */
+    public int getNx() {
+        return _nX;
+    }
+
+    /**
+     * height getter
+     *
+     * @return amount of pixels by height
+     */
+    public int getNy() {
+        return _nY;
+    }
+
+    /**
+     * rays getter
+     *
+     * @param col pixel's column number
+     * @param row pixel's row number
+     * @return amount of rays traced for the pixel
+     */
+    public long getRays(int col, int row) {
+        return _rays[row * _nX + col];
+    }
+
+    /**
+     * time getter
+     *
+     * @param col pixel's column number
+     * @param row pixel's row number
+     * @return wall time of the pixel in nanoseconds
+     */
+    public long getNanos(int col, int row) {
+        return _nanos[row * _nX + col];
+    }
+
+    /**
+     * total time of a rectangular region of pixels (clipped to the image)
+     *
+     * @param firstCol column number of the region's top left pixel
+     * @param firstRow row number of the region's top left pixel
+     * @param width    width of the region in pixels
+     * @param height   height of the region in pixels
+     * @return wall time of the region in nanoseconds
+     */
+    public long getNanos(int firstCol, int firstRow, int width, int height) {
+        long sum = 0;
+        for (int row = firstRow; row < Math.min(firstRow + height, _nY); ++row)
+            for (int col = firstCol; col < Math.min(firstCol + width, _nX); ++col)
+                sum += _nanos[row * _nX + col];
+        return sum;
+    }
+
+    /**
+     * write the cost map to the images folder: heatmaps of the rays and of the time
+     * (name_rays.png and name_time.png) and the raw data (name.raw)
+     *
+     * @param name base name of the files
+     */
+    public void write(String name) {
+        ImageWriter rays = heatmap(name + "_rays", _rays);
+        heatmap(name + "_time", _nanos).writeToImage();
+        rays.writeToImage();
+        rays.writeRawData(name, _rays, _nanos);
+    }
+
+    /**
+     * create a false-colour heatmap of per pixel values. the colors are scaled
+     * logarithmically, since costs of pixels may differ by orders of magnitude
+     *
+     * @param name   name of the image
+     * @param values values of the pixels (row by row)
+     * @return image writer holding the heatmap
+     */
+    private ImageWriter heatmap(String name, long[] values) {
+        long max = 1;
+        for (long value : values) {
+            max = Math.max(max, value);
+        }
+        double logMax = Math.log1p(max);
+        ImageWriter imageWriter = new ImageWriter(name, _nX, _nY);
+        for (int row = 0; row < _nY; ++row)
+            for (int col = 0; col < _nX; ++col)
+                imageWriter.writePixel(col, row, heatColor(Math.log1p(values[row * _nX + col]) / logMax));
+        return imageWriter;
+    }
+
+    /**
+     * false colour of a value - blue for cheap pixels, through cyan, green and yellow, to red for expensive pixels
+     *
+     * @param value value in range [0,1]
+     * @return color of the value
+     */
+    static Color heatColor(double value) {
+        double v = Math.max(0, Math.min(1, value)) * 4;
+        if (v < 1)
+            return new Color(0, 255 * v, 255);
+        if (v < 2)
+            return new Color(0, 255, 255 * (2 - v));
+        if (v < 3)
+            return new Color(255 * (v - 2), 255, 0);
+        return new Color(255, 255 * (4 - v), 0);
+    }
+}
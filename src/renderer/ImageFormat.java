@@ -0,0 +1,51 @@
+package renderer;
+
+/**
+ * ImageFormat is the file format of the 8 bit images written by an image writer.
+ * the formats other than png are uncompressed, and are written straight from the
+ * pixel color matrix, so writing them is bound by the disk and not by the encoding
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public enum ImageFormat {
+    /**
+     * png - deflate compressed
+     */
+    PNG("png"),
+    /**
+     * binary portable pixmap (P6) - RGB bytes, rows from the top down
+     */
+    PPM("ppm"),
+    /**
+     * 32 bit bitmap - BGRX bytes, rows from the top down (negative height)
+     */
+    BMP("bmp"),
+    /**
+     * raw RGB bytes without a header, rows from the top down
+     */
+    RAW("rgb");
+
+    /**
+     * extension of the files
+     */
+    private final String _extension;
+
+    /**
+     * ImageFormat constructor
+     *
+     * @param extension extension of the files
+     */
+    ImageFormat(String extension) {
+        _extension = extension;
+    }
+
+    /**
+     * extension getter
+     *
+     * @return extension of the files (without the dot)
+     */
+    public String getExtension() {
+        return _extension;
+    }
+}
@@ -2,8 +2,18 @@ package renderer;
 
 import primitives.Color;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -17,16 +27,26 @@ import javax.imageio.*;
  *
  * @author Dan
  */
-public class ImageWriter {
+public class ImageWriter implements PixelSink {
     private int nX;
     private int nY;
 
-    private static final String FOLDER_PATH = System.getProperty("user.dir") + "/images";
+    static final String FOLDER_PATH = System.getProperty("user.dir") + "/images";
 
     private BufferedImage image;
+    private float[] hdr; // unclamped RGB components of each pixel, row by row (null unless high dynamic range is kept)
     private String imageName;
+    private ImageFormat format = ImageFormat.PNG; // format of the file written by writeToImage
+    private static final int BAND_ROWS = 64; // rows converted into the buffer of each write of uncompressed formats
 
-    private Logger logger = Logger.getLogger("ImageWriter");
+    // OpenEXR magic number, version 2 (single part scanline file), flag of a single part tiled file
+    // and pixel type of 32 bit floats
+    private static final int EXR_MAGIC = 20000630;
+    private static final int EXR_VERSION = 2;
+    private static final int EXR_TILED = 0x200;
+    private static final int EXR_FLOAT = 2;
+
+    Logger logger = Logger.getLogger("ImageWriter");
 
     // ***************** Constructors ********************** //
     /**
@@ -49,6 +69,7 @@ public class ImageWriter {
      *
      * @return the amount of vertical pixels
      */
+    @Override
     public int getNy() {
         return nY;
     }
@@ -58,18 +79,84 @@ public class ImageWriter {
      *
      * @return the amount of horizontal pixels
      */
+    @Override
     public int getNx() {
         return nX;
     }
 
+    /**
+     * Name of the image file
+     *
+     * @return the name of the image (without extension)
+     */
+    @Override
+    public String getImageName() {
+        return imageName;
+    }
+
+    /**
+     * Set the name of the image file (e.g. the next frame of an animation written by the same image writer)
+     *
+     * @param imageName the name of the image (without extension)
+     * @return the image writer itself
+     */
+    public ImageWriter setImageName(String imageName) {
+        this.imageName = imageName;
+        return this;
+    }
+
+    /**
+     * Set the format of the file written by {@link #writeToImage()}
+     *
+     * @param format the format
+     * @return the image writer itself
+     */
+    public ImageWriter setFormat(ImageFormat format) {
+        this.format = format;
+        return this;
+    }
+
+    /**
+     * Format of the image file
+     *
+     * @return the format written by {@link #writeToImage()}
+     */
+    public ImageFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Set whether the unclamped colors of the pixels are kept, for {@link #writeToPfm()} and
+     * {@link #writeToExr()} (3 floats more for each pixel). must be set before the pixels are written
+     *
+     * @param keep true to keep the unclamped colors
+     * @return the image writer itself
+     */
+    public ImageWriter setHdr(boolean keep) {
+        if (!keep) {
+            hdr = null;
+        } else if (hdr == null) {
+            long size = (long) nX * nY * 3;
+            if (size > Integer.MAX_VALUE - 8)
+                throw new IllegalArgumentException("Image is too large to keep its unclamped colors");
+            hdr = new float[(int) size];
+        }
+        return this;
+    }
+
     // ***************** Operations ******************** //
 
     /**
      * Function writeToImage produces unoptimized png file of the image according to
-     * pixel color matrix in the directory of the project
+     * pixel color matrix in the directory of the project (or a file of the writer's format)
      */
+    @Override
     public void writeToImage() {
         try {
+            if (format != ImageFormat.PNG) {
+                writeUncompressed(imageName, format, nX, nY, pixels());
+                return;
+            }
             File file = new File(FOLDER_PATH + '/' + imageName + ".png");
             ImageIO.write(image, "png", file);
         } catch (IOException e) {
@@ -77,6 +164,239 @@ public class ImageWriter {
         }
     }
 
+    /**
+     * write an image in an uncompressed format - the pixels are converted band by band
+     * of rows into a buffer that is written to the file in bulk
+     *
+     * @param imageName name of the image (without extension)
+     * @param format    the format (not png)
+     * @param nX        amount of pixels by Width
+     * @param nY        amount of pixels by height
+     * @param pixels    RGB of the pixels, row by row
+     * @throws IOException if the file can't be written
+     */
+    static void writeUncompressed(String imageName, ImageFormat format, int nX, int nY, int[] pixels)
+            throws IOException {
+        ByteBuffer header;
+        switch (format) {
+            case PPM:
+                header = ByteBuffer.wrap(("P6\n" + nX + " " + nY + "\n255\n").getBytes(StandardCharsets.US_ASCII));
+                break;
+            case BMP:
+                //file header, then info header of 32 bit uncompressed pixels (negative height - rows from the top down)
+                header = ByteBuffer.allocate(54).order(ByteOrder.LITTLE_ENDIAN);
+                header.put((byte) 'B').put((byte) 'M').putInt(54 + nX * nY * 4).putInt(0).putInt(54);
+                header.putInt(40).putInt(nX).putInt(-nY).putShort((short) 1).putShort((short) 32)
+                        .putInt(0).putInt(nX * nY * 4).putInt(2835).putInt(2835).putInt(0).putInt(0);
+                header.flip();
+                break;
+            default:
+                header = ByteBuffer.allocate(0);
+        }
+        int pixelSize = format == ImageFormat.BMP ? 4 : 3;
+        ByteBuffer band = ByteBuffer.allocateDirect(BAND_ROWS * nX * pixelSize).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(Paths.get(FOLDER_PATH, imageName + "." + format.getExtension()),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            for (int first = 0; first < nY; first += BAND_ROWS) {
+                int end = Math.min(nY, first + BAND_ROWS) * nX;
+                band.clear();
+                if (pixelSize == 4) {
+                    //little-endian 0x00RRGGBB ints are the B, G, R and unused bytes of the bitmap
+                    band.asIntBuffer().put(pixels, first * nX, end - first * nX);
+                    band.limit((end - first * nX) * 4);
+                } else {
+                    for (int i = first * nX; i < end; ++i)
+                        band.put((byte) (pixels[i] >> 16)).put((byte) (pixels[i] >> 8)).put((byte) pixels[i]);
+                    band.flip();
+                }
+                writeFully(channel, band);
+            }
+        }
+    }
+
+    /**
+     * Function writeToPfm produces a Portable Float Map (PFM) file of the image's unclamped
+     * colors in the directory of the project - high dynamic range, without compression
+     * @throws IllegalStateException if the unclamped colors are not kept (see {@link #setHdr(boolean)})
+     */
+    public void writeToPfm() {
+        if (hdr == null)
+            throw new IllegalStateException("Unclamped colors are not kept by the image writer");
+        ByteBuffer header = ByteBuffer.wrap(("PF\n" + nX + " " + nY + "\n-1.0\n").getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer row = ByteBuffer.allocateDirect(nX * 3 * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(Paths.get(FOLDER_PATH, imageName + ".pfm"),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            //PFM rows go from the bottom of the image up (negative scale means little-endian floats)
+            for (int y = nY - 1; y >= 0; --y) {
+                row.clear();
+                row.asFloatBuffer().put(hdr, y * nX * 3, nX * 3);
+                writeFully(channel, row);
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+        }
+    }
+
+    /**
+     * Function writeToExr produces an OpenEXR file of the image's unclamped colors in the
+     * directory of the project - high dynamic range, 32 bit float channels, without compression
+     * (a single part scanline file with one line in each block)
+     * @throws IllegalStateException if the unclamped colors are not kept (see {@link #setHdr(boolean)})
+     */
+    public void writeToExr() {
+        if (hdr == null)
+            throw new IllegalStateException("Unclamped colors are not kept by the image writer");
+        ByteBuffer header = exrHeader(nX, nY, 0, nY);
+
+        //offsets of the lines' blocks from the start of the file
+        int lineSize = nX * 3 * Float.BYTES;
+        long offset = header.position() + (long) nY * Long.BYTES;
+        for (int y = 0; y < nY; ++y, offset += 2 * Integer.BYTES + lineSize)
+            header.putLong(offset);
+        header.flip();
+
+        ByteBuffer block = ByteBuffer.allocateDirect(2 * Integer.BYTES + lineSize).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(Paths.get(FOLDER_PATH, imageName + ".exr"),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            for (int y = 0; y < nY; ++y) {
+                block.clear();
+                block.putInt(y).putInt(lineSize);
+                //each channel's values of the whole line, in the channels' order
+                for (int c = 2; c >= 0; --c)
+                    for (int x = 0; x < nX; ++x)
+                        block.putFloat(hdr[(y * nX + x) * 3 + c]);
+                block.flip();
+                writeFully(channel, block);
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+        }
+    }
+
+    /**
+     * build the header of an OpenEXR file with 32 bit float R, G and B channels, without compression.
+     * the buffer has room for the offsets table after the header, and its position is at the table
+     *
+     * @param nX       amount of pixels by Width
+     * @param nY       amount of pixels by height
+     * @param tileSize edge length of the tiles in pixels, 0 for a scanline file
+     * @param blocks   amount of blocks (lines or tiles) in the offsets table
+     * @return the header's buffer (little-endian)
+     */
+    static ByteBuffer exrHeader(int nX, int nY, int tileSize, int blocks) {
+        ByteBuffer header = ByteBuffer.allocate(512 + blocks * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(EXR_MAGIC).putInt(tileSize == 0 ? EXR_VERSION : EXR_VERSION | EXR_TILED);
+        //channels are listed (and stored) in alphabetical order
+        exrAttribute(header, "channels", "chlist", 3 * 18 + 1);
+        for (String name : new String[]{"B", "G", "R"}) {
+            header.put((byte) name.charAt(0)).put((byte) 0);
+            header.putInt(EXR_FLOAT).putInt(0).putInt(1).putInt(1);//type, linear flag and reserved, sampling
+        }
+        header.put((byte) 0);
+        exrAttribute(header, "compression", "compression", 1);
+        header.put((byte) 0);//no compression
+        exrAttribute(header, "dataWindow", "box2i", 16);
+        header.putInt(0).putInt(0).putInt(nX - 1).putInt(nY - 1);
+        exrAttribute(header, "displayWindow", "box2i", 16);
+        header.putInt(0).putInt(0).putInt(nX - 1).putInt(nY - 1);
+        exrAttribute(header, "lineOrder", "lineOrder", 1);
+        header.put((byte) (tileSize == 0 ? 0 : 2));//increasing y, or random order of tiles
+        exrAttribute(header, "pixelAspectRatio", "float", 4);
+        header.putFloat(1);
+        exrAttribute(header, "screenWindowCenter", "v2f", 8);
+        header.putFloat(0).putFloat(0);
+        exrAttribute(header, "screenWindowWidth", "float", 4);
+        header.putFloat(1);
+        if (tileSize != 0) {
+            exrAttribute(header, "tiles", "tiledesc", 9);
+            header.putInt(tileSize).putInt(tileSize).put((byte) 0);//a single level
+        }
+        header.put((byte) 0);//end of header
+        return header;
+    }
+
+    /**
+     * write the name, type and size of an OpenEXR header attribute (its value follows)
+     *
+     * @param header buffer of the header
+     * @param name   name of the attribute
+     * @param type   type of the attribute
+     * @param size   size of the attribute's value in bytes
+     */
+    private static void exrAttribute(ByteBuffer header, String name, String type, int size) {
+        header.put(name.getBytes(StandardCharsets.US_ASCII)).put((byte) 0);
+        header.put(type.getBytes(StandardCharsets.US_ASCII)).put((byte) 0);
+        header.putInt(size);
+    }
+
+    /**
+     * write all the remaining bytes of a buffer to a channel
+     *
+     * @param channel the channel
+     * @param buffer  the buffer
+     * @throws IOException if the channel can't be written
+     */
+    static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    /**
+     * Function writeRawData produces a binary file of per pixel data in the directory of the project.
+     * the file starts with the resolution (nX, nY) and the amount of channels as ints,
+     * followed by the channels' values of each pixel, row by row, as longs (big-endian)
+     *
+     * @param fileName name of the file (without the .raw extension)
+     * @param channels per pixel values, row by row, each of length nX*nY
+     */
+    public void writeRawData(String fileName, long[]... channels) {
+        File file = new File(FOLDER_PATH + '/' + fileName + ".raw");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(nX);
+            out.writeInt(nY);
+            out.writeInt(channels.length);
+            for (int i = 0; i < nX * nY; ++i)
+                for (long[] channel : channels)
+                    out.writeLong(channel[i]);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+        }
+    }
+
+    /**
+     * The function getPixel reads the color of a specific pixel from pixel color matrix
+     *
+     * @param xIndex X axis index of the pixel
+     * @param yIndex Y axis index of the pixel
+     * @return color of the pixel
+     */
+    @Override
+    public java.awt.Color getPixel(int xIndex, int yIndex) {
+        return new java.awt.Color(image.getRGB(xIndex, yIndex));
+    }
+
+    /**
+     * copy the 8 bit colors of the pixel color matrix, so the image can be encoded
+     * while the writer is reused
+     *
+     * @return RGB of the pixels, row by row
+     */
+    int[] snapshot() {
+        return pixels().clone();
+    }
+
+    /**
+     * the pixel color matrix itself (not a copy)
+     *
+     * @return RGB of the pixels, row by row
+     */
+    private int[] pixels() {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
     /**
      * The function writePixel writes a color of a specific pixel into pixel color
      * matrix
@@ -85,8 +405,15 @@ public class ImageWriter {
      * @param yIndex Y axis index of the pixel
      * @param color  final color of the pixel
      */
+    @Override
     public void writePixel(int xIndex, int yIndex, Color color) {
         image.setRGB(xIndex, yIndex, color.getColor().getRGB());
+        if (hdr == null)
+            return;
+        int i = (yIndex * nX + xIndex) * 3;
+        hdr[i] = (float) color.getRed();
+        hdr[i + 1] = (float) color.getGreen();
+        hdr[i + 2] = (float) color.getBlue();
     }
 
 }
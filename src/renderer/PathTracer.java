@@ -0,0 +1,197 @@
+package renderer;
+
+import geometries.Intersectable.GeoPoint;
+import primitives.*;
+import scene.Scene;
+
+import static primitives.Util.alignZero;
+
+/**
+ * PathTracer is tracing rays from the camera to the scene by following, for each sample,
+ * a single path of reflections and refractions instead of a full tree of beams.
+ * at each point of the path the local effects are added (as in BasicRayTracer), and the path
+ * continues with a reflected ray (with probability Kr) or a refracted ray (with probability Kt),
+ * or ends. glossy and diffused surfaces scatter the continued ray to a single random point of the
+ * target surface. the average color of the paths equals the color of BasicRayTracer (except the
+ * background seen by secondary rays, which is weighted by the path like any other color), while
+ * the cost grows linearly with the depth, and the quality is controlled by the amount of samples
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public class PathTracer extends BasicRayTracer {
+    /**
+     * maximal amount of points on a path
+     */
+    private static final int MAX_PATH_LENGTH = 10;
+    /**
+     * amount of attempts to scatter a ray without passing to the other side of the surface
+     */
+    private static final int MAX_SCATTER_ATTEMPTS = 8;
+    /**
+     * amount of paths traced for each camera ray
+     */
+    private int _samples = 1;
+
+    /**
+     * PathTracer constructor
+     *
+     * @param scene instance of Scene
+     */
+    public PathTracer(Scene scene) {
+        super(scene);
+    }
+
+    /**
+     * samples per pixel setter
+     *
+     * @param samples amount of paths traced for each camera ray
+     * @return current PathTracer instance
+     */
+    public PathTracer setSamples(int samples) {
+        if (samples < 1) {
+            throw new IllegalArgumentException("Samples must be 1 or higher");
+        }
+        _samples = samples;
+        return this;
+    }
+
+    /**
+     * get the color of a single pixel by tracing paths starting with a ray from the camera
+     *
+     * @param ray ray from the camera
+     * @return the average color of the paths
+     */
+    @Override
+    public Color traceRay(Ray ray) {
+        _stats.countCameraRays(1);
+        GeoPoint closestPoint = findClosestIntersection(ray);
+        return closestPoint == null ? _compiledScene.getBackground() : tracePaths(closestPoint, ray);
+    }
+
+    /**
+     * get the colors of a packet of camera rays. the closest intersections
+     * of the packet are found together, the paths are traced separately
+     *
+     * @param rays packet of rays from the camera
+     * @return the average colors of the paths of each ray
+     */
+    @Override
+    public Color[] traceRays(Ray[] rays) {
+        _stats.countCameraRays(rays.length);
+        GeoPoint[] closestPoints = _compiledScene.getGeometries().findClosestIntersections(rays);
+        Color[] colors = new Color[rays.length];
+        for (int i = 0; i < rays.length; ++i) {
+            colors[i] = closestPoints[i] == null ? _compiledScene.getBackground() : tracePaths(closestPoints[i], rays[i]);
+        }
+        return colors;
+    }
+
+    /**
+     * trace the paths of a camera ray (all of them start at the ray's closest point)
+     * and add the ambient light effect to their average color
+     *
+     * @param geoPoint closest point of the camera ray
+     * @param ray      ray from the camera
+     * @return the average color of the paths
+     */
+    private Color tracePaths(GeoPoint geoPoint, Ray ray) {
+        Color color = Color.BLACK;
+        for (int i = 0; i < _samples; ++i) {
+            color = color.add(tracePath(geoPoint, ray));
+        }
+        return color.reduce(_samples).add(_compiledScene.getAmbientIntensity());
+    }
+
+    /**
+     * trace a single path iteratively. the color of each point on the path is weighted
+     * by the throughput - the weight of the path up to the point
+     *
+     * @param geoPoint first point of the path
+     * @param ray      ray from the camera
+     * @return color of the path
+     */
+    private Color tracePath(GeoPoint geoPoint, Ray ray) {
+        Color color = Color.BLACK;
+        double throughput = 1d;//weight of the path's samples
+        double k = 1d;//product of the coefficients of the path, as in BasicRayTracer
+        RandomStream random = random();
+        for (int depth = 0; ; ++depth) {
+            _stats.countShadedPoint(depth);
+            color = color.add(geoPoint._geometry.getEmission().add(calcLocalEffects(geoPoint, ray, k))
+                    .scale(throughput));
+            if (depth == MAX_PATH_LENGTH - 1) {
+                return color;
+            }
+
+            //choose reflection (probability Kr), refraction (probability Kt) or the end of the path.
+            //if Kr+Kt is above 1 the probabilities are normalized, and the throughput compensates
+            Material material = geoPoint._geometry.getMaterial();
+            double kr = material._Kr;
+            double kt = material._Kt;
+            double scale = Math.max(1d, kr + kt);
+            double u = random.nextDouble() * scale;
+            boolean reflection = u < kr;
+            if (!reflection && u >= kr + kt) {
+                return color;
+            }
+            double kx = reflection ? kr : kt;
+            k *= kx;
+            if (k <= MIN_CALC_COLOR_K) {
+                return color;
+            }
+            throughput *= scale;
+
+            Vector v = ray.getDir();
+            Vector n = geoPoint._geometry.getNormal(geoPoint._point);
+            ray = reflection ? constructReflectedRay(geoPoint._point, v, n)
+                    : constructRefractedRay(geoPoint._point, v, n);
+            double kGlossyOrClear = reflection ? material._kGlossy : material._kClear;
+            if (kGlossyOrClear == 100) {//perfect mirror or perfect transparent surface
+                if (reflection) {
+                    _stats.countReflectionRay();
+                } else {
+                    _stats.countRefractionRay();
+                }
+            } else {
+                ray = scatterRay(ray, n, kGlossyOrClear);
+                if (ray == null) {//no direction was drawn on the right side of the surface
+                    return color;
+                }
+                _stats.countGlossyRay();
+            }
+
+            geoPoint = findClosestIntersection(ray);
+            if (geoPoint == null) {
+                return color.add(_compiledScene.getBackground().scale(throughput));
+            }
+        }
+    }
+
+    /**
+     * scatter a reflected or refracted ray to a random point of its target surface
+     * (the surface the beams of BasicRayTracer are sent to). rays that pass to the
+     * other side of the surface are drawn again, and after too many attempts the path
+     * ends (keeping the central ray would bias the path toward the mirror direction)
+     *
+     * @param r              the central ray
+     * @param n              normal to the surface
+     * @param kGlossyOrClear coefficient of glossy or clear
+     * @return the scattered ray, null if all the attempts passed to the other side of the surface
+     */
+    private Ray scatterRay(Ray r, Vector n, double kGlossyOrClear) {
+        TargetSurface targetSurface = new TargetSurface(r, _upVector.normalize(), (100 - kGlossyOrClear) * 2);
+        Point3D p0 = r.getP0();
+        double rn = alignZero(r.getDir().dotProduct(n));
+        RandomStream random = random();
+        for (int i = 0; i < MAX_SCATTER_ATTEMPTS; ++i) {
+            Vector randomVector = targetSurface.getRight().scale(random.nextDouble(0, targetSurface.getEdgeLen()))
+                    .add(targetSurface.getDown().scale(random.nextDouble(0, targetSurface.getEdgeLen())));
+            Vector randomRayDir = targetSurface.getTopLeftPoint().add(randomVector).subtract(p0);
+            if (rn * alignZero(randomRayDir.dotProduct(n)) > 0) {
+                return new Ray(p0, randomRayDir);
+            }
+        }
+        return null;
+    }
+}
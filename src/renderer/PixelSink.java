@@ -0,0 +1,57 @@
+package renderer;
+
+import primitives.Color;
+
+/**
+ * PixelSink receives the colors of the rendered pixels of an image and completes the
+ * image's file once they are all written - e.g. an image writer holding the pixel color
+ * matrix in memory, or a writer streaming the pixels to the file as they are rendered
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public interface PixelSink {
+    /**
+     * View Plane X axis resolution
+     *
+     * @return the amount of horizontal pixels
+     */
+    int getNx();
+
+    /**
+     * View Plane Y axis resolution
+     *
+     * @return the amount of vertical pixels
+     */
+    int getNy();
+
+    /**
+     * Name of the image file
+     *
+     * @return the name of the image (without extension)
+     */
+    String getImageName();
+
+    /**
+     * write the color of a pixel (may be called by several threads at once, for different pixels)
+     *
+     * @param xIndex X axis index of the pixel
+     * @param yIndex Y axis index of the pixel
+     * @param color  final color of the pixel
+     */
+    void writePixel(int xIndex, int yIndex, Color color);
+
+    /**
+     * read the 8 bit color of a pixel that was written
+     *
+     * @param xIndex X axis index of the pixel
+     * @param yIndex Y axis index of the pixel
+     * @return color of the pixel
+     */
+    java.awt.Color getPixel(int xIndex, int yIndex);
+
+    /**
+     * complete the image's file with the written pixels
+     */
+    void writeToImage();
+}
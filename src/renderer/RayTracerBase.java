@@ -1,8 +1,10 @@
 package renderer;
 
 import primitives.Color;
+import primitives.RandomStream;
 import primitives.Ray;
 import primitives.Vector;
+import scene.CompiledScene;
 import scene.Scene;
 
 /**
@@ -16,10 +18,26 @@ public abstract class RayTracerBase {
      * scene to be colored
      */
     protected Scene _scene;
+    /**
+     * render-optimized snapshot of the scene, used while tracing rays
+     */
+    protected CompiledScene _compiledScene;
     /**
      * the up vector of the view plane
      */
     protected Vector _upVector;
+    /**
+     * statistics of the traced rays
+     */
+    protected final RenderStats _stats = new RenderStats();
+    /**
+     * seed of the frame's random streams
+     */
+    private long _seed = 0;
+    /**
+     * random stream of the pixel each thread is tracing
+     */
+    private final ThreadLocal<RandomStream> _random = ThreadLocal.withInitial(() -> new RandomStream(0));
 
     /**
      * RayTracerBase constructor
@@ -27,6 +45,70 @@ public abstract class RayTracerBase {
      */
     public RayTracerBase(Scene scene) {
         _scene = scene;
+        _compiledScene = scene.compile();
+        _compiledScene.getGeometries().setIntersectionCounter(_stats.getIntersectionCounter());
+    }
+
+    /**
+     * compile the scene again, so changes made to it since the last compilation take effect
+     */
+    public void compileScene() {
+        _compiledScene = _scene.compile();
+        _compiledScene.getGeometries().setIntersectionCounter(_stats.getIntersectionCounter());
+    }
+
+    /**
+     * bring the compiled scene up to date - when only geometries of the scene moved since it
+     * was compiled, the compiled scene is reused and its hierarchy refitted, otherwise the
+     * scene is compiled again
+     *
+     * @return true if the compiled scene was reused
+     */
+    public boolean updateScene() {
+        if (_compiledScene.update(_scene)) {
+            return true;
+        }
+        compileScene();
+        return false;
+    }
+
+    /**
+     * statistics getter
+     *
+     * @return statistics of the rays traced by the ray tracer
+     */
+    public RenderStats getRenderStats() {
+        return _stats;
+    }
+
+    /**
+     * frame seed setter
+     *
+     * @param seed seed of the frame's random streams
+     */
+    void setSeed(long seed) {
+        _seed = seed;
+    }
+
+    /**
+     * start tracing the rays of a pixel (or of a packet starting at the pixel) in the current
+     * thread - the random numbers drawn while tracing them are derived from the frame seed and the
+     * pixel, so the pixel's color does not depend on the thread or the order of the pixels
+     *
+     * @param col pixel's column
+     * @param row pixel's row
+     */
+    void beginPixel(int col, int row) {
+        _random.set(RandomStream.of(_seed, col, row, 0));
+    }
+
+    /**
+     * random stream getter
+     *
+     * @return random stream of the pixel the current thread is tracing
+     */
+    protected RandomStream random() {
+        return _random.get();
     }
 
     /**
@@ -36,6 +118,21 @@ public abstract class RayTracerBase {
      */
     public abstract Color traceRay(Ray ray);
 
+    /**
+     * determine the colors of the points a packet of coherent rays hit
+     * (e.g. camera rays through neighbouring pixels).
+     * contains default implementation tracing each ray separately
+     * @param rays packet of rays from the camera
+     * @return colors of the points, in the order of the rays
+     */
+    public Color[] traceRays(Ray[] rays) {
+        Color[] colors = new Color[rays.length];
+        for (int i = 0; i < rays.length; ++i) {
+            colors[i] = traceRay(rays[i]);
+        }
+        return colors;
+    }
+
     /**
      * upVector setter
      * @param vUp up vector of the view plane
@@ -1,11 +1,30 @@
 package renderer;
 
+import elements.AreaLight;
 import elements.Camera;
+import elements.DirectionalLight;
+import elements.LightSource;
+import elements.PointLight;
+import geometries.BoundingBox;
 import primitives.Color;
+import primitives.Point3D;
 import primitives.Ray;
+import primitives.SampleSequence;
+import scene.CompiledScene;
 import scene.Scene;
+import scene.SceneChanges;
 
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.MissingResourceException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
 import static primitives.Util.alignZero;
 
@@ -19,7 +38,7 @@ public class Render {
     /**
      * imageWriter write pixel's colors to image
      */
-     ImageWriter _imageWriter;
+     PixelSink _imageWriter;
     /**
      * the camera that watch the scene
      */
@@ -33,6 +52,23 @@ public class Render {
     private int threadsCount = 0;//number of desired threads
     private static final int SPARE_THREADS = 2; // Spare threads if trying to use all the cores
     private boolean print = false; // printing progress percentage
+    private int packetSize = 1; // edge length (in pixels) of camera ray packets, 1 traces single rays
+    private boolean costMapping = false; // recording the cost of each pixel
+    private CostMap costMap = null; // cost of each pixel of the last rendered image
+    private TileScheduler tileScheduler = null; // cost-aware ordering of tiles, null hands out pixels in order
+    private static final int PRE_PASS_SAMPLES = 2; // edge length of the pre-pass samples grid in each tile
+    private long seed = 0; // seed of the random numbers drawn while rendering the frame
+    private int pixelSamples = 1; // camera rays per pixel, 1 traces a single ray through the pixel's center
+    private SampleSequence sampleSequence = SampleSequence.RANDOM; // positions of the camera rays in the pixels
+    private String checkpointName = null; // name of the checkpoint file, null renders without a checkpoint
+    private static final int CHECKPOINT_TILE_SIZE = 32; // edge length (in pixels) of the tiles completed in the checkpoint
+    private Checkpoint checkpoint = null; // checkpoint of the image being rendered
+    private volatile boolean cancelled = false; // the render was cancelled, no more pixels are rendered
+    private Rectangle[] regions = null; // rectangles of pixels rendered into the image, null renders the whole image
+    private PixelSink renderedWriter = null; // image writer holding a complete render of the last compiled scene
+    private Camera renderedCamera = null; // camera of the last render
+    private double[] renderedView = null; // view plane's width, height and distance in the last render
+    private boolean sceneReuse = false; // reusing the compiled scene when only geometries moved since the last render
 
     /**
      * Set multi-threading <br>
@@ -53,6 +89,170 @@ public class Render {
         return this;
     }
 
+    /**
+     * Set ray packets mode - camera rays of square blocks of pixels are traced
+     * together through the scene (secondary rays are always traced separately)
+     *
+     * @param size edge length of a block in pixels (e.g. 4 or 8), 1 to trace single rays
+     * @return the Render object itself
+     */
+    public Render setPacketSize(int size) {
+        if (size < 1)
+            throw new IllegalArgumentException("Packet size must be 1 or higher");
+        this.packetSize = size;
+        return this;
+    }
+
+    /**
+     * Set cost mapping - the amount of rays and the wall time of each pixel are recorded
+     * while rendering (in packets mode the cost of a packet is divided evenly between its pixels)
+     *
+     * @param mapping true to record the cost of each pixel
+     * @return the Render object itself
+     */
+    public Render setCostMapping(boolean mapping) {
+        this.costMapping = mapping;
+        return this;
+    }
+
+    /**
+     * Set cost-aware tile scheduling for multi-threading - the image is divided to tiles,
+     * the most expensive tiles are rendered first and hot tiles are split, so no thread
+     * is left rendering alone at the end of the image. the costs are estimated by
+     * a low-resolution pre-pass, or taken from the tiles' times in the previous render <br>
+     * - if the parameter is 0 - pixels are handed to the threads in order
+     *
+     * @param tileSize edge length of the tiles in pixels (rounded up to whole packets)
+     * @return the Render object itself
+     */
+    public Render setTileScheduling(int tileSize) {
+        if (tileSize < 0)
+            throw new IllegalArgumentException("Tile size must be 0 or higher");
+        this.tileScheduler = tileSize == 0 ? null : new TileScheduler(tileSize);
+        return this;
+    }
+
+    /**
+     * Set the seed of the random numbers drawn while rendering (e.g. by glossy surfaces).
+     * the numbers of each pixel are derived from the seed and the pixel, so rendering the
+     * same frame with the same seed gives identical images, with any amount of threads
+     *
+     * @param seed seed of the frame
+     * @return the Render object itself
+     */
+    public Render setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Set antialiasing - several camera rays are traced through points spread
+     * inside each pixel (by the sample sequence), and their colors are averaged
+     *
+     * @param samples camera rays per pixel, 1 traces a single ray through the pixel's center
+     * @return the Render object itself
+     */
+    public Render setAntialiasing(int samples) {
+        if (samples < 1)
+            throw new IllegalArgumentException("Pixel samples must be 1 or higher");
+        this.pixelSamples = samples;
+        return this;
+    }
+
+    /**
+     * Set the sequence of the camera rays' positions in the pixels when antialiasing -
+     * low-discrepancy sequences reach the same noise with fewer rays than random positions
+     *
+     * @param sequence sequence of the positions
+     * @return the Render object itself
+     */
+    public Render setSampleSequence(SampleSequence sequence) {
+        this.sampleSequence = sequence;
+        return this;
+    }
+
+    /**
+     * Set a checkpoint - the colors of the pixels and the completed tiles are written to a
+     * memory-mapped file while rendering, so when the render is cancelled or killed, rendering
+     * the same image again with the same checkpoint renders only the tiles that were not completed.
+     * the file is kept after the image is complete (rendering again only reloads it),
+     * and is started over if the resolution changes. a fingerprint of the scene, camera and camera
+     * rays' settings is recorded in the file, and a checkpoint of another render is started over
+     * (the settings of the ray tracer are not recorded)
+     *
+     * @param name name of the checkpoint file in the images folder (without the .ckpt extension),
+     *             null to render without a checkpoint
+     * @return the Render object itself
+     */
+    public Render setCheckpoint(String name) {
+        this.checkpointName = name;
+        return this;
+    }
+
+    /**
+     * Set regions of interest - only the pixels inside the rectangles are traced into the
+     * image writer, the other pixels of its image are left untouched (e.g. re-rendering
+     * the pixels of an edited object into the previous image). parts of rectangles outside
+     * the image are ignored, and pixels of overlapping rectangles are traced for each one.
+     * the pixels are identical to the pixels of a whole render with the same seed
+     * (in packets mode the whole blocks of the image's packets grid that the rectangles cut are
+     * traced, and only the pixels inside the rectangles are written) <br>
+     * - without rectangles the whole image is rendered
+     *
+     * @param regions the rectangles of pixels (x and y are the column and row of the first pixel)
+     * @return the Render object itself
+     */
+    public Render setRegions(Rectangle... regions) {
+        this.regions = regions.length == 0 ? null : regions.clone();
+        return this;
+    }
+
+    /**
+     * Set a crop window - only the pixels inside the rectangle are traced into the image writer
+     *
+     * @param col column of the window's first pixel
+     * @param row row of the window's first pixel
+     * @param width width of the window in pixels
+     * @param height height of the window in pixels
+     * @return the Render object itself
+     */
+    public Render setCropWindow(int col, int row, int width, int height) {
+        if (width < 1 || height < 1)
+            throw new IllegalArgumentException("Crop window must have pixels");
+        return setRegions(new Rectangle(col, row, width, height));
+    }
+
+    /**
+     * Set reuse of the compiled scene - when only geometries of the scene moved since the last
+     * render (e.g. frames of an animation), the compiled scene is kept and its bounding volume
+     * hierarchy is refitted instead of compiling the scene again
+     * (rendering changes always compiles the scene)
+     *
+     * @param reuse true to reuse the compiled scene
+     * @return the Render object itself
+     */
+    public Render setSceneReuse(boolean reuse) {
+        this.sceneReuse = reuse;
+        return this;
+    }
+
+    /**
+     * scene reuse getter
+     *
+     * @return true if the compiled scene is reused when only geometries moved since the last render
+     */
+    public boolean isSceneReuse() {
+        return sceneReuse;
+    }
+
+    /**
+     * Cancel the render - the pixels, packets or tiles in progress are completed and no more
+     * are rendered, so the image is left incomplete (with a checkpoint the render can be resumed later)
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
     /**
      * Set debug printing on
      *
@@ -153,6 +353,13 @@ public class Render {
          * @return true if the work still in progress, -1 if it's done
          */
         public boolean nextPixel(Pixel target) {
+            if (Render.this.cancelled) {
+                if (Render.this.print)
+                    synchronized (this) {
+                        notifyAll();
+                    }
+                return false;
+            }
             int percent = nextP(target);
             if (Render.this.print && percent > 0)
                 synchronized (this) {
@@ -172,10 +379,11 @@ public class Render {
          */
         public void print() {
             if (Render.this.print)
-                while (this.percents < 100)
+                while (this.percents < 100 && !Render.this.cancelled)
                     try {
                         synchronized (this) {
-                            wait();
+                            if (this.percents < 100 && !Render.this.cancelled)
+                                wait();
                         }
                         System.out.printf("\r %02d%%", this.percents);
                         System.out.flush();
@@ -192,9 +400,157 @@ public class Render {
      * @param row pixel's row number (pixel index in column)
      */
     private void castRay(int nX, int nY, int col, int row) {
-        Ray ray = _camera.constructRayThroughPixel(nX, nY, col, row);
-        Color color = _rayTracer.traceRay(ray);
+        _rayTracer.beginPixel(col, row);
+        if (pixelSamples == 1) {
+            Ray ray = _camera.constructRayThroughPixel(nX, nY, col, row);
+            writePixel(col, row, _rayTracer.traceRay(ray));
+            return;
+        }
+        Color color = Color.BLACK;
+        for (double[] point : sampleSequence.points(pixelSamples, _rayTracer.random()))
+            color = color.add(_rayTracer.traceRay(_camera.constructRayThroughPixel(nX, nY, col, row, point[0], point[1])));
+        writePixel(col, row, color.reduce(pixelSamples));
+    }
+
+    /**
+     * Write the color of a pixel to the image writer and to the checkpoint
+     * @param col pixel's column number
+     * @param row pixel's row number
+     * @param color color of the pixel
+     */
+    private void writePixel(int col, int row, Color color) {
         _imageWriter.writePixel(col, row, color);
+        if (checkpoint != null)
+            checkpoint.writePixel(col, row, color);
+    }
+
+    /**
+     * Cast ray or packet of rays from camera and record the cost of its pixels
+     * @param nX resolution on X axis (number of pixels in row)
+     * @param nY resolution on Y axis (number of pixels in column)
+     * @param col pixel's or block's column number
+     * @param row pixel's or block's row number
+     */
+    private void castMeasured(int nX, int nY, int col, int row) {
+        RenderStats stats = _rayTracer.getRenderStats();
+        long rays = stats.getThreadRays();
+        long start = System.nanoTime();
+        if (packetSize == 1) {
+            castRay(nX, nY, col, row);
+            costMap.record(col, row, stats.getThreadRays() - rays, System.nanoTime() - start);
+        } else {
+            castPacket(nX, nY, col, row);
+            int firstCol = col * packetSize;
+            int firstRow = row * packetSize;
+            costMap.record(firstCol, firstRow, Math.min(packetSize, nX - firstCol), Math.min(packetSize, nY - firstRow),
+                    stats.getThreadRays() - rays, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Cast ray or packet of rays from camera in order to color a rectangle of pixels
+     * inside a block, and record its cost when cost mapping
+     * @param nX resolution on X axis (number of pixels in row)
+     * @param nY resolution on Y axis (number of pixels in column)
+     * @param block column and row of the rectangle's first pixel, its width and height
+     */
+    private void castBlock(int nX, int nY, int[] block) {
+        RenderStats stats = _rayTracer.getRenderStats();
+        long rays = stats.getThreadRays();
+        long start = System.nanoTime();
+        if (packetSize == 1)
+            castRay(nX, nY, block[0], block[1]);
+        else
+            castPacket(nX, nY, block[0], block[1], block[2], block[3]);
+        if (costMapping)
+            costMap.record(block[0], block[1], block[2], block[3], stats.getThreadRays() - rays,
+                    System.nanoTime() - start);
+    }
+
+    /**
+     * Cast a packet of rays from camera in order to color a square block of pixels
+     * @param nX resolution on X axis (number of pixels in row)
+     * @param nY resolution on Y axis (number of pixels in column)
+     * @param col block's column number (block index in row)
+     * @param row block's row number (block index in column)
+     */
+    private void castPacket(int nX, int nY, int col, int row) {
+        int firstCol = col * packetSize;
+        int firstRow = row * packetSize;
+        castPacket(nX, nY, firstCol, firstRow, Math.min(packetSize, nX - firstCol), Math.min(packetSize, nY - firstRow));
+    }
+
+    /**
+     * Cast a packet of rays from camera in order to color a rectangle of pixels inside a block.
+     * the whole block of the packets grid is traced, so the random numbers are drawn as in a
+     * render of the whole image, and only the rectangle's pixels are colored
+     * @param nX resolution on X axis (number of pixels in row)
+     * @param nY resolution on Y axis (number of pixels in column)
+     * @param firstCol column of the rectangle's first pixel
+     * @param firstRow row of the rectangle's first pixel
+     * @param width width of the rectangle in pixels
+     * @param height height of the rectangle in pixels
+     */
+    private void castPacket(int nX, int nY, int firstCol, int firstRow, int width, int height) {
+        int blockCol = firstCol - firstCol % packetSize;
+        int blockRow = firstRow - firstRow % packetSize;
+        int blockWidth = Math.min(packetSize, nX - blockCol);
+        int blockHeight = Math.min(packetSize, nY - blockRow);
+        Ray[] rays = new Ray[blockWidth * blockHeight];
+        double[] origins = new double[rays.length * 3];
+        double[] directions = new double[rays.length * 3];
+        _rayTracer.beginPixel(blockCol, blockRow);
+        Color[] colors;
+        if (pixelSamples == 1) {
+            _camera.constructRaysThroughTile(nX, nY, blockCol, blockRow, blockWidth, blockHeight, origins, directions);
+            colors = _rayTracer.traceRays(packet(_camera.get_p0(), directions, rays));
+        } else {
+            //a packet is traced for each sample, through the same point in all the pixels
+            colors = new Color[rays.length];
+            Arrays.fill(colors, Color.BLACK);
+            for (double[] point : sampleSequence.points(pixelSamples, _rayTracer.random())) {
+                _camera.constructRaysThroughTile(nX, nY, blockCol, blockRow, blockWidth, blockHeight, point[0], point[1],
+                        origins, directions);
+                Color[] sample = _rayTracer.traceRays(packet(_camera.get_p0(), directions, rays));
+                for (int k = 0; k < rays.length; ++k)
+                    colors[k] = colors[k].add(sample[k]);
+            }
+            for (int k = 0; k < rays.length; ++k)
+                colors[k] = colors[k].reduce(pixelSamples);
+        }
+        for (int row = firstRow; row < firstRow + height; ++row)
+            for (int col = firstCol; col < firstCol + width; ++col)
+                writePixel(col, row, colors[(row - blockRow) * blockWidth + col - blockCol]);
+    }
+
+    /**
+     * Build the rays of a packet from the rays' normalized directions (the camera's tile generator
+     * normalizes them, so they are neither copied nor normalized again)
+     * @param p0 the rays' starting point
+     * @param directions rays' normalized directions (x,y,z triplets)
+     * @param rays output - the packet's rays
+     * @return the packet's rays
+     */
+    private static Ray[] packet(Point3D p0, double[] directions, Ray[] rays) {
+        for (int i = 0, k = 0; i < rays.length; ++i, k += 3)
+            rays[i] = Ray.ofNormalized(p0, directions[k], directions[k + 1], directions[k + 2]);
+        return rays;
+    }
+
+    /**
+     * Cast ray or packet of rays (according to the packet size) from camera
+     * @param nX resolution on X axis (number of pixels in row)
+     * @param nY resolution on Y axis (number of pixels in column)
+     * @param col pixel's or block's column number
+     * @param row pixel's or block's row number
+     */
+    private void cast(int nX, int nY, int col, int row) {
+        if (costMapping)
+            castMeasured(nX, nY, col, row);
+        else if (packetSize == 1)
+            castRay(nX, nY, col, row);
+        else
+            castPacket(nX, nY, col, row);
     }
 
     /**
@@ -204,14 +560,15 @@ public class Render {
     private void renderImageThreaded() {
         final int nX = _imageWriter.getNx();
         final int nY = _imageWriter.getNy();
-        final Pixel thePixel = new Pixel(nY, nX);
+        //in packets mode the threads are handed blocks instead of pixels
+        final Pixel thePixel = new Pixel((nY + packetSize - 1) / packetSize, (nX + packetSize - 1) / packetSize);
         // Generate threads
         Thread[] threads = new Thread[threadsCount];
         for (int i = threadsCount - 1; i >= 0; --i) {
             threads[i] = new Thread(() -> {
                 Pixel pixel = new Pixel();
                 while (thePixel.nextPixel(pixel))
-                    castRay(nX, nY, pixel.col, pixel.row);
+                    cast(nX, nY, pixel.col, pixel.row);
             });
         }
         // Start threads
@@ -232,10 +589,217 @@ public class Render {
             System.out.print("\r100%");
     }
 
+    /**
+     * Order the tiles of the image by their cost for rendering with multi-threading.
+     * without times of the previous render the tiles' costs are estimated by a pre-pass
+     * @param nX resolution on X axis (number of pixels in row)
+     * @param nY resolution on Y axis (number of pixels in column)
+     * @return the tiles, in the order they should be rendered
+     */
+    private TileScheduler.Tile[] scheduleTiles(int nX, int nY) {
+        boolean estimate = !tileScheduler.hasTimings(nX, nY, packetSize);
+        TileScheduler.Tile[] tiles = tileScheduler.tiles(nX, nY, packetSize);
+        if (estimate)
+            runThreads(tiles.length, i -> estimate(nX, nY, tiles[i]));
+        return tileScheduler.order(tiles, threadsCount);
+    }
+
+    /**
+     * This function renders image's pixel color map from the scene included with
+     * the Renderer object - with multi-threading over tiles ordered by their cost
+     * @param ordered the tiles, in the order they should be rendered
+     */
+    private void renderImageTiled(TileScheduler.Tile[] ordered) {
+        final int nX = _imageWriter.getNx();
+        final int nY = _imageWriter.getNy();
+        runThreads(ordered.length, i -> {
+            TileScheduler.Tile tile = ordered[i];
+            long start = System.nanoTime();
+            //in packets mode tiles are made of whole blocks (except at the image's edges)
+            for (int row = tile._row / packetSize; row * packetSize < tile._row + tile._height; ++row)
+                for (int col = tile._col / packetSize; col * packetSize < tile._col + tile._width; ++col)
+                    cast(nX, nY, col, row);
+            tileScheduler.record(tile, System.nanoTime() - start);
+        });
+        tileScheduler.finish();
+
+        if (print)
+            System.out.print("\r100%");
+    }
+
+    /**
+     * This function renders the pixels of the regions of interest from the scene included
+     * with the Renderer object - block after block of the packets grid, cut by the regions
+     */
+    private void renderImageRegions() {
+        final int nX = _imageWriter.getNx();
+        final int nY = _imageWriter.getNy();
+        final List<int[]> blocks = new ArrayList<>();
+        for (Rectangle region : regions) {
+            Rectangle clipped = region.intersection(new Rectangle(0, 0, nX, nY));
+            if (clipped.isEmpty())
+                continue;
+            int endCol = clipped.x + clipped.width;
+            int endRow = clipped.y + clipped.height;
+            for (int row = clipped.y - clipped.y % packetSize; row < endRow; row += packetSize)
+                for (int col = clipped.x - clipped.x % packetSize; col < endCol; col += packetSize) {
+                    int firstCol = Math.max(col, clipped.x);
+                    int firstRow = Math.max(row, clipped.y);
+                    blocks.add(new int[]{firstCol, firstRow,
+                            Math.min(col + packetSize, endCol) - firstCol, Math.min(row + packetSize, endRow) - firstRow});
+                }
+        }
+        if (threadsCount == 0)
+            for (int i = 0; i < blocks.size() && !cancelled; ++i)
+                castBlock(nX, nY, blocks.get(i));
+        else
+            runThreads(blocks.size(), i -> castBlock(nX, nY, blocks.get(i)));
+
+        if (print)
+            System.out.print("\r100%");
+    }
+
+    /**
+     * This function renders image's pixel color map from the scene included with
+     * the Renderer object - tile after tile, recording the completed tiles in the checkpoint.
+     * tiles completed by a previous render are copied from the checkpoint instead of rendered
+     */
+    private void renderImageCheckpointed() {
+        final int nX = _imageWriter.getNx();
+        final int nY = _imageWriter.getNy();
+        //in packets mode tiles are made of whole blocks (except at the image's edges)
+        int tileSize = (CHECKPOINT_TILE_SIZE + packetSize - 1) / packetSize * packetSize;
+        try (Checkpoint resumed = new Checkpoint(Paths.get(ImageWriter.FOLDER_PATH, checkpointName + ".ckpt"),
+                nX, nY, tileSize, fingerprint())) {
+            int[] remaining = new int[resumed.getTiles()];
+            int count = 0;
+            for (int index = 0; index < resumed.getTiles(); ++index) {
+                if (!resumed.isComplete(index)) {
+                    remaining[count++] = index;
+                    continue;
+                }
+                int[] tile = resumed.getTile(index);
+                for (int row = tile[1]; row < tile[1] + tile[3]; ++row)
+                    for (int col = tile[0]; col < tile[0] + tile[2]; ++col)
+                        _imageWriter.writePixel(col, row, resumed.getPixel(col, row));
+            }
+            checkpoint = resumed;
+            IntConsumer task = i -> {
+                int[] tile = resumed.getTile(remaining[i]);
+                for (int row = tile[1] / packetSize; row * packetSize < tile[1] + tile[3]; ++row)
+                    for (int col = tile[0] / packetSize; col * packetSize < tile[0] + tile[2]; ++col)
+                        cast(nX, nY, col, row);
+                //the tile is marked only after all its pixels are in the file
+                resumed.complete(remaining[i]);
+            };
+            if (threadsCount == 0)
+                for (int i = 0; i < count && !cancelled; ++i)
+                    task.accept(i);
+            else
+                runThreads(count, task);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Can't write the checkpoint file " + checkpointName, e);
+        } finally {
+            checkpoint = null;
+        }
+
+        if (print)
+            System.out.print("\r100%");
+    }
+
+    /**
+     * Fingerprint of the render - a hash of its compiled scene, camera and the settings of its
+     * camera rays (seed, samples per pixel, sample sequence and packets)
+     * @return the fingerprint
+     */
+    long fingerprint() {
+        long hash = _rayTracer._compiledScene.fingerprint();
+        hash = hash * 31 + seed;
+        hash = hash * 31 + pixelSamples;
+        hash = hash * 31 + sampleSequence.ordinal();
+        hash = hash * 31 + packetSize;
+        for (Point3D point : new Point3D[]{_camera.get_p0(), _camera.get_vTo().getHead(), _camera.get_vUp().getHead()})
+            for (double value : new double[]{point.getX(), point.getY(), point.getZ()})
+                hash = hash * 31 + Double.doubleToLongBits(value);
+        for (double value : new double[]{_camera.get_width(), _camera.get_height(), _camera.get_distance()})
+            hash = hash * 31 + Double.doubleToLongBits(value);
+        return hash;
+    }
+
+    /**
+     * Estimate the cost of a tile by timing a low-resolution grid of camera rays through it
+     * (the colors are discarded)
+     * @param nX resolution on X axis (number of pixels in row)
+     * @param nY resolution on Y axis (number of pixels in column)
+     * @param tile the tile
+     */
+    private void estimate(int nX, int nY, TileScheduler.Tile tile) {
+        long start = System.nanoTime();
+        for (int i = 0; i < PRE_PASS_SAMPLES; ++i)
+            for (int j = 0; j < PRE_PASS_SAMPLES; ++j) {
+                int col = tile._col + tile._width * (2 * j + 1) / (2 * PRE_PASS_SAMPLES);
+                int row = tile._row + tile._height * (2 * i + 1) / (2 * PRE_PASS_SAMPLES);
+                _rayTracer.beginPixel(col, row);
+                _rayTracer.traceRay(_camera.constructRayThroughPixel(nX, nY, col, row));
+            }
+        tile._cost = (double) (System.nanoTime() - start) * tile._width * tile._height
+                / (PRE_PASS_SAMPLES * PRE_PASS_SAMPLES);
+    }
+
+    /**
+     * Run tasks by the render's threads - each thread takes the next task until all are done
+     * @param tasks amount of tasks
+     * @param task the task, receiving its number
+     */
+    private void runThreads(int tasks, IntConsumer task) {
+        final AtomicInteger next = new AtomicInteger();
+        Thread[] threads = new Thread[threadsCount];
+        for (int i = threadsCount - 1; i >= 0; --i) {
+            threads[i] = new Thread(() -> {
+                for (int t = next.getAndIncrement(); t < tasks && !cancelled; t = next.getAndIncrement())
+                    task.accept(t);
+            });
+        }
+        // Start threads
+        for (Thread thread : threads)
+            thread.start();
+
+        // Ensure all threads have finished
+        for (Thread thread : threads)
+            try {
+                thread.join();
+            } catch (Exception e) {
+            }
+    }
+
     /**
      * color each pixel of the view plane
      */
     public void renderImage() {
+        render(false);
+    }
+
+    /**
+     * color again only the pixels that may have changed since the last render - the pixels
+     * of the geometries that were added, removed, moved or whose emission or material was edited
+     * (before and after the change) and of the shadows they cast or stopped casting. the whole
+     * image is rendered when the changes can't be bounded (changes of the lights, the background
+     * or unbounded geometries, or any change in a scene with reflective or refractive materials),
+     * when the camera or the image writer changed, or when the image writer does not hold a complete
+     * render (the first render, a render of regions or a cancelled render). changes of the render's
+     * settings (e.g. the seed or antialiasing) are not tracked, and the regions of interest are ignored
+     * @return the rectangles of pixels that were rendered
+     */
+    public List<Rectangle> renderChanges() {
+        return render(true);
+    }
+
+    /**
+     * render the image, or only the pixels that may have changed since the last render
+     * @param changes true to render only the changes
+     * @return the rectangles of pixels that were rendered
+     */
+    private List<Rectangle> render(boolean changes) {
         //trow exception if one of the fields was not set yet
         try {
             if (_imageWriter == null) {
@@ -248,24 +812,188 @@ public class Render {
             if (_camera == null) {
                 throw new MissingResourceException("missing resource value", Camera.class.getName(), "");
             }
+            if ((changes || regions != null) && checkpointName != null)
+                throw new UnsupportedOperationException("Regions can't be rendered with a checkpoint");
+            cancelled = false;
+            //the image writer holds the last snapshot of the scene, seen by the same camera
+            CompiledScene previous = _rayTracer._compiledScene;
+            double[] view = {_camera.get_width(), _camera.get_height(), _camera.get_distance()};
+            boolean sameView = renderedWriter == _imageWriter && renderedCamera == _camera
+                    && Arrays.equals(renderedView, view);
             _rayTracer.set_upVector(_camera.get_vUp());
+            _rayTracer.setSeed(seed);
+            //snapshot the scene as it is now
+            if (sceneReuse && !changes)
+                _rayTracer.updateScene();
+            else
+                _rayTracer.compileScene();
             //rendering the image
             final int nX= _imageWriter.getNx();//amount of pixels in x axis (width)
             final int nY=_imageWriter.getNy();//amount of pixels in y axis (height)
-            //iterate each pixel of the view plane, send ray from the camera through it
-            //and determine the color
-            if (threadsCount == 0)
-                for (int i = 0; i < nY; ++i)
-                    for (int j = 0; j < nX; ++j)
-                        castRay(nX, nY, j, i);
-            else
-                renderImageThreaded();
+            Rectangle[] interest = regions;
+            if (changes)
+                regions = sameView ? changedRegions(previous, nX, nY) : null;
+            Rectangle[] rendered = regions;
+            //the pre-pass estimating the tiles is not counted in the render's statistics
+            TileScheduler.Tile[] tiles = regions == null && checkpointName == null && threadsCount != 0
+                    && tileScheduler != null ? scheduleTiles(nX, nY) : null;
+            RenderStats stats = _rayTracer.getRenderStats();
+            stats.start(_rayTracer._compiledScene.getName());
+            stats.setCountThreadRays(costMapping);
+            costMap = costMapping ? new CostMap(nX, nY) : null;
+            try {
+                //iterate each pixel of the view plane, send ray from the camera through it
+                //and determine the color
+                if (regions != null)
+                    renderImageRegions();
+                else if (checkpointName != null)
+                    renderImageCheckpointed();
+                else if (threadsCount == 0)
+                    for (int i = 0; i * packetSize < nY && !cancelled; ++i)
+                        for (int j = 0; j * packetSize < nX && !cancelled; ++j)
+                            cast(nX, nY, j, i);
+                else if (tiles != null)
+                    renderImageTiled(tiles);
+                else
+                    renderImageThreaded();
+            } finally {
+                regions = interest;
+            }
+            stats.finish();
+
+            //only a complete image of the scene can be updated by its changes
+            boolean complete = !cancelled && (rendered == null || changes);
+            renderedWriter = complete ? _imageWriter : null;
+            renderedCamera = _camera;
+            renderedView = view;
+            return rendered == null ? Collections.singletonList(new Rectangle(0, 0, nX, nY)) : Arrays.asList(rendered);
 
         } catch (MissingResourceException exception) {
             throw new UnsupportedOperationException("Not all fields were set yet" + exception.getClassName());
         }
+    }
+
+    /**
+     * find the rectangles of pixels that may have changed since a previous snapshot of the scene -
+     * the projections of the changed geometries' boxes, and of the shadow volumes of the boxes
+     * of geometries that were added, removed or moved (the boxes extruded away from each light)
+     * @param previous the previous snapshot of the scene
+     * @param nX resolution on X axis (number of pixels in row)
+     * @param nY resolution on Y axis (number of pixels in column)
+     * @return the rectangles, or null if the whole image may have changed
+     */
+    private Rectangle[] changedRegions(CompiledScene previous, int nX, int nY) {
+        CompiledScene scene = _rayTracer._compiledScene;
+        SceneChanges changes = scene.changesSince(previous);
+        if (changes.isGlobal())
+            return null;
+        List<Rectangle> changed = new ArrayList<>();
+        for (BoundingBox box : changes.getShaded())
+            if (!project(changed, nX, nY, corners(box), new double[0][]))
+                return null;
+        for (BoundingBox box : changes.getMoved()) {
+            Point3D[] corners = corners(box);
+            if (!project(changed, nX, nY, corners, new double[0][]))
+                return null;
+            for (LightSource light : scene.getLights()) {
+                double[][] directions = shadowDirections(corners, light);
+                if (directions == null || !project(changed, nX, nY, corners, directions))
+                    return null;
+            }
+        }
+        return changed.toArray(new Rectangle[0]);
+    }
+
+    /**
+     * the corners of a box
+     * @param box the box
+     * @return the eight corners
+     */
+    private static Point3D[] corners(BoundingBox box) {
+        Point3D min = box.getMin();
+        Point3D max = box.getMax();
+        Point3D[] corners = new Point3D[8];
+        for (int i = 0; i < 8; ++i)
+            corners[i] = new Point3D((i & 1) == 0 ? min.getX() : max.getX(), (i & 2) == 0 ? min.getY() : max.getY(),
+                    (i & 4) == 0 ? min.getZ() : max.getZ());
+        return corners;
+    }
 
+    /**
+     * the directions a box's shadow extends to from its corners - away from each point of the light
+     * (the corners of an area light's bounds)
+     * @param corners corners of the box
+     * @param light the light
+     * @return the directions, or null if they can't be found (e.g. the light is on the box's corner)
+     */
+    private static double[][] shadowDirections(Point3D[] corners, LightSource light) {
+        if (light instanceof DirectionalLight) {
+            Point3D direction = light.getL(corners[0]).getHead();
+            return new double[][]{{direction.getX(), direction.getY(), direction.getZ()}};
+        }
+        Point3D[] sources;
+        if (light instanceof AreaLight)
+            sources = ((AreaLight) light).getCorners();
+        else if (light instanceof PointLight)
+            sources = new Point3D[]{((PointLight) light).getPosition()};
+        else
+            return null;
+        double[][] directions = new double[sources.length * corners.length][];
+        int k = 0;
+        for (Point3D source : sources)
+            for (Point3D corner : corners) {
+                double x = corner.getX() - source.getX();
+                double y = corner.getY() - source.getY();
+                double z = corner.getZ() - source.getZ();
+                if (x == 0 && y == 0 && z == 0)
+                    return null;
+                directions[k++] = new double[]{x, y, z};
+            }
+        return directions;
+    }
 
+    /**
+     * add the rectangle of pixels bounding the projection of a convex volume - points and the
+     * directions the volume extends to from them (a margin of a pixel is added, and the rectangle
+     * is cut by the image)
+     * @param rectangles the rectangles, the new rectangle is added unless it is contained in one of them
+     * @param nX resolution on X axis (number of pixels in row)
+     * @param nY resolution on Y axis (number of pixels in column)
+     * @param points the points
+     * @param directions the directions (x,y,z)
+     * @return false if the volume is not seen only in front of the camera
+     */
+    private boolean project(List<Rectangle> rectangles, int nX, int nY, Point3D[] points, double[][] directions) {
+        double minCol = Double.POSITIVE_INFINITY, minRow = Double.POSITIVE_INFINITY;
+        double maxCol = Double.NEGATIVE_INFINITY, maxRow = Double.NEGATIVE_INFINITY;
+        List<double[]> positions = new ArrayList<>();
+        for (Point3D point : points)
+            positions.add(_camera.projectPoint(nX, nY, point));
+        for (double[] direction : directions)
+            positions.add(_camera.projectDirection(nX, nY, direction[0], direction[1], direction[2]));
+        for (double[] position : positions) {
+            if (position == null)
+                return false;
+            minCol = Math.min(minCol, position[0]);
+            maxCol = Math.max(maxCol, position[0]);
+            minRow = Math.min(minRow, position[1]);
+            maxRow = Math.max(maxRow, position[1]);
+        }
+        //pixel j covers the positions from j-0.5 to j+0.5
+        int firstCol = (int) Math.floor(Math.max(-1, minCol) + 0.5) - 1;
+        int firstRow = (int) Math.floor(Math.max(-1, minRow) + 0.5) - 1;
+        int lastCol = (int) Math.floor(Math.min(nX, maxCol) + 0.5) + 1;
+        int lastRow = (int) Math.floor(Math.min(nY, maxRow) + 0.5) + 1;
+        Rectangle rectangle = new Rectangle(firstCol, firstRow, lastCol - firstCol + 1, lastRow - firstRow + 1)
+                .intersection(new Rectangle(0, 0, nX, nY));
+        if (rectangle.isEmpty())
+            return true;
+        for (Rectangle other : rectangles)
+            if (other.contains(rectangle))
+                return true;
+        rectangles.removeIf(rectangle::contains);
+        rectangles.add(rectangle);
+        return true;
     }
 
     /**
@@ -308,14 +1036,61 @@ public class Render {
         _imageWriter.writeToImage();
     }
 
+    /**
+     * write the image in the background - the pixels are copied, so the next image can be
+     * rendered (into the same image writer) while the png file is encoded and written
+     * @param asyncWriter the background writer
+     * @return future completed when the file is written
+     */
+    public CompletableFuture<Void> writeToImage(AsyncImageWriter asyncWriter) {
+        //cannot write to image if imageWriter was not defined yet
+        if (_imageWriter == null) {
+            throw new MissingResourceException("missing resource", ImageWriter.class.getName(), "");
+        }
+        return asyncWriter.write(_imageWriter);
+    }
+
+    /**
+     * cost map getter
+     *
+     * @return cost of each pixel of the last rendered image (null if cost mapping was off)
+     */
+    public CostMap getCostMap() {
+        return costMap;
+    }
+
+    /**
+     * write the cost map of the last rendered image to the images folder, as heatmaps
+     * of the rays and the time of each pixel (imageName_cost_rays.png, imageName_cost_time.png)
+     * and as raw data (imageName_cost.raw)
+     */
+    public void writeCostMap() {
+        if (costMap == null) {
+            throw new MissingResourceException("missing resource", CostMap.class.getName(), "");
+        }
+        costMap.write(_imageWriter.getImageName() + "_cost");
+    }
+
+    /**
+     * statistics getter
+     *
+     * @return statistics of the last rendered image (rays, recursion depth and intersection tests)
+     */
+    public RenderStats getRenderStats() {
+        if (_rayTracer == null) {
+            throw new MissingResourceException("missing resource", RayTracerBase.class.getName(), "");
+        }
+        return _rayTracer.getRenderStats();
+    }
+
     //chaining setters methods
 
     /**
      * imageWriter chaining setter
-     * @param imageWriter ImageWriter object
+     * @param imageWriter receiver of the pixels' colors, e.g. an ImageWriter object
      * @return current Render instance
      */
-    public Render setImageWriter(ImageWriter imageWriter) {
+    public Render setImageWriter(PixelSink imageWriter) {
         _imageWriter = imageWriter;
         return this;
     }
@@ -0,0 +1,39 @@
+package renderer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event of rendering an image, carrying the render's statistics.
+ * recorded only when a JFR recording with the event enabled is running
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+@Name("renderer.Render")
+@Label("Render")
+@Category("Ray Tracer")
+@Description("Rendering of an image and its ray statistics")
+class RenderEvent extends Event {
+    @Label("Scene")
+    String scene;
+    @Label("Camera Rays")
+    long cameraRays;
+    @Label("Shadow Rays")
+    long shadowRays;
+    @Label("Reflection Rays")
+    long reflectionRays;
+    @Label("Refraction Rays")
+    long refractionRays;
+    @Label("Glossy Rays")
+    long glossyRays;
+    @Label("Box Tests")
+    long boxTests;
+    @Label("Geometry Tests")
+    long geometryTests;
+    @Label("Max Depth")
+    int maxDepth;
+}
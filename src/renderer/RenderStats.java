@@ -0,0 +1,357 @@
+package renderer;
+
+import geometries.IntersectionCounter;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RenderStats collects statistics of rendering an image - how many rays of each kind
+ * were traced, how deep the recursion of reflections and refractions went and how many
+ * intersection tests were done. the counters are striped, so the rendering threads
+ * do not contend on them, and they are summed when they are read.
+ * when a JFR recording is running, each render is also emitted as a JFR event
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public final class RenderStats {
+    /**
+     * rays from the camera
+     */
+    private final LongAdder _cameraRays = new LongAdder();
+    /**
+     * rays from shaded points to the light sources
+     */
+    private final LongAdder _shadowRays = new LongAdder();
+    /**
+     * shadow rays blocked by the last occluder of their light, without querying the whole scene
+     */
+    private final LongAdder _occluderHits = new LongAdder();
+    /**
+     * reflection rays of perfect mirrors
+     */
+    private final LongAdder _reflectionRays = new LongAdder();
+    /**
+     * refraction rays of perfectly clear surfaces
+     */
+    private final LongAdder _refractionRays = new LongAdder();
+    /**
+     * rays of glossy and diffused beams
+     */
+    private final LongAdder _glossyRays = new LongAdder();
+    /**
+     * amount of shaded points
+     */
+    private final LongAdder _shadedPoints = new LongAdder();
+    /**
+     * sum of the recursion depths of the shaded points
+     */
+    private final LongAdder _depthSum = new LongAdder();
+    /**
+     * maximum recursion depth of the shaded points
+     */
+    private final LongAccumulator _maxDepth = new LongAccumulator(Math::max, 0);
+    /**
+     * intersection tests of all the rays
+     */
+    private final IntersectionCounter _intersections = new IntersectionCounter();
+    /**
+     * rays traced by each thread, used to measure the cost of single pixels
+     */
+    private final ThreadLocal<long[]> _threadRays = ThreadLocal.withInitial(() -> new long[1]);
+    /**
+     * whether the rays of each thread are counted
+     */
+    private volatile boolean _countThreadRays = false;
+
+    /**
+     * duration of the last render in nanoseconds
+     */
+    private volatile long _renderNanos;
+    /**
+     * JFR event of the current render (null if no render is in progress)
+     */
+    private RenderEvent _event;
+
+    /**
+     * reset the statistics and start timing a render
+     *
+     * @param name name of the rendered scene
+     */
+    void start(String name) {
+        reset();
+        _event = new RenderEvent();
+        _event.scene = name;
+        _event.begin();
+        _renderNanos = System.nanoTime();
+    }
+
+    /**
+     * stop timing the render and emit its JFR event
+     */
+    void finish() {
+        _renderNanos = System.nanoTime() - _renderNanos;
+        RenderEvent event = _event;
+        _event = null;
+        if (event != null && event.shouldCommit()) {
+            event.cameraRays = getCameraRays();
+            event.shadowRays = getShadowRays();
+            event.reflectionRays = getReflectionRays();
+            event.refractionRays = getRefractionRays();
+            event.glossyRays = getGlossyRays();
+            event.boxTests = getBoxTests();
+            event.geometryTests = getGeometryTests();
+            event.maxDepth = (int) getMaxDepth();
+            event.commit();
+        }
+    }
+
+    /**
+     * reset all the counters to zero
+     */
+    public void reset() {
+        _cameraRays.reset();
+        _shadowRays.reset();
+        _occluderHits.reset();
+        _reflectionRays.reset();
+        _refractionRays.reset();
+        _glossyRays.reset();
+        _shadedPoints.reset();
+        _depthSum.reset();
+        _maxDepth.reset();
+        _intersections.reset();
+        _renderNanos = 0;
+    }
+
+    //counting methods, used by the ray tracers
+
+    /**
+     * count traced camera rays
+     *
+     * @param amount amount of rays
+     */
+    void countCameraRays(int amount) {
+        _cameraRays.add(amount);
+        countThreadRays(amount);
+    }
+
+    /**
+     * count a traced shadow ray
+     */
+    void countShadowRay() {
+        _shadowRays.increment();
+        countThreadRays(1);
+    }
+
+    /**
+     * count a shadow ray blocked by the cached occluder of its light
+     */
+    void countOccluderHit() {
+        _occluderHits.increment();
+    }
+
+    /**
+     * count a traced reflection ray of a perfect mirror
+     */
+    void countReflectionRay() {
+        _reflectionRays.increment();
+        countThreadRays(1);
+    }
+
+    /**
+     * count a traced refraction ray of a perfectly clear surface
+     */
+    void countRefractionRay() {
+        _refractionRays.increment();
+        countThreadRays(1);
+    }
+
+    /**
+     * count a traced ray of a glossy or diffused beam
+     */
+    void countGlossyRay() {
+        _glossyRays.increment();
+        countThreadRays(1);
+    }
+
+    /**
+     * add traced rays to the current thread's counter, if the rays of each thread are counted
+     *
+     * @param amount amount of rays
+     */
+    private void countThreadRays(int amount) {
+        if (_countThreadRays) {
+            _threadRays.get()[0] += amount;
+        }
+    }
+
+    /**
+     * turn on or off counting the rays traced by each thread
+     *
+     * @param count true to count the rays of each thread
+     */
+    void setCountThreadRays(boolean count) {
+        _countThreadRays = count;
+    }
+
+    /**
+     * current thread's rays getter (the difference between two calls
+     * is the amount of rays the thread traced between them)
+     *
+     * @return amount of rays traced by the current thread
+     */
+    long getThreadRays() {
+        return _threadRays.get()[0];
+    }
+
+    /**
+     * count a shaded point
+     *
+     * @param depth recursion depth of the point (0 for points hit by camera rays)
+     */
+    void countShadedPoint(int depth) {
+        _shadedPoints.increment();
+        _depthSum.add(depth);
+        _maxDepth.accumulate(depth);
+    }
+
+    /**
+     * intersections counter getter
+     *
+     * @return counter of the intersection tests, to be attached to the scene's geometries
+     */
+    IntersectionCounter getIntersectionCounter() {
+        return _intersections;
+    }
+
+    //getters
+
+    /**
+     * camera rays getter
+     *
+     * @return amount of traced camera rays
+     */
+    public long getCameraRays() {
+        return _cameraRays.sum();
+    }
+
+    /**
+     * shadow rays getter
+     *
+     * @return amount of traced shadow rays
+     */
+    public long getShadowRays() {
+        return _shadowRays.sum();
+    }
+
+    /**
+     * occluder hits getter
+     *
+     * @return amount of shadow rays blocked by the cached occluder of their light
+     */
+    public long getOccluderHits() {
+        return _occluderHits.sum();
+    }
+
+    /**
+     * reflection rays getter
+     *
+     * @return amount of traced reflection rays of perfect mirrors
+     */
+    public long getReflectionRays() {
+        return _reflectionRays.sum();
+    }
+
+    /**
+     * refraction rays getter
+     *
+     * @return amount of traced refraction rays of perfectly clear surfaces
+     */
+    public long getRefractionRays() {
+        return _refractionRays.sum();
+    }
+
+    /**
+     * glossy rays getter
+     *
+     * @return amount of traced rays of glossy and diffused beams
+     */
+    public long getGlossyRays() {
+        return _glossyRays.sum();
+    }
+
+    /**
+     * total rays getter
+     *
+     * @return amount of traced rays of all the kinds
+     */
+    public long getTotalRays() {
+        return getCameraRays() + getShadowRays() + getReflectionRays() + getRefractionRays() + getGlossyRays();
+    }
+
+    /**
+     * average recursion depth getter
+     *
+     * @return average recursion depth of the shaded points
+     */
+    public double getAverageDepth() {
+        long points = _shadedPoints.sum();
+        return points == 0 ? 0 : (double) _depthSum.sum() / points;
+    }
+
+    /**
+     * maximum recursion depth getter
+     *
+     * @return maximum recursion depth of the shaded points
+     */
+    public long getMaxDepth() {
+        return _maxDepth.get();
+    }
+
+    /**
+     * box tests getter
+     *
+     * @return amount of ray-box tests
+     */
+    public long getBoxTests() {
+        return _intersections.getBoxTests();
+    }
+
+    /**
+     * geometry tests getter
+     *
+     * @return amount of ray-geometry tests
+     */
+    public long getGeometryTests() {
+        return _intersections.getGeometryTests();
+    }
+
+    /**
+     * intersection tests per ray getter
+     *
+     * @return average amount of ray-geometry tests per traced ray
+     */
+    public double getGeometryTestsPerRay() {
+        long rays = getTotalRays();
+        return rays == 0 ? 0 : (double) getGeometryTests() / rays;
+    }
+
+    /**
+     * render time getter
+     *
+     * @return duration of the last render in nanoseconds
+     */
+    public long getRenderNanos() {
+        return _renderNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("rays: camera=%d shadow=%d (occluder hits=%d) reflection=%d refraction=%d glossy=%d, " +
+                        "depth: average=%.2f max=%d, tests: box=%d geometry=%d (%.1f per ray), time=%.3fs",
+                getCameraRays(), getShadowRays(), getOccluderHits(), getReflectionRays(), getRefractionRays(), getGlossyRays(),
+                getAverageDepth(), getMaxDepth(), getBoxTests(), getGeometryTests(), getGeometryTestsPerRay(),
+                _renderNanos / 1e9);
+    }
+}
@@ -0,0 +1,164 @@
+package renderer;
+
+import elements.Camera;
+import scene.CompiledScene;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * SequenceRenderer renders the frames of an animation - before each frame the scene
+ * is updated and the camera is placed on its path. the frames reuse the compiled scene
+ * while only geometries move (the bounding volume hierarchy is refitted instead of built
+ * again), and are pipelined - each frame is written in the background while the next
+ * frames are rendered
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public class SequenceRenderer {
+    /**
+     * the render of the frames (its ray tracer, camera and settings)
+     */
+    private final Render _render;
+    /**
+     * camera of each frame, null keeps the render's camera
+     */
+    private IntFunction<Camera> _cameraPath = null;
+    /**
+     * update of the scene before each frame, null for a still scene
+     */
+    private IntConsumer _update = null;
+    /**
+     * format of the frames' files
+     */
+    private ImageFormat _format = ImageFormat.PNG;
+    /**
+     * amount of threads writing the frames
+     */
+    private int _writerThreads = 1;
+    /**
+     * amount of frames being written while the next frame is rendered
+     */
+    private int _pendingFrames = 2;
+    /**
+     * amount of frames that reused the compiled scene of the previous frame
+     */
+    private int _reusedScenes = 0;
+    /**
+     * image writer of the frames, reused while the resolution is the same (null before the first sequence)
+     */
+    private ImageWriter _imageWriter = null;
+
+    /**
+     * SequenceRenderer constructor
+     *
+     * @param render the render of the frames, with its ray tracer set
+     */
+    public SequenceRenderer(Render render) {
+        _render = render;
+    }
+
+    /**
+     * camera path setter
+     *
+     * @param cameraPath the camera of each frame (receiving the frame's number)
+     * @return current SequenceRenderer instance
+     */
+    public SequenceRenderer setCameraPath(IntFunction<Camera> cameraPath) {
+        _cameraPath = cameraPath;
+        return this;
+    }
+
+    /**
+     * scene update setter
+     *
+     * @param update update of the scene before each frame (receiving the frame's number),
+     *               e.g. moving geometries
+     * @return current SequenceRenderer instance
+     */
+    public SequenceRenderer setUpdate(IntConsumer update) {
+        _update = update;
+        return this;
+    }
+
+    /**
+     * format setter
+     *
+     * @param format format of the frames' files
+     * @return current SequenceRenderer instance
+     */
+    public SequenceRenderer setFormat(ImageFormat format) {
+        _format = format;
+        return this;
+    }
+
+    /**
+     * Set the pipeline of the frames' writing
+     *
+     * @param threads amount of threads writing the frames
+     * @param pending amount of frames being written while the next frame is rendered
+     *                (the memory of the frames' pixels is held until they are written)
+     * @return current SequenceRenderer instance
+     */
+    public SequenceRenderer setWriting(int threads, int pending) {
+        if (threads < 1 || pending < 1)
+            throw new IllegalArgumentException("Writing threads and pending frames must be 1 or higher");
+        _writerThreads = threads;
+        _pendingFrames = pending;
+        return this;
+    }
+
+    /**
+     * reused scenes getter
+     *
+     * @return amount of frames in the last sequence that reused the compiled scene of the previous frame
+     */
+    public int getReusedScenes() {
+        return _reusedScenes;
+    }
+
+    /**
+     * render the frames and write them to files named by the sequence's name and the frame's
+     * number (e.g. name0007.png). returns after all the frames were written
+     *
+     * @param name   name of the sequence
+     * @param nX     amount of pixels by width
+     * @param nY     amount of pixels by height
+     * @param frames amount of frames
+     */
+    public void renderSequence(String name, int nX, int nY, int frames) {
+        _reusedScenes = 0;
+        boolean sceneReuse = _render.isSceneReuse();
+        _render.setSceneReuse(true);
+        //the frames are rendered into the same image writer, renamed for each frame
+        if (_imageWriter == null || _imageWriter.getNx() != nX || _imageWriter.getNy() != nY)
+            _imageWriter = new ImageWriter(name, nX, nY);
+        _imageWriter.setFormat(_format);
+        Deque<CompletableFuture<Void>> pending = new ArrayDeque<>();
+        try (AsyncImageWriter writer = new AsyncImageWriter(_writerThreads)) {
+            for (int frame = 0; frame < frames; ++frame) {
+                if (_update != null)
+                    _update.accept(frame);
+                if (_cameraPath != null)
+                    _render.setCamera(_cameraPath.apply(frame));
+                _imageWriter.setImageName(String.format("%s%04d", name, frame));
+                CompiledScene compiled = _render._rayTracer._compiledScene;
+                _render.setImageWriter(_imageWriter).renderImage();
+                if (frame > 0 && compiled == _render._rayTracer._compiledScene)
+                    ++_reusedScenes;
+                //the frame's pixels and name are copied, it is written while the next frames are rendered
+                pending.addLast(writer.write(_imageWriter));
+                while (pending.size() > _pendingFrames)
+                    pending.removeFirst().join();
+            }
+            for (CompletableFuture<Void> future : pending)
+                future.join();
+        } finally {
+            _render.setSceneReuse(sceneReuse);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package renderer;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * TileScheduler orders the tiles of an image for rendering by their estimated cost -
+ * the most expensive tiles are handed to the threads first and hot tiles are split,
+ * so the threads finish together instead of waiting for the last expensive tile.
+ * the cost of each tile is estimated by a low-resolution pre-pass, or taken from
+ * the time the tile took in the previous frame
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+class TileScheduler {
+    /**
+     * a tile whose cost is higher than this part of a thread's fair share is split
+     */
+    private static final int HOT_TILE_FACTOR = 4;
+
+    /**
+     * Tile is a rectangular region of pixels rendered by a single thread
+     */
+    static class Tile {
+        /**
+         * top left pixel of the tile
+         */
+        final int _col, _row;
+        /**
+         * size of the tile in pixels (clipped to the image)
+         */
+        final int _width, _height;
+        /**
+         * index of the (unsplit) tile in the tiles grid, used to record its time
+         */
+        final int _index;
+        /**
+         * estimated cost of the tile
+         */
+        double _cost;
+
+        /**
+         * Tile constructor
+         *
+         * @param col    column of the tile's top left pixel
+         * @param row    row of the tile's top left pixel
+         * @param width  width of the tile in pixels
+         * @param height height of the tile in pixels
+         * @param index  index of the tile in the tiles grid
+         */
+        Tile(int col, int row, int width, int height, int index) {
+            _col = col;
+            _row = row;
+            _width = width;
+            _height = height;
+            _index = index;
+        }
+    }
+
+    /**
+     * edge length of the tiles in pixels
+     */
+    private final int _tileSize;
+    /**
+     * resolution and packet size the timings were recorded with
+     */
+    private int _nX = 0, _nY = 0, _packetSize = 0;
+    /**
+     * time of each tile in the previous frame (null before the first frame)
+     */
+    private long[] _timings = null;
+    /**
+     * time of each tile in the current frame
+     */
+    private AtomicLongArray _currentTimings;
+
+    /**
+     * TileScheduler constructor
+     *
+     * @param tileSize edge length of the tiles in pixels
+     */
+    TileScheduler(int tileSize) {
+        _tileSize = tileSize;
+    }
+
+    /**
+     * edge length of the tiles, rounded up to whole packets
+     *
+     * @param packetSize edge length of the camera ray packets
+     * @return edge length of the tiles in pixels
+     */
+    private int size(int packetSize) {
+        return (_tileSize + packetSize - 1) / packetSize * packetSize;
+    }
+
+    /**
+     * divide an image to tiles and start recording their times
+     *
+     * @param nX         amount of pixels by width
+     * @param nY         amount of pixels by height
+     * @param packetSize edge length of the camera ray packets
+     * @return tiles of the image, with their costs from the previous frame if they can be reused
+     * (zero costs otherwise)
+     */
+    Tile[] tiles(int nX, int nY, int packetSize) {
+        int size = size(packetSize);
+        int cols = (nX + size - 1) / size;
+        int rows = (nY + size - 1) / size;
+        boolean reuse = hasTimings(nX, nY, packetSize);
+        Tile[] tiles = new Tile[cols * rows];
+        for (int i = 0; i < rows; ++i)
+            for (int j = 0; j < cols; ++j) {
+                int index = i * cols + j;
+                tiles[index] = new Tile(j * size, i * size,
+                        Math.min(size, nX - j * size), Math.min(size, nY - i * size), index);
+                tiles[index]._cost = reuse ? _timings[index] : 0;
+            }
+        _nX = nX;
+        _nY = nY;
+        _packetSize = packetSize;
+        _currentTimings = new AtomicLongArray(tiles.length);
+        return tiles;
+    }
+
+    /**
+     * check whether the timings of the previous frame can be reused
+     *
+     * @param nX         amount of pixels by width
+     * @param nY         amount of pixels by height
+     * @param packetSize edge length of the camera ray packets
+     * @return true if the previous frame was rendered with the same tiles
+     */
+    boolean hasTimings(int nX, int nY, int packetSize) {
+        return _timings != null && _nX == nX && _nY == nY && _packetSize == packetSize;
+    }
+
+    /**
+     * order tiles by their cost for rendering by several threads - hot tiles
+     * are split into quarters, and the tiles are sorted from the most expensive
+     *
+     * @param tiles   tiles with their estimated costs
+     * @param threads amount of rendering threads
+     * @return the tiles in rendering order
+     */
+    Tile[] order(Tile[] tiles, int threads) {
+        double total = 0;
+        for (Tile tile : tiles) {
+            total += tile._cost;
+        }
+        double threshold = total / (threads * HOT_TILE_FACTOR);
+        List<Tile> ordered = new LinkedList<>();
+        for (Tile tile : tiles) {
+            split(tile, threshold, ordered);
+        }
+        Tile[] result = ordered.toArray(new Tile[0]);
+        Arrays.sort(result, Comparator.comparingDouble((Tile tile) -> tile._cost).reversed());
+        return result;
+    }
+
+    /**
+     * split a tile recursively into quarters while it is hotter than the threshold
+     * (tiles are not split below the packet size)
+     *
+     * @param tile      the tile
+     * @param threshold maximal cost of a tile
+     * @param result    list to add the tile or its parts to
+     */
+    private void split(Tile tile, double threshold, List<Tile> result) {
+        //halves of the tile, rounded up to whole packets
+        int width = (tile._width / 2 + _packetSize - 1) / _packetSize * _packetSize;
+        int height = (tile._height / 2 + _packetSize - 1) / _packetSize * _packetSize;
+        if (tile._cost <= threshold || width == 0 || height == 0 || width >= tile._width || height >= tile._height) {
+            result.add(tile);
+            return;
+        }
+        int[][] parts = {
+                {tile._col, tile._row, width, height},
+                {tile._col + width, tile._row, tile._width - width, height},
+                {tile._col, tile._row + height, width, tile._height - height},
+                {tile._col + width, tile._row + height, tile._width - width, tile._height - height}};
+        for (int[] part : parts) {
+            Tile quarter = new Tile(part[0], part[1], part[2], part[3], tile._index);
+            quarter._cost = tile._cost * part[2] * part[3] / (tile._width * tile._height);
+            split(quarter, threshold, result);
+        }
+    }
+
+    /**
+     * record the time a tile (or a part of it) took
+     *
+     * @param tile  the tile
+     * @param nanos rendering time of the tile in nanoseconds
+     */
+    void record(Tile tile, long nanos) {
+        _currentTimings.addAndGet(tile._index, nanos);
+    }
+
+    /**
+     * keep the times of the current frame's tiles for scheduling the next frame
+     */
+    void finish() {
+        long[] timings = new long[_currentTimings.length()];
+        for (int i = 0; i < timings.length; ++i) {
+            timings[i] = _currentTimings.get(i);
+        }
+        _timings = timings;
+    }
+}
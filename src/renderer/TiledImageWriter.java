@@ -0,0 +1,313 @@
+package renderer;
+
+import primitives.Color;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * TiledImageWriter is an image writer streaming the image to a tiled OpenEXR file
+ * (unclamped 32 bit float colors) instead of holding it in memory. the pixels of each tile
+ * are gathered in memory only until the tile is complete, then the tile is appended to the file,
+ * so the memory is proportional to the tiles in flight and not to the image (e.g. when the
+ * pixels are rendered row by row, to a row of tiles). pixels written again after their tile
+ * was written to the file are updated in the file.
+ * {@link #writeToImage()} completes the file
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public class TiledImageWriter implements PixelSink {
+    /**
+     * name of the image file (without the .exr extension)
+     */
+    private final String _imageName;
+    /**
+     * amount of pixels by width and by height
+     */
+    private final int _nX, _nY;
+    /**
+     * edge length of the tiles in pixels
+     */
+    private final int _tileSize;
+    /**
+     * amount of tiles in a row
+     */
+    private final int _tilesX;
+    /**
+     * amount of tiles in a column
+     */
+    private final int _tilesY;
+    /**
+     * the file
+     */
+    private final FileChannel _channel;
+    /**
+     * position of the tiles' offsets table in the file
+     */
+    private final long _tableOffset;
+    /**
+     * end of the file, where the next tile is appended
+     */
+    private final AtomicLong _end;
+    /**
+     * the tiles that pixels were written to
+     */
+    private final Map<Integer, Tile> _tiles = new ConcurrentHashMap<>();
+
+    private final Logger logger = Logger.getLogger("TiledImageWriter");
+
+    /**
+     * Tile is a tile of the image - its pixels while it is in flight,
+     * and its position in the file after it was written
+     */
+    private static class Tile {
+        /**
+         * index of the tile (row by row)
+         */
+        private final int _index;
+        /**
+         * edge lengths of the tile in pixels (smaller at the image's edges)
+         */
+        private final int _width, _height;
+        /**
+         * RGB components of the tile's pixels, row by row (null after the tile was written)
+         */
+        private float[] _data;
+        /**
+         * amount of pixels not written yet
+         */
+        private int _remaining;
+        /**
+         * position of the tile in the file
+         */
+        private long _offset;
+
+        /**
+         * Tile constructor
+         *
+         * @param index  index of the tile
+         * @param width  width of the tile in pixels
+         * @param height height of the tile in pixels
+         */
+        private Tile(int index, int width, int height) {
+            _index = index;
+            _width = width;
+            _height = height;
+            _data = new float[width * height * 3];
+            _remaining = width * height;
+        }
+    }
+
+    /**
+     * TiledImageWriter constructor. creates the file and writes its header
+     *
+     * @param imageName the name of the image file (without the .exr extension)
+     * @param nX        amount of pixels by Width
+     * @param nY        amount of pixels by height
+     * @param tileSize  edge length of the tiles in pixels
+     */
+    public TiledImageWriter(String imageName, int nX, int nY, int tileSize) {
+        if (tileSize < 1)
+            throw new IllegalArgumentException("Tile size must be 1 or higher");
+        _imageName = imageName;
+        _nX = nX;
+        _nY = nY;
+        _tileSize = tileSize;
+        _tilesX = (nX + tileSize - 1) / tileSize;
+        _tilesY = (nY + tileSize - 1) / tileSize;
+        ByteBuffer header = ImageWriter.exrHeader(nX, nY, tileSize, _tilesX * _tilesY);
+        _tableOffset = header.position();
+        //the offsets table is filled as the tiles are written
+        _end = new AtomicLong(_tableOffset + (long) _tilesX * _tilesY * Long.BYTES);
+        header.flip();
+        try {
+            _channel = FileChannel.open(Paths.get(ImageWriter.FOLDER_PATH, imageName + ".exr"), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ImageWriter.writeFully(_channel, header);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Can't create the image file " + imageName, e);
+        }
+    }
+
+    @Override
+    public int getNx() {
+        return _nX;
+    }
+
+    @Override
+    public int getNy() {
+        return _nY;
+    }
+
+    @Override
+    public String getImageName() {
+        return _imageName;
+    }
+
+    /**
+     * get the tile of a pixel, creating it if no pixel of the tile was written yet
+     *
+     * @param xIndex X axis index of the pixel
+     * @param yIndex Y axis index of the pixel
+     * @return the tile
+     */
+    private Tile tile(int xIndex, int yIndex) {
+        int col = xIndex / _tileSize, row = yIndex / _tileSize;
+        return _tiles.computeIfAbsent(row * _tilesX + col, index -> new Tile(index,
+                Math.min(_tileSize, _nX - col * _tileSize), Math.min(_tileSize, _nY - row * _tileSize)));
+    }
+
+    /**
+     * position of a pixel's value in a tile's block in the file. each line of the
+     * block holds the B, G and R values of the line's pixels, channel after channel
+     *
+     * @param tile    the tile
+     * @param x       X axis index of the pixel in the tile
+     * @param y       Y axis index of the pixel in the tile
+     * @param channel index of the channel (0 red, 1 green, 2 blue)
+     * @return position of the value in the file
+     */
+    private long position(Tile tile, int x, int y, int channel) {
+        return tile._offset + 5 * Integer.BYTES + ((long) (y * 3 + 2 - channel) * tile._width + x) * Float.BYTES;
+    }
+
+    /**
+     * write the color of a pixel into its tile, and append the tile to the file once it is complete
+     *
+     * @param xIndex X axis index of the pixel
+     * @param yIndex Y axis index of the pixel
+     * @param color  final color of the pixel
+     */
+    @Override
+    public void writePixel(int xIndex, int yIndex, Color color) {
+        Tile tile = tile(xIndex, yIndex);
+        int x = xIndex % _tileSize, y = yIndex % _tileSize;
+        synchronized (tile) {
+            if (tile._data == null) {//the tile is already in the file
+                ByteBuffer value = ByteBuffer.allocate(Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                double[] components = {color.getRed(), color.getGreen(), color.getBlue()};
+                try {
+                    for (int c = 0; c < 3; ++c) {
+                        value.clear();
+                        value.putFloat((float) components[c]).flip();
+                        _channel.write(value, position(tile, x, y, c));
+                    }
+                } catch (IOException e) {
+                    logger.log(Level.SEVERE, "I/O error", e);
+                }
+                return;
+            }
+            int i = (y * tile._width + x) * 3;
+            tile._data[i] = (float) color.getRed();
+            tile._data[i + 1] = (float) color.getGreen();
+            tile._data[i + 2] = (float) color.getBlue();
+            if (--tile._remaining == 0)
+                flush(tile);
+        }
+    }
+
+    /**
+     * read the color of a pixel from its tile in memory or in the file
+     *
+     * @param xIndex X axis index of the pixel
+     * @param yIndex Y axis index of the pixel
+     * @return color of the pixel
+     */
+    @Override
+    public java.awt.Color getPixel(int xIndex, int yIndex) {
+        Tile tile = tile(xIndex, yIndex);
+        int x = xIndex % _tileSize, y = yIndex % _tileSize;
+        double[] components = new double[3];
+        synchronized (tile) {
+            if (tile._data != null) {
+                for (int c = 0; c < 3; ++c)
+                    components[c] = tile._data[(y * tile._width + x) * 3 + c];
+            } else {
+                ByteBuffer value = ByteBuffer.allocate(Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                try {
+                    for (int c = 0; c < 3; ++c) {
+                        value.clear();
+                        _channel.read(value, position(tile, x, y, c));
+                        components[c] = value.getFloat(0);
+                    }
+                } catch (IOException e) {
+                    logger.log(Level.SEVERE, "I/O error", e);
+                }
+            }
+        }
+        return new Color(components[0], components[1], components[2]).getColor();
+    }
+
+    /**
+     * append a tile to the file and release its pixels (the caller holds the tile's lock)
+     *
+     * @param tile the tile
+     */
+    private void flush(Tile tile) {
+        int size = tile._width * tile._height * 3 * Float.BYTES;
+        ByteBuffer block = ByteBuffer.allocate(5 * Integer.BYTES + size).order(ByteOrder.LITTLE_ENDIAN);
+        block.putInt(tile._index % _tilesX).putInt(tile._index / _tilesX).putInt(0).putInt(0).putInt(size);
+        //each line holds the channels' values of its pixels, channel after channel
+        for (int y = 0; y < tile._height; ++y)
+            for (int c = 2; c >= 0; --c)
+                for (int x = 0; x < tile._width; ++x)
+                    block.putFloat(tile._data[(y * tile._width + x) * 3 + c]);
+        block.flip();
+        tile._offset = _end.getAndAdd(block.limit());
+        ByteBuffer offset = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(0, tile._offset);
+        try {
+            for (long position = tile._offset; block.hasRemaining(); )
+                position += _channel.write(block, position);
+            _channel.write(offset, _tableOffset + (long) tile._index * Long.BYTES);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+        }
+        tile._data = null;
+    }
+
+    /**
+     * complete the file - tiles in flight are written with their missing pixels black,
+     * as are the tiles no pixel was written to, and the file is closed
+     */
+    @Override
+    public void writeToImage() {
+        for (int index = 0; index < _tilesX * _tilesY; ++index) {
+            Tile tile = tile(index % _tilesX * _tileSize, index / _tilesX * _tileSize);
+            synchronized (tile) {
+                if (tile._data != null)
+                    flush(tile);
+            }
+        }
+        try {
+            _channel.close();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+        }
+    }
+
+    /**
+     * amount of tiles in flight getter
+     *
+     * @return amount of tiles whose pixels are held in memory
+     */
+    public int getTilesInFlight() {
+        int count = 0;
+        for (Tile tile : _tiles.values()) {
+            synchronized (tile) {
+                if (tile._data != null)
+                    ++count;
+            }
+        }
+        return count;
+    }
+}
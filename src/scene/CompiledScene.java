@@ -0,0 +1,448 @@
+package scene;
+
+import elements.AreaLight;
+import elements.Light;
+import elements.LightSource;
+import elements.PointLight;
+import elements.SpotLight;
+import geometries.BoundingBox;
+import geometries.BoundingVolumeHierarchy;
+import geometries.Geometries;
+import geometries.Geometry;
+import geometries.Intersectable;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point3D;
+
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * class CompiledScene is a snapshot of a scene's structure optimized for rendering:
+ * the lights are kept in an array and a light tree, and the geometries are flattened
+ * into a bounding volume hierarchy. adding or removing lights and geometries after
+ * compiling does not affect the compiled scene, but the geometries and lights themselves
+ * are shared with the scene - their materials, emission and lights' parameters are read
+ * as they are while rendering, and after geometries move the hierarchy must be refitted
+ * (see {@link #refit()} and {@link #update(Scene)}). the state of each geometry and light
+ * is recorded when compiling, so the changes are found by comparing with a later snapshot
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public final class CompiledScene {
+    /**
+     * name of the scene
+     */
+    private final String _name;
+    /**
+     * background color
+     */
+    private final Color _background;
+    /**
+     * intensity of the ambient light
+     */
+    private final Color _ambientIntensity;
+    /**
+     * bounding volume hierarchy over all the geometries of the scene
+     */
+    private final BoundingVolumeHierarchy _geometries;
+    /**
+     * all the light sources
+     */
+    private final LightSource[] _lights;
+    /**
+     * hierarchy over the lights' regions of influence
+     */
+    private final LightTree _lightTree;
+    /**
+     * snapshot of each geometry's version, bounding box, emission and material (for tracking changes)
+     */
+    private final Map<Geometry, GeometryState> _states = new IdentityHashMap<>();
+    /**
+     * version of each light source
+     */
+    private final int[] _lightVersions;
+    /**
+     * the scene has geometries whose changes can't be tracked (not a Geometry)
+     */
+    private boolean _untracked = false;
+    /**
+     * the scene has reflective or refractive materials
+     */
+    private boolean _reflective = false;
+    /**
+     * highest reflectance (kd+ks) of the materials (bounds a light's contribution to a point)
+     */
+    private double _reflectance = 0;
+    /**
+     * amount of geometries in the flattened scene
+     */
+    private final int _geometryCount;
+
+    /**
+     * GeometryState is the state of a geometry when the scene was compiled
+     */
+    private static class GeometryState {
+        /**
+         * version of the geometry
+         */
+        private final int _version;
+        /**
+         * bounding box of the geometry (null if it is unbounded)
+         */
+        private final BoundingBox _box;
+        /**
+         * emission of the geometry
+         */
+        private final Color _emission;
+        /**
+         * copy of the material of the geometry
+         */
+        private final Material _material;
+
+        /**
+         * GeometryState constructor
+         *
+         * @param geometry the geometry
+         */
+        private GeometryState(Geometry geometry) {
+            _version = geometry.getVersion();
+            _box = geometry.getBoundingBox();
+            _emission = geometry.getEmission();
+            _material = new Material(geometry.getMaterial());
+        }
+    }
+
+    /**
+     * CompiledScene constructor. snapshots the scene
+     *
+     * @param scene the compiled scene
+     */
+    public CompiledScene(Scene scene) {
+        _name = scene._name;
+        _background = scene._background;
+        _ambientIntensity = scene._ambientLight.getIntensity();
+
+        //flatten nested geometries collections and snapshot the geometries' states
+        List<Intersectable> intersectables = new LinkedList<>();
+        flatten(scene._geometries, intersectables);
+        _geometryCount = intersectables.size();
+        _geometries = new BoundingVolumeHierarchy(intersectables);
+
+        _lights = scene._lights.toArray(new LightSource[0]);
+        _lightTree = new LightTree(_lights, _reflectance);
+        _lightVersions = new int[_lights.length];
+        for (int i = 0; i < _lights.length; ++i) {
+            _lightVersions[i] = _lights[i].getVersion();
+        }
+    }
+
+    /**
+     * add recursively the geometries of a collection to a flat list, and snapshot
+     * the state of each geometry
+     *
+     * @param geometries     geometries collection
+     * @param intersectables flat list of the geometries
+     */
+    private void flatten(Geometries geometries, List<Intersectable> intersectables) {
+        for (Intersectable intersectable : geometries.getIntersectables()) {
+            if (intersectable instanceof Geometries) {
+                flatten((Geometries) intersectable, intersectables);
+                continue;
+            }
+            intersectables.add(intersectable);
+            if (intersectable instanceof Geometry) {
+                GeometryState state = new GeometryState((Geometry) intersectable);
+                _states.put((Geometry) intersectable, state);
+                _reflective |= state._material._Kr > 0 || state._material._Kt > 0;
+                _reflectance = Math.max(_reflectance, state._material._Kd + state._material._Ks);
+            } else {
+                _untracked = true;
+            }
+        }
+    }
+
+    /**
+     * find the changes of the scene since a previous snapshot of it
+     *
+     * @param previous the previous snapshot (null if there is none)
+     * @return the changes - global if there is no previous snapshot
+     */
+    public SceneChanges changesSince(CompiledScene previous) {
+        List<BoundingBox> shaded = new LinkedList<>();
+        List<BoundingBox> moved = new LinkedList<>();
+        boolean global = previous == null || _untracked || previous._untracked
+                || !_background.equals(previous._background)
+                || !_ambientIntensity.equals(previous._ambientIntensity)
+                || !sameLights(previous);
+        if (!global) {
+            for (Map.Entry<Geometry, GeometryState> entry : previous._states.entrySet()) {
+                Geometry geometry = entry.getKey();
+                GeometryState before = entry.getValue();
+                GeometryState after = _states.get(geometry);
+                if (after == null) {//removed
+                    global |= !add(moved, before._box);
+                } else if (after._version != before._version) {//moved - before and after
+                    global |= !add(moved, before._box);
+                    global |= !add(moved, after._box);
+                } else if (!after._emission.equals(before._emission)
+                        || !after._material.equals(before._material)) {
+                    global |= !add(shaded, after._box);
+                }
+            }
+            for (Map.Entry<Geometry, GeometryState> entry : _states.entrySet()) {
+                if (!previous._states.containsKey(entry.getKey())) {//added
+                    global |= !add(moved, entry.getValue()._box);
+                }
+            }
+        }
+        //reflections and refractions may show the changes anywhere
+        global |= !global && (_reflective || previous._reflective) && !(shaded.isEmpty() && moved.isEmpty());
+        if (global) {
+            shaded.clear();
+            moved.clear();
+        }
+        return new SceneChanges(global, shaded, moved);
+    }
+
+    /**
+     * add a box of a changed geometry to a list
+     *
+     * @param boxes the list
+     * @param box   the box (null if the geometry is unbounded)
+     * @return false if the geometry is unbounded
+     */
+    private static boolean add(List<BoundingBox> boxes, BoundingBox box) {
+        if (box == null) {
+            return false;
+        }
+        boxes.add(box);
+        return true;
+    }
+
+    /**
+     * check whether the lights are the same lights as in a previous snapshot, unchanged
+     *
+     * @param previous the previous snapshot
+     * @return true if the lights did not change
+     */
+    private boolean sameLights(CompiledScene previous) {
+        if (_lights.length != previous._lights.length) {
+            return false;
+        }
+        for (int i = 0; i < _lights.length; ++i) {
+            if (_lights[i] != previous._lights[i] || _lightVersions[i] != previous._lightVersions[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * bring the snapshot up to date with the scene when the only changes since it was
+     * compiled are moves of its geometries (or edits of their emission) - the bounding
+     * volume hierarchy is refitted instead of built again, e.g. between frames of an animation
+     *
+     * @param scene the scene the snapshot was compiled from
+     * @return true if the snapshot was updated in place, false if the scene changed otherwise
+     * (it must be compiled again) - then the snapshot is not changed
+     */
+    public boolean update(Scene scene) {
+        if (_untracked || !_background.equals(scene._background)
+                || !_ambientIntensity.equals(scene._ambientLight.getIntensity())
+                || _lights.length != scene._lights.size()) {
+            return false;
+        }
+        int i = 0;
+        for (LightSource light : scene._lights) {
+            if (light != _lights[i] || light.getVersion() != _lightVersions[i++]) {
+                return false;
+            }
+        }
+        List<Geometry> geometries = new LinkedList<>();
+        if (!collect(scene._geometries, geometries) || geometries.size() != _geometryCount) {
+            return false;
+        }
+        boolean moved = false;
+        for (Geometry geometry : geometries) {
+            GeometryState state = _states.get(geometry);
+            if (state == null || !geometry.getMaterial().equals(state._material)) {
+                return false;
+            }
+            moved |= state._version != geometry.getVersion();
+        }
+        for (Geometry geometry : geometries) {
+            _states.put(geometry, new GeometryState(geometry));
+        }
+        if (moved) {
+            _geometries.refit();
+        }
+        return true;
+    }
+
+    /**
+     * add recursively the geometries of a collection to a flat list
+     *
+     * @param geometries geometries collection
+     * @param flat       flat list of the geometries
+     * @return false if the collection contains intersectables that are not geometries
+     */
+    private static boolean collect(Geometries geometries, List<Geometry> flat) {
+        for (Intersectable intersectable : geometries.getIntersectables()) {
+            if (intersectable instanceof Geometries) {
+                if (!collect((Geometries) intersectable, flat)) {
+                    return false;
+                }
+            } else if (intersectable instanceof Geometry) {
+                flat.add((Geometry) intersectable);
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * fingerprint of the scene as it is now - a hash of its name, background, ambient light,
+     * geometries (type, version, bounding box, emission and material) and lights (type, version,
+     * intensity and position). different scenes have different fingerprints with a very high
+     * probability (e.g. to detect that a checkpoint was left by another scene)
+     *
+     * @return the fingerprint
+     */
+    public long fingerprint() {
+        long hash = _name.hashCode();
+        hash = mix(hash, _background);
+        hash = mix(hash, _ambientIntensity);
+        hash = mix(hash, _geometryCount);
+        hash = mix(hash, _untracked ? 1 : 0);
+        //the order of the geometries in the map is not defined - their hashes are summed
+        long geometries = 0;
+        for (Geometry geometry : _states.keySet()) {
+            long h = mix(geometry.getClass().getName().hashCode(), geometry.getVersion());
+            BoundingBox box = geometry.getBoundingBox();
+            if (box != null) {
+                h = mix(mix(h, box.getMin()), box.getMax());
+            }
+            h = mix(mix(h, geometry.getEmission()), geometry.getMaterial().hashCode());
+            geometries += h * 0x9E3779B97F4A7C15L ^ h >>> 29;
+        }
+        hash = mix(hash, geometries);
+        for (LightSource light : _lights) {
+            hash = mix(mix(hash, light.getClass().getName().hashCode()), light.getVersion());
+            if (light instanceof Light)
+                hash = mix(hash, ((Light) light).getIntensity());
+            if (light instanceof PointLight)
+                hash = mix(hash, ((PointLight) light).getPosition());
+            if (light instanceof SpotLight)
+                hash = mix(hash, ((SpotLight) light).getDirection().getHead());
+            if (light instanceof AreaLight)
+                for (Point3D corner : ((AreaLight) light).getCorners())
+                    hash = mix(hash, corner);
+        }
+        return hash;
+    }
+
+    /**
+     * mix a value into a hash
+     *
+     * @param hash  the hash
+     * @param value the value
+     * @return the new hash
+     */
+    private static long mix(long hash, long value) {
+        return hash * 31 + value;
+    }
+
+    /**
+     * mix a color into a hash
+     *
+     * @param hash  the hash
+     * @param color the color
+     * @return the new hash
+     */
+    private static long mix(long hash, Color color) {
+        hash = mix(hash, Double.doubleToLongBits(color.getRed()));
+        hash = mix(hash, Double.doubleToLongBits(color.getGreen()));
+        return mix(hash, Double.doubleToLongBits(color.getBlue()));
+    }
+
+    /**
+     * mix a point into a hash
+     *
+     * @param hash  the hash
+     * @param point the point
+     * @return the new hash
+     */
+    private static long mix(long hash, Point3D point) {
+        hash = mix(hash, Double.doubleToLongBits(point.getX()));
+        hash = mix(hash, Double.doubleToLongBits(point.getY()));
+        return mix(hash, Double.doubleToLongBits(point.getZ()));
+    }
+
+    /**
+     * refit the bounding volume hierarchy after geometries of the scene have moved
+     *
+     * @return true if the hierarchy was rebuilt, false if refitting was enough
+     */
+    public boolean refit() {
+        return _geometries.refit();
+    }
+
+    /**
+     * name getter
+     *
+     * @return name of the scene
+     */
+    public String getName() {
+        return _name;
+    }
+
+    /**
+     * background getter
+     *
+     * @return background color
+     */
+    public Color getBackground() {
+        return _background;
+    }
+
+    /**
+     * ambient light intensity getter
+     *
+     * @return intensity of the ambient light
+     */
+    public Color getAmbientIntensity() {
+        return _ambientIntensity;
+    }
+
+    /**
+     * geometries getter
+     *
+     * @return bounding volume hierarchy over all the geometries
+     */
+    public BoundingVolumeHierarchy getGeometries() {
+        return _geometries;
+    }
+
+    /**
+     * lights getter (the array is shared and must not be modified)
+     *
+     * @return all the light sources
+     */
+    public LightSource[] getLights() {
+        return _lights;
+    }
+
+    /**
+     * light tree getter
+     *
+     * @return hierarchy over the lights' regions of influence
+     */
+    public LightTree getLightTree() {
+        return _lightTree;
+    }
+}
@@ -0,0 +1,266 @@
+package scene;
+
+import elements.LightSource;
+import elements.PointLight;
+import elements.SpotLight;
+import geometries.BoundingBox;
+import primitives.Point3D;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * LightTree is a bounding volume hierarchy over the regions of influence of the
+ * light sources - the sphere (half sphere for spot lights) around each attenuating
+ * light, beyond which its intensity is below a threshold. a point is shaded only by the
+ * lights whose region contains it, so far away lights are not evaluated at all.
+ * lights that do not attenuate influence every point. the threshold is {@link #MIN_INTENSITY}
+ * divided by the highest reflectance (kd+ks) of the scene's materials when it is above 1,
+ * so no light that may contribute to a point is left out
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public final class LightTree {
+    /**
+     * minimal considered intensity of a light - a contribution below it
+     * is a thousandth of a full color channel and can not be seen
+     */
+    public static final double MIN_INTENSITY = 0.255;
+    /**
+     * maximal amount of lights in a leaf
+     */
+    private static final int MAX_LEAF_SIZE = 4;
+
+    /**
+     * Entry is an attenuating light with its region of influence
+     */
+    private static class Entry {
+        /**
+         * index of the light in the scene (keeps the lights' order)
+         */
+        private final int _index;
+        /**
+         * position of the light
+         */
+        private final Point3D _position;
+        /**
+         * influence radius of the light
+         */
+        private final double _radius;
+        /**
+         * box bounding the region of influence
+         */
+        private final BoundingBox _box;
+
+        /**
+         * Entry constructor
+         *
+         * @param index  index of the light in the scene
+         * @param light  the light source
+         * @param radius influence radius of the light
+         */
+        private Entry(int index, PointLight light, double radius) {
+            _index = index;
+            _position = light.getPosition();
+            _radius = radius;
+            _box = influenceBox(light, radius);
+        }
+    }
+
+    /**
+     * Node is a node of the tree - inner nodes have two children, leaves have a range of entries
+     */
+    private static class Node {
+        private BoundingBox _box;
+        private Node _left, _right;
+        private int _first, _count;
+    }
+
+    /**
+     * attenuating lights, ordered so each leaf's entries are contiguous
+     */
+    private final Entry[] _entries;
+    /**
+     * root of the tree (null if there are no attenuating lights)
+     */
+    private final Node _root;
+    /**
+     * lights of the scene by their index
+     */
+    private final LightSource[] _lights;
+    /**
+     * bit set of the lights that influence every point
+     */
+    private final long[] _unbounded;
+    /**
+     * amount of lights that influence every point
+     */
+    private final int _unboundedCount;
+    /**
+     * bit set of the found lights (reused by the same thread)
+     */
+    private final ThreadLocal<long[]> _found;
+
+    /**
+     * LightTree constructor. builds the tree over the lights' regions of influence,
+     * for materials that reflect at most the light's intensity (kd+ks at most 1)
+     *
+     * @param lights light sources of the scene
+     */
+    public LightTree(LightSource[] lights) {
+        this(lights, 1);
+    }
+
+    /**
+     * LightTree constructor. builds the tree over the lights' regions of influence.
+     * lights that are below the threshold everywhere are left out
+     *
+     * @param lights      light sources of the scene
+     * @param reflectance highest reflectance (kd+ks) of the scene's materials
+     */
+    public LightTree(LightSource[] lights, double reflectance) {
+        double threshold = MIN_INTENSITY / Math.max(1, reflectance);
+        _lights = lights.clone();
+        _unbounded = new long[(lights.length + 63) / 64];
+        int unboundedCount = 0;
+        List<Entry> bounded = new LinkedList<>();
+        for (int i = 0; i < lights.length; ++i) {
+            double radius = lights[i].getInfluenceRadius(threshold);
+            if (radius == Double.POSITIVE_INFINITY || !(lights[i] instanceof PointLight)) {
+                _unbounded[i / 64] |= 1L << i;
+                ++unboundedCount;
+            } else if (radius > 0) {
+                bounded.add(new Entry(i, (PointLight) lights[i], radius));
+            }
+        }
+        _unboundedCount = unboundedCount;
+        _found = ThreadLocal.withInitial(() -> new long[_unbounded.length]);
+        _entries = bounded.toArray(new Entry[0]);
+        _root = _entries.length == 0 ? null : build(0, _entries.length);
+    }
+
+    /**
+     * box bounding the region of influence of a light - a sphere around the light,
+     * or for spot lights the half of the sphere in front of the light
+     *
+     * @param light  the light source
+     * @param radius influence radius of the light
+     * @return box bounding the region of influence
+     */
+    private static BoundingBox influenceBox(PointLight light, double radius) {
+        Point3D p = light.getPosition();
+        double[] center = {p.getX(), p.getY(), p.getZ()};
+        double[] min = new double[3], max = new double[3];
+        double[] direction = null;
+        if (light instanceof SpotLight) {
+            Point3D head = ((SpotLight) light).getDirection().getHead();
+            direction = new double[]{head.getX(), head.getY(), head.getZ()};
+        }
+        for (int axis = 0; axis < 3; ++axis) {
+            //extent of the half sphere along an axis opposite to the direction is limited
+            //to the rim of the half sphere - radius*sqrt(1-d^2)
+            double rim = direction == null ? radius
+                    : radius * Math.sqrt(Math.max(0, 1 - direction[axis] * direction[axis]));
+            max[axis] = center[axis] + (direction == null || direction[axis] >= 0 ? radius : rim);
+            min[axis] = center[axis] - (direction == null || direction[axis] <= 0 ? radius : rim);
+        }
+        return new BoundingBox(min[0], min[1], min[2], max[0], max[1], max[2]);
+    }
+
+    /**
+     * build recursively a node over a range of entries by splitting them
+     * at the median of the boxes' centers along the longest axis
+     *
+     * @param first index of the first entry in the range
+     * @param count amount of entries in the range
+     * @return the node
+     */
+    private Node build(int first, int count) {
+        Node node = new Node();
+        node._first = first;
+        node._count = count;
+        node._box = _entries[first]._box;
+        for (int i = first + 1; i < first + count; ++i) {
+            node._box = node._box.union(_entries[i]._box);
+        }
+        if (count <= MAX_LEAF_SIZE) {
+            return node;
+        }
+        Point3D min = node._box.getMin(), max = node._box.getMax();
+        double[] extent = {max.getX() - min.getX(), max.getY() - min.getY(), max.getZ() - min.getZ()};
+        int axis = extent[0] >= extent[1] && extent[0] >= extent[2] ? 0 : extent[1] >= extent[2] ? 1 : 2;
+        Arrays.sort(_entries, first, first + count, Comparator.comparingDouble(entry -> entry._box.getCenter(axis)));
+        node._left = build(first, count / 2);
+        node._right = build(first + count / 2, count - count / 2);
+        return node;
+    }
+
+    /**
+     * find the lights that may contribute to a point above the threshold
+     *
+     * @param point  point in the scene
+     * @param lights output - the lights, in their order in the scene (at least {@link #size()} elements)
+     * @return amount of lights found
+     */
+    public int findLights(Point3D point, LightSource[] lights) {
+        //the found lights are marked in a bit set by their index, to keep the order of the scene
+        //(so the colors are summed in the same order)
+        long[] found = _found.get();
+        System.arraycopy(_unbounded, 0, found, 0, found.length);
+        if (_root != null) {
+            find(_root, point, found);
+        }
+        int count = 0;
+        for (int word = 0; word < found.length; ++word) {
+            for (long bits = found[word]; bits != 0; bits &= bits - 1) {
+                lights[count++] = _lights[word * 64 + Long.numberOfTrailingZeros(bits)];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * find recursively the attenuating lights whose region of influence contains a point
+     *
+     * @param node  node of the tree
+     * @param point point in the scene
+     * @param found bit set of the found lights
+     */
+    private void find(Node node, Point3D point, long[] found) {
+        if (!node._box.contains(point)) {
+            return;
+        }
+        if (node._left != null) {
+            find(node._left, point, found);
+            find(node._right, point, found);
+            return;
+        }
+        for (int i = node._first; i < node._first + node._count; ++i) {
+            Entry entry = _entries[i];
+            if (entry._box.contains(point) && entry._position.distanceSquared(point) <= entry._radius * entry._radius) {
+                found[entry._index / 64] |= 1L << entry._index;
+            }
+        }
+    }
+
+    /**
+     * amount of lights getter
+     *
+     * @return amount of lights in the scene
+     */
+    public int size() {
+        return _lights.length;
+    }
+
+    /**
+     * amount of culled lights getter
+     *
+     * @return amount of lights that never contribute above the threshold
+     */
+    public int getCulledCount() {
+        return _lights.length - _unboundedCount - _entries.length;
+    }
+}
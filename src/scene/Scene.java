@@ -70,4 +70,12 @@ public class Scene {
         _lights = lights;
         return this;
     }
+
+    /**
+     * compile the scene into a snapshot of its structure optimized for rendering
+     * @return compiled scene
+     */
+    public CompiledScene compile() {
+        return new CompiledScene(this);
+    }
 }
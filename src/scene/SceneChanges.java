@@ -0,0 +1,80 @@
+package scene;
+
+import geometries.BoundingBox;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SceneChanges is the difference between two compiled snapshots of a scene - the
+ * bounding boxes of the geometries that were added, removed, moved or whose emission
+ * or material was edited. a change that can't be bounded (a change of the lights,
+ * the background or an unbounded geometry, or any change in a scene with reflective
+ * or refractive materials, which may show it anywhere) is a global change
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+public final class SceneChanges {
+    /**
+     * the whole scene may look different
+     */
+    private final boolean _global;
+    /**
+     * boxes of geometries whose shading changed (seen only where the geometries are seen)
+     */
+    private final List<BoundingBox> _shaded;
+    /**
+     * boxes of geometries that were added, removed or moved (they also change the shadows they cast)
+     */
+    private final List<BoundingBox> _moved;
+
+    /**
+     * SceneChanges constructor
+     *
+     * @param global true if the whole scene may look different
+     * @param shaded boxes of geometries whose shading changed
+     * @param moved  boxes (before and after) of geometries that were added, removed or moved
+     */
+    SceneChanges(boolean global, List<BoundingBox> shaded, List<BoundingBox> moved) {
+        _global = global;
+        _shaded = Collections.unmodifiableList(shaded);
+        _moved = Collections.unmodifiableList(moved);
+    }
+
+    /**
+     * global change getter
+     *
+     * @return true if the whole scene may look different (the boxes are not complete)
+     */
+    public boolean isGlobal() {
+        return _global;
+    }
+
+    /**
+     * check whether the scene did not change
+     *
+     * @return true if there are no changes
+     */
+    public boolean isEmpty() {
+        return !_global && _shaded.isEmpty() && _moved.isEmpty();
+    }
+
+    /**
+     * shaded boxes getter
+     *
+     * @return boxes of geometries whose emission or material changed
+     */
+    public List<BoundingBox> getShaded() {
+        return _shaded;
+    }
+
+    /**
+     * moved boxes getter
+     *
+     * @return boxes of geometries that were added, removed or moved (before and after moving)
+     */
+    public List<BoundingBox> getMoved() {
+        return _moved;
+    }
+}
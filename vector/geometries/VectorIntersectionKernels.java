@@ -0,0 +1,89 @@
+package geometries;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import static geometries.IntersectionKernels.TRIANGLE_TOLERANCE;
+
+/**
+ * VectorIntersectionKernels are the intersection kernels computed with the SIMD instructions
+ * of the CPU through the Vector API - a vector of geometries (e.g. 4 doubles with AVX2) is tested
+ * at once, and the geometries left after the last full vector are tested by the scalar kernels.
+ * the lanes do the same operations in the same order as the scalar kernels, so the distances
+ * are identical. compiled and run with {@code --add-modules jdk.incubator.vector}, and loaded
+ * by {@link IntersectionBatch} only when the module is present
+ *
+ * @author Reuven Klein
+ * @author Lior Peretz
+ */
+class VectorIntersectionKernels implements IntersectionKernels {
+    /**
+     * the widest vector of doubles of the CPU
+     */
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void intersectSpheres(double ox, double oy, double oz, double dx, double dy, double dz,
+                                 double[] cx, double[] cy, double[] cz, double[] radius, int count,
+                                 double[] t1, double[] t2) {
+        int bound = SPECIES.loopBound(count);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector ux = DoubleVector.fromArray(SPECIES, cx, i).sub(ox);
+            DoubleVector uy = DoubleVector.fromArray(SPECIES, cy, i).sub(oy);
+            DoubleVector uz = DoubleVector.fromArray(SPECIES, cz, i).sub(oz);
+            DoubleVector tM = ux.mul(dx).add(uy.mul(dy)).add(uz.mul(dz));
+            DoubleVector dSquared = ux.mul(ux).add(uy.mul(uy)).add(uz.mul(uz)).sub(tM.mul(tM)).max(0);
+            DoubleVector r = DoubleVector.fromArray(SPECIES, radius, i);
+            //NaN when the ray misses the sphere
+            DoubleVector tH = r.mul(r).sub(dSquared).lanewise(VectorOperators.SQRT);
+            tM.sub(tH).intoArray(t1, i);
+            tM.add(tH).intoArray(t2, i);
+        }
+        ScalarIntersectionKernels.intersectSpheres(ox, oy, oz, dx, dy, dz, cx, cy, cz, radius, bound, count, t1, t2);
+    }
+
+    @Override
+    public void intersectTriangles(double ox, double oy, double oz, double dx, double dy, double dz,
+                                   double[] v0x, double[] v0y, double[] v0z,
+                                   double[] e1x, double[] e1y, double[] e1z,
+                                   double[] e2x, double[] e2y, double[] e2z, double[] minDet,
+                                   int count, double[] t) {
+        DoubleVector zero = DoubleVector.zero(SPECIES);
+        DoubleVector nan = DoubleVector.broadcast(SPECIES, Double.NaN);
+        int bound = SPECIES.loopBound(count);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector ax = DoubleVector.fromArray(SPECIES, e1x, i);
+            DoubleVector ay = DoubleVector.fromArray(SPECIES, e1y, i);
+            DoubleVector az = DoubleVector.fromArray(SPECIES, e1z, i);
+            DoubleVector bx = DoubleVector.fromArray(SPECIES, e2x, i);
+            DoubleVector by = DoubleVector.fromArray(SPECIES, e2y, i);
+            DoubleVector bz = DoubleVector.fromArray(SPECIES, e2z, i);
+            //p = dir x e2
+            DoubleVector px = bz.mul(dy).sub(by.mul(dz));
+            DoubleVector py = bx.mul(dz).sub(bz.mul(dx));
+            DoubleVector pz = by.mul(dx).sub(bx.mul(dy));
+            DoubleVector det = ax.mul(px).add(ay.mul(py)).add(az.mul(pz));
+            DoubleVector invDet = DoubleVector.broadcast(SPECIES, 1).div(det);
+            //s = p0 - v0
+            DoubleVector sx = DoubleVector.broadcast(SPECIES, ox).sub(DoubleVector.fromArray(SPECIES, v0x, i));
+            DoubleVector sy = DoubleVector.broadcast(SPECIES, oy).sub(DoubleVector.fromArray(SPECIES, v0y, i));
+            DoubleVector sz = DoubleVector.broadcast(SPECIES, oz).sub(DoubleVector.fromArray(SPECIES, v0z, i));
+            DoubleVector u = sx.mul(px).add(sy.mul(py)).add(sz.mul(pz)).mul(invDet);
+            //q = s x e1
+            DoubleVector qx = sy.mul(az).sub(sz.mul(ay));
+            DoubleVector qy = sz.mul(ax).sub(sx.mul(az));
+            DoubleVector qz = sx.mul(ay).sub(sy.mul(ax));
+            DoubleVector v = qx.mul(dx).add(qy.mul(dy)).add(qz.mul(dz)).mul(invDet);
+            DoubleVector dist = bx.mul(qx).add(by.mul(qy)).add(bz.mul(qz)).mul(invDet);
+            VectorMask<Double> parallel = det.abs().compare(VectorOperators.LE, DoubleVector.fromArray(SPECIES, minDet, i));
+            VectorMask<Double> hit = u.compare(VectorOperators.GE, -TRIANGLE_TOLERANCE)
+                    .and(v.compare(VectorOperators.GE, -TRIANGLE_TOLERANCE))
+                    .and(u.add(v).compare(VectorOperators.LE, 1 + TRIANGLE_TOLERANCE));
+            nan.blend(dist, hit).blend(zero, parallel).intoArray(t, i);
+        }
+        ScalarIntersectionKernels.intersectTriangles(ox, oy, oz, dx, dy, dz, v0x, v0y, v0z, e1x, e1y, e1z,
+                e2x, e2y, e2z, minDet, bound, count, t);
+    }
+}